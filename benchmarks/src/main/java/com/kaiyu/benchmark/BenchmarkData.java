@@ -0,0 +1,63 @@
+package com.kaiyu.benchmark;
+
+import com.kaiyu.entity.Building;
+import com.kaiyu.entity.Dorm;
+import com.kaiyu.entity.Role;
+import com.kaiyu.entity.Student;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基准测试用的数据，取值与 dormadmin.sql 中的数据保持一致
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 取前 count 个角色：超级管理员、管理员
+     */
+    static List<Role> roles(int count) {
+        List<Role> roles = new ArrayList<>(Arrays.asList(role(1, "ROLE_admin", "超级管理员"),
+                role(2, "ROLE_manager", "管理员")));
+        return roles.subList(0, count);
+    }
+
+    static Role role(int id, String name, String nameZh) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(name);
+        role.setNameZh(nameZh);
+        return role;
+    }
+
+    static List<Student> students(int count) {
+        Building building = new Building();
+        building.setId(1);
+        building.setName("1号楼");
+        building.setBuildingType(0);
+        building.setRemark("男生宿舍");
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Dorm dorm = new Dorm();
+            dorm.setId(i / 4 + 1);
+            dorm.setName(String.valueOf(101 + i / 4));
+            dorm.setBuildingId(1);
+            dorm.setMaxNum(4);
+            dorm.setRemark("");
+            dorm.setBuilding(building);
+            Student student = new Student();
+            student.setId(i + 1);
+            student.setStudentNo(String.valueOf(2021000001L + i));
+            student.setStudentName("学生" + i);
+            student.setSex(0);
+            student.setDormId(dorm.getId());
+            student.setDorm(dorm);
+            students.add(student);
+        }
+        return students;
+    }
+}
@@ -0,0 +1,60 @@
+package com.kaiyu.benchmark;
+
+import com.google.code.kaptcha.impl.DefaultKaptcha;
+import com.kaiyu.config.KaptchaConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 验证码生成：绘制图片和编码为JPEG分开测，配置与 KaptchaConfig 相同
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class CaptchaBenchmark {
+
+    private DefaultKaptcha kaptcha;
+    private BufferedImage image;
+
+    @Setup
+    public void setUp() {
+        kaptcha = new KaptchaConfig().getDefaultKaptcha();
+        image = kaptcha.createImage("1234");
+    }
+
+    @Benchmark
+    public BufferedImage render() {
+        return kaptcha.createImage(kaptcha.createText());
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] renderAndEncode() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        ImageIO.write(kaptcha.createImage(kaptcha.createText()), "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,86 @@
+package com.kaiyu.benchmark;
+
+import com.kaiyu.config.CustomFilterInvocationSecurityMetadataSource;
+import com.kaiyu.entity.Menu;
+import com.kaiyu.service.MenuService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.web.FilterInvocation;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按请求地址匹配菜单、取出所需角色，每个请求都会执行一次。
+ * menus 为菜单数，5 是当前库里带接口地址的菜单数；分别测第一个菜单命中、最后一个菜单命中和都不命中
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecurityMetadataBenchmark {
+
+    @Param({"5", "50", "200"})
+    private int menus;
+
+    private CustomFilterInvocationSecurityMetadataSource metadataSource;
+    private FilterInvocation firstMenu;
+    private FilterInvocation lastMenu;
+    private FilterInvocation unmatched;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        List<Menu> menuList = new ArrayList<>(menus);
+        for (int i = 0; i < menus; i++) {
+            Menu menu = new Menu();
+            menu.setId(i + 7);
+            menu.setUrl("/api/module" + i + "/**");
+            menu.setRoles(BenchmarkData.roles(i % 2 == 0 ? 1 : 2));
+            menuList.add(menu);
+        }
+        List<Menu> result = Collections.unmodifiableList(menuList);
+        metadataSource = new CustomFilterInvocationSecurityMetadataSource();
+        Field field = CustomFilterInvocationSecurityMetadataSource.class.getDeclaredField("menuService");
+        field.setAccessible(true);
+        field.set(metadataSource, new MenuService() {
+            @Override
+            public List<Menu> getAllMenusWithRole() {
+                return result;
+            }
+        });
+        firstMenu = new FilterInvocation("/api/module0/list", "GET");
+        lastMenu = new FilterInvocation("/api/module" + (menus - 1) + "/page/1", "GET");
+        unmatched = new FilterInvocation("/api/verifyCode", "GET");
+    }
+
+    @Benchmark
+    public Collection<ConfigAttribute> firstMenu() {
+        return metadataSource.getAttributes(firstMenu);
+    }
+
+    @Benchmark
+    public Collection<ConfigAttribute> lastMenu() {
+        return metadataSource.getAttributes(lastMenu);
+    }
+
+    @Benchmark
+    public Collection<ConfigAttribute> unmatched() {
+        return metadataSource.getAttributes(unmatched);
+    }
+}
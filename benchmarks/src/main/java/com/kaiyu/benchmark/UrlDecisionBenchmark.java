@@ -0,0 +1,73 @@
+package com.kaiyu.benchmark;
+
+import com.kaiyu.config.CustomUrlDecisionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.FilterInvocation;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 权限判断：只需登录、角色匹配和权限不足三种情况。权限不足会抛出异常，单独测出异常的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlDecisionBenchmark {
+
+    private CustomUrlDecisionManager decisionManager;
+    private Authentication manager;
+    private FilterInvocation invocation;
+    private Collection<ConfigAttribute> loginOnly;
+    private Collection<ConfigAttribute> adminOrManager;
+    private Collection<ConfigAttribute> adminOnly;
+
+    @Setup
+    public void setUp() {
+        decisionManager = new CustomUrlDecisionManager();
+        manager = new UsernamePasswordAuthenticationToken("manager", null,
+                AuthorityUtils.createAuthorityList("ROLE_manager"));
+        invocation = new FilterInvocation("/api/student/list", "GET");
+        loginOnly = SecurityConfig.createList("ROLE_LOGIN");
+        adminOrManager = SecurityConfig.createList("ROLE_admin", "ROLE_manager");
+        adminOnly = SecurityConfig.createList("ROLE_admin");
+    }
+
+    @Benchmark
+    public void loginOnly() {
+        decisionManager.decide(manager, invocation, loginOnly);
+    }
+
+    @Benchmark
+    public void roleGranted() {
+        decisionManager.decide(manager, invocation, adminOrManager);
+    }
+
+    @Benchmark
+    public AccessDeniedException roleDenied() {
+        try {
+            decisionManager.decide(manager, invocation, adminOnly);
+            throw new IllegalStateException("应当拒绝访问");
+        } catch (AccessDeniedException e) {
+            return e;
+        }
+    }
+}
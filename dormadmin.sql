@@ -66,6 +66,20 @@ INSERT INTO `dorm` VALUES (260, 'M2317', 260, 4, NULL);
 INSERT INTO `dorm` VALUES (261, 'G239', 263, 4, NULL);
 INSERT INTO `dorm` VALUES (263, 'K212', 267, 4, NULL);
 
+-- ----------------------------
+-- Table structure for dorm_checkout
+-- ----------------------------
+DROP TABLE IF EXISTS `dorm_checkout`;
+CREATE TABLE `dorm_checkout`  (
+  `id` int(0) NOT NULL AUTO_INCREMENT,
+  `student_id` int(0) NOT NULL COMMENT '学生id',
+  `student_no` varchar(10) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL COMMENT '学号',
+  `dorm_id` int(0) NOT NULL COMMENT '退宿前的宿舍id',
+  `checkout_time` datetime(0) NOT NULL COMMENT '退宿时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `dorm_checkout_student_id`(`student_id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
+
 -- ----------------------------
 -- Table structure for menu
 -- ----------------------------
@@ -155,7 +169,9 @@ CREATE TABLE `student`  (
   `student_name` varchar(10) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL,
   `sex` tinyint(1) NOT NULL DEFAULT 1,
   `dorm_id` int(0) NULL DEFAULT NULL,
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `student_dorm_id`(`dorm_id`) USING BTREE,
+  INDEX `student_no`(`student_no`) USING BTREE
 ) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
 
 -- ----------------------------
@@ -174,6 +190,39 @@ INSERT INTO `student` VALUES (10, '2040706106', '王五', 1, 261);
 INSERT INTO `student` VALUES (11, '2040706107', '赵喜宇', 1, 261);
 INSERT INTO `student` VALUES (12, '2040706108', '黄叶华', 1, 261);
 
+-- ----------------------------
+-- Table structure for student_archive
+-- ----------------------------
+DROP TABLE IF EXISTS `student_archive`;
+CREATE TABLE `student_archive`  (
+  `id` int(0) NOT NULL COMMENT '归档前的学生id',
+  `student_no` varchar(10) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL,
+  `student_name` varchar(10) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL,
+  `sex` tinyint(1) NOT NULL DEFAULT 1,
+  `archive_time` datetime(0) NOT NULL COMMENT '归档时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `student_archive_no`(`student_no`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
+
+-- ----------------------------
+-- Table structure for table_version
+-- ----------------------------
+DROP TABLE IF EXISTS `table_version`;
+CREATE TABLE `table_version`  (
+  `table_name` varchar(64) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL COMMENT '表名',
+  `version` bigint(0) NOT NULL DEFAULT 0 COMMENT '版本号，表中有增删改时由触发器加一',
+  PRIMARY KEY (`table_name`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
+
+-- ----------------------------
+-- Records of table_version
+-- ----------------------------
+INSERT INTO `table_version` VALUES ('building', 0);
+INSERT INTO `table_version` VALUES ('dorm', 0);
+INSERT INTO `table_version` VALUES ('menu', 0);
+INSERT INTO `table_version` VALUES ('menu_role', 0);
+INSERT INTO `table_version` VALUES ('role', 0);
+
 -- ----------------------------
 -- Table structure for user
 -- ----------------------------
@@ -216,4 +265,99 @@ CREATE TABLE `user_role`  (
 INSERT INTO `user_role` VALUES (75, 13, 1);
 INSERT INTO `user_role` VALUES (76, 14, 2);
 
+-- ----------------------------
+-- Triggers structure for table building
+-- ----------------------------
+DROP TRIGGER IF EXISTS `building_version_insert`;
+delimiter ;;
+CREATE TRIGGER `building_version_insert` AFTER INSERT ON `building` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'building'
+;;
+delimiter ;
+DROP TRIGGER IF EXISTS `building_version_update`;
+delimiter ;;
+CREATE TRIGGER `building_version_update` AFTER UPDATE ON `building` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'building'
+;;
+delimiter ;
+DROP TRIGGER IF EXISTS `building_version_delete`;
+delimiter ;;
+CREATE TRIGGER `building_version_delete` AFTER DELETE ON `building` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'building'
+;;
+delimiter ;
+
+-- ----------------------------
+-- Triggers structure for table dorm
+-- ----------------------------
+DROP TRIGGER IF EXISTS `dorm_version_insert`;
+delimiter ;;
+CREATE TRIGGER `dorm_version_insert` AFTER INSERT ON `dorm` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'dorm'
+;;
+delimiter ;
+DROP TRIGGER IF EXISTS `dorm_version_update`;
+delimiter ;;
+CREATE TRIGGER `dorm_version_update` AFTER UPDATE ON `dorm` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'dorm'
+;;
+delimiter ;
+DROP TRIGGER IF EXISTS `dorm_version_delete`;
+delimiter ;;
+CREATE TRIGGER `dorm_version_delete` AFTER DELETE ON `dorm` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'dorm'
+;;
+delimiter ;
+
+-- ----------------------------
+-- Triggers structure for table menu
+-- ----------------------------
+DROP TRIGGER IF EXISTS `menu_version_insert`;
+delimiter ;;
+CREATE TRIGGER `menu_version_insert` AFTER INSERT ON `menu` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'menu'
+;;
+delimiter ;
+DROP TRIGGER IF EXISTS `menu_version_update`;
+delimiter ;;
+CREATE TRIGGER `menu_version_update` AFTER UPDATE ON `menu` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'menu'
+;;
+delimiter ;
+DROP TRIGGER IF EXISTS `menu_version_delete`;
+delimiter ;;
+CREATE TRIGGER `menu_version_delete` AFTER DELETE ON `menu` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'menu'
+;;
+delimiter ;
+
+-- ----------------------------
+-- Triggers structure for table menu_role
+-- ----------------------------
+DROP TRIGGER IF EXISTS `menu_role_version_insert`;
+delimiter ;;
+CREATE TRIGGER `menu_role_version_insert` AFTER INSERT ON `menu_role` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'menu_role'
+;;
+delimiter ;
+DROP TRIGGER IF EXISTS `menu_role_version_update`;
+delimiter ;;
+CREATE TRIGGER `menu_role_version_update` AFTER UPDATE ON `menu_role` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'menu_role'
+;;
+delimiter ;
+DROP TRIGGER IF EXISTS `menu_role_version_delete`;
+delimiter ;;
+CREATE TRIGGER `menu_role_version_delete` AFTER DELETE ON `menu_role` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'menu_role'
+;;
+delimiter ;
+
+-- ----------------------------
+-- Triggers structure for table role
+-- ----------------------------
+DROP TRIGGER IF EXISTS `role_version_insert`;
+delimiter ;;
+CREATE TRIGGER `role_version_insert` AFTER INSERT ON `role` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'role'
+;;
+delimiter ;
+DROP TRIGGER IF EXISTS `role_version_update`;
+delimiter ;;
+CREATE TRIGGER `role_version_update` AFTER UPDATE ON `role` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'role'
+;;
+delimiter ;
+DROP TRIGGER IF EXISTS `role_version_delete`;
+delimiter ;;
+CREATE TRIGGER `role_version_delete` AFTER DELETE ON `role` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'role'
+;;
+delimiter ;
+
 SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,152 @@
+package com.kaiyu.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 多节点间的本地缓存一致性：某个节点失效缓存后，在事务提交后广播失效消息，
+ * 其他节点收到后清除各自的本地缓存，Redis二级缓存由发起节点直接删除
+ */
+@Slf4j
+public class CacheInvalidationBus {
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+    private final InvalidationBroker broker;
+    private final Map<String, Long> lastVersions = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder ignored = new LongAdder();
+    private TwoLevelCacheManager cacheManager;
+
+    public CacheInvalidationBus(InvalidationBroker broker) {
+        this.broker = broker;
+    }
+
+    public void bind(TwoLevelCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+        broker.subscribe(this::onMessage);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 注册非Spring缓存的失效处理，例如MyBatis结果缓存按表名失效
+     */
+    public void register(String namespace, Consumer<String> handler) {
+        handlers.put(namespace, handler);
+    }
+
+    /**
+     * 立即广播，调用方自行保证在事务提交后调用
+     */
+    public void publish(String namespace, String key) {
+        send(namespace, key);
+    }
+
+    /**
+     * 在事务中调用时推迟到提交之后，避免其他节点在提交前重新加载到旧数据。
+     * 提交前任何节点都可能读到旧数据并写回Redis，提交后先再删一次Redis，再通知其他节点
+     *
+     * @param key 为null表示清空整个缓存
+     */
+    public void publish(TwoLevelCache cache, Object key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evictRemote(key);
+                    evictLocal(cache, key);
+                    send(cache.getName(), keyString(key));
+                }
+            });
+        } else {
+            send(cache.getName(), keyString(key));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", nodeId);
+        stats.put("published", published.sum());
+        stats.put("applied", applied.sum());
+        stats.put("ignored", ignored.sum());
+        return stats;
+    }
+
+    private void send(String cacheName, String key) {
+        InvalidationMessage message = new InvalidationMessage(nodeId, sequence.incrementAndGet(), cacheName, key);
+        try {
+            broker.publish(message.encode());
+            published.increment();
+        } catch (RuntimeException e) {
+            log.warn("缓存失效消息发送失败，其他节点本地缓存将在过期后刷新：{}", e.getMessage());
+        }
+    }
+
+    private void onMessage(String text) {
+        InvalidationMessage message;
+        try {
+            message = InvalidationMessage.decode(text);
+        } catch (IllegalArgumentException e) {
+            log.warn(e.getMessage());
+            return;
+        }
+        if (nodeId.equals(message.getOrigin()) || isDuplicate(message)) {
+            ignored.increment();
+            return;
+        }
+        Consumer<String> handler = handlers.get(message.getCache());
+        if (handler != null) {
+            handler.accept(message.getKey());
+            applied.increment();
+            return;
+        }
+        TwoLevelCache cache = cacheManager.getCache(message.getCache());
+        if (message.getKey() == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocalByKeyString(message.getKey());
+        }
+        applied.increment();
+    }
+
+    /**
+     * 同一节点发出的消息版本号递增，收到不大于已处理版本的消息说明是重复投递
+     */
+    private boolean isDuplicate(InvalidationMessage message) {
+        long[] duplicate = new long[1];
+        lastVersions.merge(message.getOrigin(), message.getVersion(), (last, version) -> {
+            if (version <= last) {
+                duplicate[0] = 1;
+                return last;
+            }
+            return version;
+        });
+        return duplicate[0] == 1;
+    }
+
+    private static String keyString(Object key) {
+        return key == null ? null : key.toString();
+    }
+
+    private static void evictLocal(TwoLevelCache cache, Object key) {
+        if (key == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.kaiyu.cache;
+
+/**
+ * 缓存名称，需要在 application.yml 的 cache.caches 中配置对应的容量和过期时间
+ */
+public final class CacheNames {
+
+    public static final String MENUS = "menus_cache";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,52 @@
+package com.kaiyu.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 两级缓存配置，未单独配置的缓存使用 defaultPolicy
+ */
+@Data
+@ConfigurationProperties(prefix = "cache")
+public class CachePolicyProperties {
+
+    /**
+     * 是否使用Redis作为二级缓存，关闭后只使用本地缓存
+     */
+    private boolean redisEnabled = true;
+
+    /**
+     * Redis不可用后，间隔多久再尝试访问
+     */
+    private Duration redisRetryInterval = Duration.ofSeconds(30);
+
+    /**
+     * 多节点部署时广播本地缓存失效消息的Redis频道，为空则不广播
+     */
+    private String invalidationChannel = "dormadmin:cache:invalidate";
+
+    private Policy defaultPolicy = new Policy();
+
+    private Map<String, Policy> caches = new LinkedHashMap<>();
+
+    public Policy getPolicy(String name) {
+        return caches.getOrDefault(name, defaultPolicy);
+    }
+
+    @Data
+    public static class Policy {
+
+        /**
+         * 本地缓存最大条目数，超过后按 W-TinyLFU 淘汰
+         */
+        private long maximumSize = 1000;
+
+        private Duration localTtl = Duration.ofMinutes(5);
+
+        private Duration remoteTtl = Duration.ofMinutes(30);
+    }
+}
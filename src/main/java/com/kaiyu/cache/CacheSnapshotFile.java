@@ -0,0 +1,224 @@
+package com.kaiyu.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存快照文件，按段保存，每段包含名称、数据来源表的版本号和Java序列化后的数据：
+ * <pre>
+ * magic(int) formatVersion(int) createdAt(long) sectionCount(int)
+ * section: name tableCount(int) [table version(long)]... payloadLength(int) payload
+ * </pre>
+ * 读取时只读映射整个文件，各段的数据在映射区上按需反序列化，不先复制到堆内。
+ * 反序列化只允许实体类和JDK集合，文件被替换成其他内容时不会实例化任意类
+ */
+public final class CacheSnapshotFile {
+
+    private static final int MAGIC = 0x44534E50;
+    private static final int FORMAT_VERSION = 1;
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=64;com.kaiyu.entity.*;java.util.*;java.lang.*;"
+                    + "org.springframework.cache.interceptor.SimpleKey;org.springframework.cache.support.NullValue;!*");
+
+    private CacheSnapshotFile() {
+    }
+
+    /**
+     * 写入临时文件后原子替换目标文件
+     */
+    public static void write(Path file, List<Section> sections) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(sections.size());
+                for (Section section : sections) {
+                    writeString(out, section.name);
+                    out.writeInt(section.versions.size());
+                    for (Map.Entry<String, Long> entry : section.versions.entrySet()) {
+                        writeString(out, entry.getKey());
+                        out.writeLong(entry.getValue());
+                    }
+                    ByteBuffer payload = section.payload.duplicate();
+                    out.writeInt(payload.remaining());
+                    byte[] bytes = new byte[payload.remaining()];
+                    payload.get(bytes);
+                    out.write(bytes);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return 按名称索引的各段，文件格式不对时抛出 IOException
+     */
+    public static Contents read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("不是缓存快照文件：" + file);
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("快照文件格式版本不支持：" + version);
+            }
+            long createdAt = buffer.getLong();
+            int count = buffer.getInt();
+            Map<String, Section> sections = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String name = readString(buffer);
+                int tables = buffer.getInt();
+                Map<String, Long> versions = new LinkedHashMap<>();
+                for (int t = 0; t < tables; t++) {
+                    versions.put(readString(buffer), buffer.getLong());
+                }
+                int length = buffer.getInt();
+                ByteBuffer payload = buffer.slice();
+                payload.limit(length);
+                buffer.position(buffer.position() + length);
+                sections.put(name, new Section(name, versions, payload));
+            }
+            return new Contents(createdAt, sections);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("快照文件不完整：" + file, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static final class Contents {
+
+        private final long createdAt;
+        private final Map<String, Section> sections;
+
+        private Contents(long createdAt, Map<String, Section> sections) {
+            this.createdAt = createdAt;
+            this.sections = Collections.unmodifiableMap(sections);
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public Section get(String name) {
+            return sections.get(name);
+        }
+
+        public Map<String, Section> getSections() {
+            return sections;
+        }
+    }
+
+    public static final class Section {
+
+        private final String name;
+        private final Map<String, Long> versions;
+        private final ByteBuffer payload;
+
+        private Section(String name, Map<String, Long> versions, ByteBuffer payload) {
+            this.name = name;
+            this.versions = Collections.unmodifiableMap(versions);
+            this.payload = payload;
+        }
+
+        /**
+         * @param versions 写入前读取的数据来源表版本号
+         */
+        public static Section of(String name, Map<String, Long> versions, Object value) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            }
+            return new Section(name, new LinkedHashMap<>(versions), ByteBuffer.wrap(bytes.toByteArray()));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, Long> getVersions() {
+            return versions;
+        }
+
+        public int size() {
+            return payload.remaining();
+        }
+
+        public Object value() throws IOException, ClassNotFoundException {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(payload.duplicate()))) {
+                in.setObjectInputFilter(FILTER);
+                return in.readObject();
+            }
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
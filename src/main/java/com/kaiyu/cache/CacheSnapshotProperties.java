@@ -0,0 +1,35 @@
+package com.kaiyu.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存快照配置。定时写入的间隔用 cache-snapshot.write-interval-ms 配置
+ */
+@Data
+@ConfigurationProperties(prefix = "cache-snapshot")
+public class CacheSnapshotProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 快照文件路径，写入时先写临时文件再替换，不会留下写了一半的文件
+     */
+    private String file = "data/cache-snapshot.bin";
+
+    /**
+     * 需要写入快照的缓存及其数据来源表，恢复时这些表在 table_version 中的版本号与写入时一致才使用快照。
+     * 表需要登记在 table_version 中并建有维护版本号的触发器，否则该缓存不写入快照
+     */
+    private Map<String, List<String>> caches = new LinkedHashMap<>();
+
+    /**
+     * 基础数据快照（宿舍楼、宿舍、角色）的数据来源表
+     */
+    private List<String> referenceTables = new ArrayList<>(List.of("building", "dorm", "role"));
+}
@@ -0,0 +1,13 @@
+package com.kaiyu.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 缓存失效消息的发布/订阅通道，生产环境使用Redis pub/sub
+ */
+public interface InvalidationBroker {
+
+    void publish(String message);
+
+    void subscribe(Consumer<String> listener);
+}
@@ -0,0 +1,45 @@
+package com.kaiyu.cache;
+
+import lombok.Getter;
+
+/**
+ * 缓存失效消息，编码为 "节点|版本|缓存名|键"，键为空表示清空整个缓存
+ */
+@Getter
+public class InvalidationMessage {
+
+    private static final char SEPARATOR = '|';
+
+    private final String origin;
+    private final long version;
+    private final String cache;
+    private final String key;
+
+    public InvalidationMessage(String origin, long version, String cache, String key) {
+        this.origin = origin;
+        this.version = version;
+        this.cache = cache;
+        this.key = key;
+    }
+
+    public String encode() {
+        return origin + SEPARATOR + version + SEPARATOR + cache + SEPARATOR + (key == null ? "" : key);
+    }
+
+    /**
+     * 键本身可能包含分隔符，所以只按前三个分隔符拆分
+     */
+    public static InvalidationMessage decode(String text) {
+        int first = text.indexOf(SEPARATOR);
+        int second = text.indexOf(SEPARATOR, first + 1);
+        int third = text.indexOf(SEPARATOR, second + 1);
+        if (first < 0 || second < 0 || third < 0) {
+            throw new IllegalArgumentException("无效的缓存失效消息：" + text);
+        }
+        String key = text.substring(third + 1);
+        return new InvalidationMessage(text.substring(0, first),
+                Long.parseLong(text.substring(first + 1, second)),
+                text.substring(second + 1, third),
+                key.isEmpty() ? null : key);
+    }
+}
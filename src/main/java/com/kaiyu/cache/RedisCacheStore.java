@@ -0,0 +1,112 @@
+package com.kaiyu.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二级缓存的Redis存储。访问失败后在 retryInterval 内直接跳过Redis，
+ * 此时两级缓存退化为只使用本地缓存，不会因为Redis故障拖慢请求
+ */
+@Slf4j
+public class RedisCacheStore {
+
+    private static final int SCAN_COUNT = 500;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final long retryIntervalMillis;
+    private final LongAdder errors = new LongAdder();
+    private volatile long unavailableUntil;
+
+    public RedisCacheStore(RedisTemplate<String, Object> redisTemplate, Duration retryInterval) {
+        this.redisTemplate = redisTemplate;
+        this.retryIntervalMillis = retryInterval.toMillis();
+    }
+
+    public boolean isAvailable() {
+        return System.currentTimeMillis() >= unavailableUntil;
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public Object get(String key) {
+        if (!isAvailable()) {
+            return null;
+        }
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (RuntimeException e) {
+            failed(e);
+            return null;
+        }
+    }
+
+    public void put(String key, Object value, Duration ttl) {
+        if (!isAvailable()) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(key, value, ttl.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            failed(e);
+        }
+    }
+
+    public void delete(String key) {
+        if (!isAvailable()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(key);
+        } catch (RuntimeException e) {
+            failed(e);
+        }
+    }
+
+    /**
+     * 用SCAN删除指定前缀的所有键，避免KEYS阻塞Redis
+     */
+    public void deleteByPrefix(String prefix) {
+        if (!isAvailable()) {
+            return;
+        }
+        try {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                List<byte[]> keys = new ArrayList<>();
+                ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(SCAN_COUNT).build();
+                try (Cursor<byte[]> cursor = connection.scan(options)) {
+                    while (cursor.hasNext()) {
+                        keys.add(cursor.next());
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (!keys.isEmpty()) {
+                    connection.del(keys.toArray(new byte[0][]));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            failed(e);
+        }
+    }
+
+    private void failed(RuntimeException e) {
+        errors.increment();
+        if (isAvailable()) {
+            log.warn("Redis二级缓存不可用，{}ms内只使用本地缓存：{}", retryIntervalMillis, e.getMessage());
+        }
+        unavailableUntil = System.currentTimeMillis() + retryIntervalMillis;
+    }
+}
@@ -0,0 +1,33 @@
+package com.kaiyu.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+public class RedisInvalidationBroker implements InvalidationBroker {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer container;
+    private final ChannelTopic topic;
+
+    public RedisInvalidationBroker(StringRedisTemplate redisTemplate, RedisMessageListenerContainer container,
+                                   String channel) {
+        this.redisTemplate = redisTemplate;
+        this.container = container;
+        this.topic = new ChannelTopic(channel);
+    }
+
+    @Override
+    public void publish(String message) {
+        redisTemplate.convertAndSend(topic.getTopic(), message);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        container.addMessageListener((message, pattern) ->
+                listener.accept(new String(message.getBody(), StandardCharsets.UTF_8)), topic);
+    }
+}
@@ -0,0 +1,134 @@
+package com.kaiyu.cache;
+
+import com.kaiyu.entity.Building;
+import com.kaiyu.entity.Dorm;
+import com.kaiyu.entity.Role;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 宿舍楼、宿舍、角色的只读快照。快照创建后不再修改，数据变化时整体替换，
+ * 读取方可直接返回其中的列表而无需复制；列表中的对象同样不能被调用方修改
+ */
+public final class ReferenceSnapshot {
+
+    public static final ReferenceSnapshot EMPTY = new ReferenceSnapshot(
+            Index.empty(), Index.empty(), Index.empty(), 0L);
+
+    private final Index<Building> buildings;
+    private final Index<Dorm> dorms;
+    private final Index<Role> roles;
+    private final long version;
+
+    private ReferenceSnapshot(Index<Building> buildings, Index<Dorm> dorms, Index<Role> roles, long version) {
+        this.buildings = buildings;
+        this.dorms = dorms;
+        this.roles = roles;
+        this.version = version;
+    }
+
+    public Index<Building> getBuildings() {
+        return buildings;
+    }
+
+    public Index<Dorm> getDorms() {
+        return dorms;
+    }
+
+    public Index<Role> getRoles() {
+        return roles;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public ReferenceSnapshot withBuildings(List<Building> list) {
+        return new ReferenceSnapshot(new Index<>(list, Building::getId), dorms, roles, version + 1);
+    }
+
+    public ReferenceSnapshot withDorms(List<Dorm> list) {
+        return new ReferenceSnapshot(buildings, new Index<>(list, Dorm::getId), roles, version + 1);
+    }
+
+    public ReferenceSnapshot withRoles(List<Role> list) {
+        return new ReferenceSnapshot(buildings, dorms, new Index<>(list, Role::getId), version + 1);
+    }
+
+    /**
+     * 替换或新增一栋宿舍楼，building 为null时从快照中移除该id
+     */
+    public ReferenceSnapshot withBuilding(Integer id, Building building) {
+        return new ReferenceSnapshot(buildings.with(id, building), dorms, roles, version + 1);
+    }
+
+    /**
+     * 替换或新增一间宿舍，dorm 为null时从快照中移除该id
+     */
+    public ReferenceSnapshot withDorm(Integer id, Dorm dorm) {
+        return new ReferenceSnapshot(buildings, dorms.with(id, dorm), roles, version + 1);
+    }
+
+    /**
+     * 按id建立索引的只读列表，单条变化时复制出新的索引，原索引不变
+     */
+    public static final class Index<T> {
+
+        private final List<T> list;
+        private final Map<Integer, T> byId;
+        private final Function<T, Integer> id;
+
+        private Index(List<T> source, Function<T, Integer> id) {
+            Map<Integer, T> ids = new HashMap<>(source.size() * 2);
+            for (T item : source) {
+                ids.put(id.apply(item), item);
+            }
+            this.list = Collections.unmodifiableList(new ArrayList<>(source));
+            this.byId = ids;
+            this.id = id;
+        }
+
+        private static <T> Index<T> empty() {
+            return new Index<>(Collections.emptyList(), t -> null);
+        }
+
+        /**
+         * 原来有该id时原位替换，没有时追加到末尾；item 为null时移除
+         */
+        private Index<T> with(Integer key, T item) {
+            List<T> source = new ArrayList<>(list.size() + 1);
+            if (!byId.containsKey(key)) {
+                source.addAll(list);
+                if (item != null) {
+                    source.add(item);
+                }
+                return new Index<>(source, id);
+            }
+            for (T existing : list) {
+                if (!key.equals(id.apply(existing))) {
+                    source.add(existing);
+                } else if (item != null) {
+                    source.add(item);
+                }
+            }
+            return new Index<>(source, id);
+        }
+
+        public List<T> all() {
+            return list;
+        }
+
+        public T byId(Integer id) {
+            return byId.get(id);
+        }
+
+        public int size() {
+            return list.size();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.kaiyu.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.pagehelper.page.PageMethod;
+import com.kaiyu.utils.SqlTables;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MyBatis查询结果缓存。
+ * <p>
+ * 每张表维护一个版本号，缓存的结果记录查询前所读各表的版本；任一表的增删改提交后版本号加一，
+ * 依赖该表的结果在下次读取时即视为失效。事务中写过的表在提交前不走缓存，避免缓存未提交的数据。
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class StatementCacheInterceptor implements Interceptor {
+
+    public static final String NAMESPACE = "mybatis_tables";
+
+    private final Set<String> statements;
+    private final Cache<CacheKey, Entry> results;
+    private final Map<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+    private final Map<String, String[]> readTables = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> writeTables = new ConcurrentHashMap<>();
+    private final CacheInvalidationBus invalidationBus;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param invalidationBus 为null时只在本节点失效
+     */
+    public StatementCacheInterceptor(StatementCacheProperties properties, CacheInvalidationBus invalidationBus) {
+        this.statements = new HashSet<>(properties.getStatements());
+        this.results = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+        this.invalidationBus = invalidationBus;
+        if (invalidationBus != null) {
+            invalidationBus.register(NAMESPACE, this::bumpLocal);
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        if ("update".equals(invocation.getMethod().getName())) {
+            Object result = invocation.proceed();
+            tablesWritten(ms, args[1]);
+            return result;
+        }
+        if (!statements.contains(ms.getId()) || args[3] != Executor.NO_RESULT_HANDLER
+                || PageMethod.getLocalPage() != null) {
+            return invocation.proceed();
+        }
+        Executor executor = (Executor) invocation.getTarget();
+        BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(args[1]);
+        String[] tables = readTables.computeIfAbsent(ms.getId(),
+                id -> SqlTables.readTables(boundSql.getSql()).toArray(new String[0]));
+        if (writtenInTransaction(tables)) {
+            return invocation.proceed();
+        }
+        CacheKey key = args.length == 6 ? (CacheKey) args[4]
+                : executor.createCacheKey(ms, args[1], (RowBounds) args[2], boundSql);
+        long[] versions = versions(tables);
+        Entry entry = results.getIfPresent(key);
+        if (entry != null && entry.isValid(versions)) {
+            hits.increment();
+            return new ArrayList<>(entry.rows);
+        }
+        misses.increment();
+        @SuppressWarnings("unchecked")
+        List<Object> rows = (List<Object>) invocation.proceed();
+        results.put(key, new Entry(versions, new ArrayList<>(rows)));
+        return rows;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getSize() {
+        return results.estimatedSize();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", results.estimatedSize());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("invalidations", invalidations.sum());
+        Map<String, Long> versions = new LinkedHashMap<>();
+        tableVersions.forEach((table, version) -> versions.put(table, version.get()));
+        stats.put("tableVersions", versions);
+        return stats;
+    }
+
+    /**
+     * 写操作执行后立即让本节点的相关缓存失效，事务提交或回滚后再失效一次并广播给其他节点
+     */
+    private void tablesWritten(MappedStatement ms, Object parameter) {
+        Set<String> tables = writeTables.computeIfAbsent(ms.getId(),
+                id -> SqlTables.writeTables(ms.getBoundSql(parameter).getSql()));
+        if (tables.isEmpty()) {
+            return;
+        }
+        tables.forEach(this::bumpLocal);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Set<String> pending = pendingTables();
+            if (pending.isEmpty()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(StatementCacheInterceptor.this);
+                        pending.forEach(StatementCacheInterceptor.this::bump);
+                    }
+                });
+            }
+            pending.addAll(tables);
+        } else if (invalidationBus != null) {
+            tables.forEach(table -> invalidationBus.publish(NAMESPACE, table));
+        }
+    }
+
+    private void bump(String table) {
+        bumpLocal(table);
+        if (invalidationBus != null) {
+            invalidationBus.publish(NAMESPACE, table);
+        }
+    }
+
+    private void bumpLocal(String table) {
+        tableVersions.computeIfAbsent(table, t -> new AtomicLong()).incrementAndGet();
+        invalidations.increment();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> pendingTables() {
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+        }
+        return pending;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean writtenInTransaction(String[] tables) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            return false;
+        }
+        for (String table : tables) {
+            if (pending.contains(table)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long[] versions(String[] tables) {
+        long[] versions = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            versions[i] = tableVersions.computeIfAbsent(tables[i], t -> new AtomicLong()).get();
+        }
+        return versions;
+    }
+
+    private static class Entry {
+
+        private final long[] versions;
+        private final List<Object> rows;
+
+        private Entry(long[] versions, List<Object> rows) {
+            this.versions = versions;
+            this.rows = rows;
+        }
+
+        private boolean isValid(long[] current) {
+            for (int i = 0; i < versions.length; i++) {
+                if (versions[i] != current[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.kaiyu.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MyBatis查询结果缓存配置
+ */
+@Data
+@ConfigurationProperties(prefix = "statement-cache")
+public class StatementCacheProperties {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 500;
+
+    /**
+     * 兜底过期时间，限制跨节点失效消息丢失时的最长不一致时间
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * 需要缓存的查询语句id，例如 com.kaiyu.dao.BuildingDao.getBuildingAll
+     */
+    private List<String> statements = new ArrayList<>();
+}
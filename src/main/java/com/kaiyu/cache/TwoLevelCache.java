@@ -0,0 +1,229 @@
+package com.kaiyu.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地Caffeine一级缓存 + Redis二级缓存。读取时先查本地，未命中再查Redis并回填本地；
+ * 写入和失效同时作用于两级
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<Object, Object> local;
+    private final RedisCacheStore remote;
+    private final Duration remoteTtl;
+    private final String keyPrefix;
+    private final CacheInvalidationBus invalidationBus;
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+
+    public TwoLevelCache(String name, Cache<Object, Object> local, RedisCacheStore remote, Duration remoteTtl) {
+        this(name, local, remote, remoteTtl, null);
+    }
+
+    /**
+     * @param remote          为null时只使用本地缓存
+     * @param invalidationBus 为null时不向其他节点广播失效消息
+     */
+    public TwoLevelCache(String name, Cache<Object, Object> local, RedisCacheStore remote, Duration remoteTtl,
+                         CacheInvalidationBus invalidationBus) {
+        super(true);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.remoteTtl = remoteTtl;
+        this.keyPrefix = name + "::";
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = local.getIfPresent(key);
+        if (value == null) {
+            value = remoteGet(key);
+            if (value != null) {
+                local.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 同一个key只有一个线程加载，其他线程等待这次加载的结果，不同key之间互不等待。
+     * 不用 Caffeine 的 get(key, mappingFunction)：它在 ConcurrentHashMap 的同步块内执行加载，
+     * 加载时查Redis和数据库，在虚拟线程上会占住载体线程
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) fromStoreValue(value);
+        }
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loading.putIfAbsent(key, created);
+        if (inFlight != null) {
+            try {
+                return (T) fromStoreValue(inFlight.join());
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        try {
+            // 上一次加载可能在 lookup 之后刚刚完成
+            value = local.getIfPresent(key);
+            if (value == null) {
+                value = toStoreValue(valueLoader.call());
+                local.put(key, value);
+                remotePut(key, value);
+            }
+            created.complete(value);
+            return (T) fromStoreValue(value);
+        } catch (Throwable e) {
+            created.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loading.remove(key, created);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object storeValue = toStoreValue(value);
+        local.put(key, storeValue);
+        remotePut(key, storeValue);
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.invalidate(key);
+        evictRemote(key);
+        if (invalidationBus != null) {
+            invalidationBus.publish(this, key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        local.invalidateAll();
+        evictRemote(null);
+        if (invalidationBus != null) {
+            invalidationBus.publish(this, null);
+        }
+    }
+
+    /**
+     * 只删除Redis中的值
+     *
+     * @param key 为null表示删除整个缓存
+     */
+    public void evictRemote(Object key) {
+        if (remote == null) {
+            return;
+        }
+        if (key == null) {
+            remote.deleteByPrefix(keyPrefix);
+        } else {
+            remote.delete(remoteKey(key));
+        }
+    }
+
+    /**
+     * 只清除本节点的本地缓存
+     */
+    public void evictLocal(Object key) {
+        local.invalidate(key);
+    }
+
+    /**
+     * 其他节点传来的键只有字符串形式，按字符串匹配本地的键
+     */
+    public void evictLocalByKeyString(String key) {
+        local.asMap().keySet().removeIf(k -> k.toString().equals(key));
+    }
+
+    public void clearLocal() {
+        local.invalidateAll();
+    }
+
+    /**
+     * 只写入本节点的本地缓存，value 是 {@link #localEntries()} 返回的存储值，用于从快照恢复
+     */
+    public void putLocal(Object key, Object storeValue) {
+        local.put(key, storeValue);
+    }
+
+    /**
+     * 本地缓存当前内容的副本，值是存储值（null 已转换为 NullValue）
+     */
+    public Map<Object, Object> localEntries() {
+        return new LinkedHashMap<>(local.asMap());
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getRemoteMisses() {
+        return remoteMisses.sum();
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = local.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", local.estimatedSize());
+        result.put("localHits", stats.hitCount());
+        result.put("localMisses", stats.missCount());
+        result.put("localHitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("remoteHits", getRemoteHits());
+        result.put("remoteMisses", getRemoteMisses());
+        result.put("remoteAvailable", remote != null && remote.isAvailable());
+        return result;
+    }
+
+    private Object remoteGet(Object key) {
+        if (remote == null) {
+            return null;
+        }
+        Object value = remote.get(remoteKey(key));
+        if (value == null) {
+            remoteMisses.increment();
+        } else {
+            remoteHits.increment();
+        }
+        return value;
+    }
+
+    private void remotePut(Object key, Object storeValue) {
+        if (remote != null) {
+            remote.put(remoteKey(key), storeValue, remoteTtl);
+        }
+    }
+
+    private String remoteKey(Object key) {
+        return keyPrefix + key;
+    }
+}
@@ -0,0 +1,75 @@
+package com.kaiyu.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按 {@link CachePolicyProperties} 为每个缓存创建有容量和过期时间限制的两级缓存
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CachePolicyProperties properties;
+    private final RedisCacheStore remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>(16);
+
+    /**
+     * @param remote          为null时所有缓存只使用本地缓存
+     * @param invalidationBus 为null时只有单节点，不广播失效消息
+     */
+    public TwoLevelCacheManager(CachePolicyProperties properties, RedisCacheStore remote,
+                                CacheInvalidationBus invalidationBus) {
+        this.properties = properties;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        if (invalidationBus != null) {
+            invalidationBus.bind(this);
+        }
+        for (String name : properties.getCaches().keySet()) {
+            getCache(name);
+        }
+    }
+
+    @Override
+    public TwoLevelCache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    public RedisCacheStore getRemote() {
+        return remote;
+    }
+
+    public CacheInvalidationBus getInvalidationBus() {
+        return invalidationBus;
+    }
+
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (TwoLevelCache cache : caches.values()) {
+            stats.put(cache.getName(), cache.getStats());
+        }
+        return stats;
+    }
+
+    private TwoLevelCache createCache(String name) {
+        CachePolicyProperties.Policy policy = properties.getPolicy(name);
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> local = Caffeine.newBuilder()
+                .maximumSize(policy.getMaximumSize())
+                .expireAfterWrite(policy.getLocalTtl())
+                .recordStats()
+                .build();
+        return new TwoLevelCache(name, local, remote, policy.getRemoteTtl(), invalidationBus);
+    }
+}
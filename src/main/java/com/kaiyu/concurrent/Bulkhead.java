@@ -0,0 +1,135 @@
+package com.kaiyu.concurrent;
+
+import com.kaiyu.datasource.QueryCounter;
+import com.kaiyu.metrics.ResourceUsage;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 一个功能独占的有界线程池。线程和队列都满时立即抛出 {@link BulkheadFullException}，不在请求线程上排队，
+ * 一个功能变慢只会耗尽自己的线程池，不影响其他接口。
+ * <p>
+ * 任务在线程池中执行时带上提交线程的登录信息、请求、追踪上下文、SQL计数和资源统计，
+ * 读写分离路由、菜单查询、追踪span和过期数据标记与在请求线程上执行时一致
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param pool 为null时不使用线程池，任务在调用线程上直接执行
+     */
+    public Bulkhead(String name, BulkheadProperties.Pool pool) {
+        this.name = name;
+        if (pool == null) {
+            this.executor = null;
+            return;
+        }
+        this.executor = new ThreadPoolExecutor(pool.getThreads(), pool.getThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, pool.getQueueCapacity())),
+                new CustomizableThreadFactory("bulkhead-" + name + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 提交任务，返回的 CompletableFuture 可以直接作为控制器的返回值
+     *
+     * @throws BulkheadFullException 线程和队列都已占满
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (executor == null) {
+            return CompletableFuture.completedFuture(task.get());
+        }
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        Context traceContext = Context.current();
+        QueryCounter.Counts counts = QueryCounter.current();
+        ResourceUsage usage = ResourceUsage.current();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                SecurityContextHolder.setContext(securityContext);
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+                if (counts != null) {
+                    QueryCounter.resume(counts);
+                }
+                ResourceUsage.Segment segment = usage == null ? null : usage.measure();
+                T result = null;
+                Throwable error = null;
+                try (Scope ignored = traceContext.makeCurrent()) {
+                    result = task.get();
+                } catch (Throwable e) {
+                    error = e;
+                } finally {
+                    if (segment != null) {
+                        segment.end();
+                    }
+                    QueryCounter.stop();
+                    RequestContextHolder.resetRequestAttributes();
+                    SecurityContextHolder.clearContext();
+                }
+                // 统计先累加完再完成，异步分派汇总时已包含本线程的部分
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(result);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BulkheadFullException(name);
+        }
+        return future;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getActiveCount() {
+        return executor == null ? 0 : executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor == null ? 0 : executor.getMaximumPoolSize());
+        stats.put("active", getActiveCount());
+        stats.put("queued", getQueueSize());
+        stats.put("queueCapacity", executor == null ? 0
+                : executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("completed", executor == null ? 0 : executor.getCompletedTaskCount());
+        stats.put("rejected", getRejectedCount());
+        return stats;
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
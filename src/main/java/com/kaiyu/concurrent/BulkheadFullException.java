@@ -0,0 +1,18 @@
+package com.kaiyu.concurrent;
+
+/**
+ * 隔离线程池的线程和队列都已占满，请求被拒绝
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    private final String bulkhead;
+
+    public BulkheadFullException(String bulkhead) {
+        super("线程池 " + bulkhead + " 已满");
+        this.bulkhead = bulkhead;
+    }
+
+    public String getBulkhead() {
+        return bulkhead;
+    }
+}
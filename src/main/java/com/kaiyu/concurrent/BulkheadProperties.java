@@ -0,0 +1,47 @@
+package com.kaiyu.concurrent;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按功能划分的隔离线程池配置
+ */
+@Data
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * 关闭后查询在请求线程上直接执行，不再隔离
+     */
+    private boolean enabled = true;
+
+    /**
+     * 异步请求的超时时间，超时返回503
+     */
+    private Duration timeout = Duration.ofSeconds(10);
+
+    /**
+     * 未单独配置的功能使用的线程池大小
+     */
+    private Pool defaultPool = new Pool();
+
+    /**
+     * 按功能名配置的线程池，启动时创建
+     */
+    private Map<String, Pool> pools = new LinkedHashMap<>();
+
+    @Data
+    public static class Pool {
+
+        private int threads = 8;
+
+        /**
+         * 线程都在忙时最多排队的任务数，队列满后直接拒绝
+         */
+        private int queueCapacity = 50;
+    }
+}
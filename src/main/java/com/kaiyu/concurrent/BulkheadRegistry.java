@@ -0,0 +1,58 @@
+package com.kaiyu.concurrent;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 各功能的隔离线程池。配置中的线程池在启动时创建，未配置的功能第一次使用时按默认大小创建
+ */
+public class BulkheadRegistry {
+
+    public static final String STUDENT = "student";
+    public static final String DORM = "dorm";
+    public static final String BUILDING = "building";
+    public static final String USER = "user";
+
+    private final BulkheadProperties properties;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public BulkheadRegistry(BulkheadProperties properties) {
+        this.properties = properties;
+        for (String name : properties.getPools().keySet()) {
+            get(name);
+        }
+    }
+
+    public Bulkhead get(String name) {
+        Bulkhead bulkhead = bulkheads.get(name);
+        if (bulkhead != null) {
+            return bulkhead;
+        }
+        return bulkheads.computeIfAbsent(name, this::create);
+    }
+
+    public Collection<Bulkhead> getAll() {
+        return bulkheads.values();
+    }
+
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            stats.put(bulkhead.getName(), bulkhead.getStats());
+        }
+        return stats;
+    }
+
+    public void shutdown() {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+    }
+
+    private Bulkhead create(String name) {
+        if (!properties.isEnabled()) {
+            return new Bulkhead(name, null);
+        }
+        return new Bulkhead(name, properties.getPools().getOrDefault(name, properties.getDefaultPool()));
+    }
+}
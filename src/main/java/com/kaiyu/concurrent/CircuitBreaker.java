@@ -0,0 +1,216 @@
+package com.kaiyu.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 数据库熔断器，按最近 windowSize 次调用的失败率和慢调用率判断。
+ * <ul>
+ *     <li>CLOSED：正常放行，失败率或慢调用率超过阈值时熔断</li>
+ *     <li>OPEN：拒绝所有调用，openDuration 后放行一次试探调用并进入 HALF_OPEN</li>
+ *     <li>HALF_OPEN：试探期间其他调用仍被拒绝；调用成功则恢复，失败或慢调用则重新熔断</li>
+ * </ul>
+ * 状态变化很少，记录结果用 ReentrantLock 保护环形窗口，虚拟线程等待时不占载体线程
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final byte SUCCESS = 0;
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final byte[] window;
+    private int position;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private long trialStartedAt;
+    private boolean trialInFlight;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreaker(String name, DegradedModeProperties properties) {
+        this(name, properties, System::nanoTime);
+    }
+
+    public CircuitBreaker(String name, DegradedModeProperties properties, LongSupplier clock) {
+        this.name = name;
+        this.window = new byte[Math.max(1, properties.getWindowSize())];
+        this.minimumCalls = Math.max(1, Math.min(properties.getMinimumCalls(), window.length));
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.slowCallRateThreshold = properties.getSlowCallRateThreshold();
+        this.slowCallNanos = properties.getSlowCallDuration().toNanos();
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * 是否放行本次调用。熔断期间返回false，到达 openDuration 后的第一次调用作为试探放行
+     */
+    public boolean tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            if (state == State.OPEN && now - openedAt >= openNanos) {
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN && (!trialInFlight || now - trialStartedAt >= openNanos)) {
+                // 试探调用长时间没有结果时允许再试探一次
+                trialInFlight = true;
+                trialStartedAt = now;
+                return true;
+            }
+            if (state == State.CLOSED) {
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * 记录一次完成的调用，耗时超过 slowCallDuration 计为慢调用
+     */
+    public void onSuccess(long durationNanos) {
+        record(isSlow(durationNanos) ? SLOW : SUCCESS);
+    }
+
+    public boolean isSlow(long durationNanos) {
+        return durationNanos >= slowCallNanos;
+    }
+
+    public void onFailure() {
+        record(FAILURE);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("state", state.name());
+            stats.put("calls", calls);
+            stats.put("failureRate", calls == 0 ? 0.0 : (double) failures / calls);
+            stats.put("slowCallRate", calls == 0 ? 0.0 : (double) slowCalls / calls);
+            if (state != State.CLOSED) {
+                stats.put("openedSecondsAgo", TimeUnit.NANOSECONDS.toSeconds(clock.getAsLong() - openedAt));
+            }
+        } finally {
+            lock.unlock();
+        }
+        stats.put("opened", getOpenedCount());
+        stats.put("rejected", getRejectedCount());
+        return stats;
+    }
+
+    private void record(byte outcome) {
+        lock.lock();
+        try {
+            switch (state) {
+                case HALF_OPEN:
+                    if (outcome == SUCCESS) {
+                        transition(State.CLOSED);
+                    } else {
+                        transition(State.OPEN);
+                    }
+                    break;
+                case CLOSED:
+                    add(outcome);
+                    if (calls >= minimumCalls && (failures >= failureRateThreshold * calls
+                            || slowCalls >= slowCallRateThreshold * calls)) {
+                        transition(State.OPEN);
+                    }
+                    break;
+                default:
+                    // 熔断前已经发出的调用，结果不再计入
+                    break;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(byte outcome) {
+        if (calls == window.length) {
+            remove(window[position]);
+        } else {
+            calls++;
+        }
+        window[position] = outcome;
+        if (outcome == FAILURE) {
+            failures++;
+        } else if (outcome == SLOW) {
+            slowCalls++;
+        }
+        position = (position + 1) % window.length;
+    }
+
+    private void remove(byte outcome) {
+        if (outcome == FAILURE) {
+            failures--;
+        } else if (outcome == SLOW) {
+            slowCalls--;
+        }
+    }
+
+    private void transition(State target) {
+        state = target;
+        trialInFlight = false;
+        if (target == State.OPEN) {
+            openedAt = clock.getAsLong();
+            opened.increment();
+            log.warn("{}熔断，{}秒后试探恢复，窗口内{}次调用失败{}次、慢调用{}次", name,
+                    TimeUnit.NANOSECONDS.toSeconds(openNanos), calls, failures, slowCalls);
+        } else if (target == State.CLOSED) {
+            position = 0;
+            calls = 0;
+            failures = 0;
+            slowCalls = 0;
+            log.info("{}已恢复", name);
+        } else {
+            log.info("{}放行试探调用", name);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.kaiyu.concurrent;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 同一方法、相同参数的并发调用合并为一次执行，后到的调用等待并共享第一次调用的结果或异常。
+ * <p>
+ * 只用于只读查询；返回值需要可序列化，等待的调用拿到的是结果的副本
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+
+    /**
+     * 结果依赖当前登录用户（方法内读取登录信息）时设为true，只合并同一用户的调用
+     */
+    boolean perUser() default false;
+}
@@ -0,0 +1,50 @@
+package com.kaiyu.concurrent;
+
+import com.kaiyu.datasource.ReadYourWritesTracker;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+
+/**
+ * 合并 {@link Coalesced} 方法的并发调用。排在事务之外，等待的调用不开启事务、不占用数据库连接。
+ * <p>
+ * 刚提交过写操作的用户不参与合并，避免拿到写入前开始的调用结果，与从库路由的读己之写保持一致
+ */
+@Aspect
+public class CoalescingAspect implements Ordered {
+
+    private final RequestCoalescer coalescer;
+    private final ReadYourWritesTracker tracker;
+
+    /**
+     * @param tracker 为null时所有调用都参与合并
+     */
+    public CoalescingAspect(RequestCoalescer coalescer, ReadYourWritesTracker tracker) {
+        this.coalescer = coalescer;
+        this.tracker = tracker;
+    }
+
+    @Around("@annotation(coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint, Coalesced coalesced) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Method method = signature.getMethod();
+        InvocationKey key = InvocationKey.of(method, coalesced.perUser(), joinPoint.getArgs());
+        if (key == null || (tracker != null && tracker.wroteRecently(ReadYourWritesTracker.currentUser()))) {
+            return joinPoint.proceed();
+        }
+        String name = signature.getDeclaringType().getSimpleName() + "." + method.getName();
+        return coalescer.execute(name, key, joinPoint::proceed);
+    }
+
+    /**
+     * 事务切面默认为最低优先级，本切面在它外层
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+}
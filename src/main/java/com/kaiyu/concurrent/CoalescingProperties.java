@@ -0,0 +1,21 @@
+package com.kaiyu.concurrent;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 并发相同查询合并配置
+ */
+@Data
+@ConfigurationProperties(prefix = "coalescing")
+public class CoalescingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 后到的调用等待第一次调用结果的最长时间，超时后自己执行查询
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,52 @@
+package com.kaiyu.concurrent;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 数据库降级配置：熔断条件和过期数据的保留时间
+ */
+@Data
+@ConfigurationProperties(prefix = "degraded-mode")
+public class DegradedModeProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 按最近多少次数据库调用计算失败率和慢调用率
+     */
+    private int windowSize = 50;
+
+    /**
+     * 窗口内调用数达到该值后才判断是否熔断
+     */
+    private int minimumCalls = 20;
+
+    private double failureRateThreshold = 0.5;
+
+    private double slowCallRateThreshold = 0.8;
+
+    /**
+     * 单条语句或获取连接超过该时间计为慢调用
+     */
+    private Duration slowCallDuration = Duration.ofSeconds(2);
+
+    /**
+     * 熔断后多久放行一次试探调用，试探成功后恢复
+     */
+    private Duration openDuration = Duration.ofSeconds(10);
+
+    /**
+     * 过期数据最多保留多久，超过后降级时不再返回
+     */
+    private Duration maxStaleAge = Duration.ofHours(1);
+
+    private long maxStaleEntries = 10_000;
+
+    /**
+     * 后台刷新过期数据的线程数
+     */
+    private int revalidationThreads = 2;
+}
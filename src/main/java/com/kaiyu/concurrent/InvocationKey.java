@@ -0,0 +1,54 @@
+package com.kaiyu.concurrent;
+
+import com.kaiyu.datasource.ReadYourWritesTracker;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 方法调用的键：方法、参数，以及结果依赖登录用户时的用户名
+ */
+final class InvocationKey {
+
+    private final Method method;
+    private final String user;
+    private final Object[] args;
+    private final int hash;
+
+    private InvocationKey(Method method, String user, Object[] args) {
+        this.method = method;
+        this.user = user;
+        this.args = args;
+        this.hash = 31 * (31 * method.hashCode() + Objects.hashCode(user)) + Arrays.deepHashCode(args);
+    }
+
+    /**
+     * @return perUser 为true但当前没有登录用户时返回null，这类调用不能与其他调用共享结果
+     */
+    static InvocationKey of(Method method, boolean perUser, Object[] args) {
+        if (!perUser) {
+            return new InvocationKey(method, null, args);
+        }
+        String user = ReadYourWritesTracker.currentUser();
+        return user == null ? null : new InvocationKey(method, user, args);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InvocationKey)) {
+            return false;
+        }
+        InvocationKey other = (InvocationKey) o;
+        return hash == other.hash && method.equals(other.method) && Objects.equals(user, other.user)
+                && Arrays.deepEquals(args, other.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
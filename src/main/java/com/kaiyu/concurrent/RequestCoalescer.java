@@ -0,0 +1,195 @@
+package com.kaiyu.concurrent;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.util.SerializationUtils;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 进行中的调用表：键相同的并发调用只有第一个执行，其余等待它的结果。
+ * 执行结束后立即从表中移除，之后的调用重新执行，不缓存结果。
+ * <p>
+ * 结果对象是可变的实体，不在调用方之间共享：第一个调用拿到原对象，有等待者时把结果序列化一次，
+ * 每个等待者反序列化出自己的副本。结果不能序列化时等待者各自执行
+ */
+public class RequestCoalescer {
+
+    private static final String METER = "dormadmin.coalescing.calls";
+
+    private final long timeoutNanos;
+    private final MeterRegistry registry;
+    private final Map<Object, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry 为null时不注册指标
+     */
+    public RequestCoalescer(CoalescingProperties properties, MeterRegistry registry) {
+        this.timeoutNanos = properties.getTimeout().toNanos();
+        this.registry = registry;
+    }
+
+    /**
+     * 执行或加入键相同的进行中调用
+     *
+     * @param name 统计名，通常为 类名.方法名
+     * @param key  相同键的并发调用合并
+     */
+    public Object execute(String name, Object key, Call call) throws Throwable {
+        Stats methodStats = stats(name);
+        InFlight mine = new InFlight();
+        InFlight current = inFlight.compute(key, (k, existing) -> existing == null ? mine : existing.addWaiter());
+        if (current != mine) {
+            return join(current, methodStats, call);
+        }
+        methodStats.executed.increment();
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = call.proceed();
+            return result;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            // 移除后不会再有新的等待者，此时的等待者数量决定是否需要复制结果
+            inFlight.remove(key, mine);
+            mine.complete(result, failure);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("inFlight", inFlight.size());
+        Map<String, Object> methods = new TreeMap<>();
+        stats.forEach((name, s) -> methods.put(name, s.snapshot()));
+        result.put("methods", methods);
+        return result;
+    }
+
+    private Object join(InFlight existing, Stats methodStats, Call call) throws Throwable {
+        Supplier<Object> copy;
+        try {
+            copy = existing.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            methodStats.collapsed.increment();
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            methodStats.timeouts.increment();
+            return call.proceed();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        if (copy == null) {
+            methodStats.executed.increment();
+            return call.proceed();
+        }
+        methodStats.collapsed.increment();
+        return copy.get();
+    }
+
+    private Stats stats(String name) {
+        Stats methodStats = stats.get(name);
+        if (methodStats != null) {
+            return methodStats;
+        }
+        return stats.computeIfAbsent(name, this::register);
+    }
+
+    private Stats register(String name) {
+        Stats methodStats = new Stats();
+        if (registry != null) {
+            FunctionCounter.builder(METER, methodStats.executed, LongAdder::sum)
+                    .tags("method", name, "result", "executed")
+                    .register(registry);
+            FunctionCounter.builder(METER, methodStats.collapsed, LongAdder::sum)
+                    .tags("method", name, "result", "collapsed")
+                    .description("等待并共享了进行中调用结果的次数")
+                    .register(registry);
+            FunctionCounter.builder(METER, methodStats.timeouts, LongAdder::sum)
+                    .tags("method", name, "result", "timeout")
+                    .register(registry);
+        }
+        return methodStats;
+    }
+
+    /**
+     * 被合并的调用，通常为 ProceedingJoinPoint::proceed
+     */
+    @FunctionalInterface
+    public interface Call {
+
+        Object proceed() throws Throwable;
+    }
+
+    /**
+     * 进行中的一次调用。waiters 只在 inFlight 的 compute 和 remove 中修改和读取，由其桶锁保护
+     */
+    private static class InFlight {
+
+        /**
+         * 结果副本的来源；为null表示结果不能复制，等待者需要自己执行
+         */
+        private final CompletableFuture<Supplier<Object>> result = new CompletableFuture<>();
+        private int waiters;
+
+        InFlight addWaiter() {
+            waiters++;
+            return this;
+        }
+
+        void complete(Object value, Throwable failure) {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else if (waiters == 0 || value == null) {
+                result.complete(() -> null);
+            } else {
+                result.complete(copier(value));
+            }
+        }
+
+        private static Supplier<Object> copier(Object value) {
+            if (!(value instanceof Serializable)) {
+                return null;
+            }
+            byte[] bytes;
+            try {
+                bytes = SerializationUtils.serialize(value);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            return () -> SerializationUtils.deserialize(bytes);
+        }
+    }
+
+    private static class Stats {
+
+        private final LongAdder executed = new LongAdder();
+        private final LongAdder collapsed = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            long executedCount = executed.sum();
+            long collapsedCount = collapsed.sum();
+            snapshot.put("executed", executedCount);
+            snapshot.put("collapsed", collapsedCount);
+            snapshot.put("timeouts", timeouts.sum());
+            long total = executedCount + collapsedCount;
+            snapshot.put("collapsedRatio", total == 0 ? 0.0 : (double) collapsedCount / total);
+            return snapshot;
+        }
+    }
+}
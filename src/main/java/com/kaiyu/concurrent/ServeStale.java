@@ -0,0 +1,22 @@
+package com.kaiyu.concurrent;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 数据库熔断或查询失败时返回该方法最近一次成功的结果，同时在后台重新查询。
+ * 返回过期数据时响应头带 X-Data-Stale，见 DegradedModeAdvice
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ServeStale {
+
+    /**
+     * 结果依赖当前登录用户时设为true，按用户分别保存
+     */
+    boolean perUser() default false;
+}
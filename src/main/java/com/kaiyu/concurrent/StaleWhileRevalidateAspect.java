@@ -0,0 +1,177 @@
+package com.kaiyu.concurrent;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ServeStale} 方法的降级读：每次成功的结果按方法和参数保存一份，
+ * 熔断期间直接返回保存的结果并在后台刷新，未熔断但查询因数据库异常失败时也返回保存的结果。
+ * 没有保存过结果的调用照常执行，熔断期间由 CircuitBreakingDataSource 立即失败。
+ * <p>
+ * 排在合并切面之外，后台刷新同样会被合并；同一个键同时只有一个后台刷新
+ */
+@Slf4j
+@Aspect
+public class StaleWhileRevalidateAspect implements Ordered {
+
+    /**
+     * 返回过期数据时在请求上记录数据的秒数
+     */
+    public static final String STALE_AGE_ATTRIBUTE = StaleWhileRevalidateAspect.class.getName() + ".STALE_AGE";
+
+    private static final int REVALIDATION_QUEUE = 100;
+
+    private final CircuitBreaker circuitBreaker;
+    private final Cache<InvocationKey, Snapshot> lastGood;
+    private final ThreadPoolExecutor revalidator;
+    private final Set<InvocationKey> revalidating = ConcurrentHashMap.newKeySet();
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder revalidated = new LongAdder();
+    private final LongAdder revalidationFailures = new LongAdder();
+
+    public StaleWhileRevalidateAspect(CircuitBreaker circuitBreaker, DegradedModeProperties properties) {
+        this.circuitBreaker = circuitBreaker;
+        this.lastGood = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxStaleEntries())
+                .expireAfterWrite(properties.getMaxStaleAge())
+                .build();
+        int threads = Math.max(1, properties.getRevalidationThreads());
+        this.revalidator = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REVALIDATION_QUEUE), new CustomizableThreadFactory("revalidate-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Around("@annotation(serveStale)")
+    public Object serve(ProceedingJoinPoint joinPoint, ServeStale serveStale) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        InvocationKey key = InvocationKey.of(signature.getMethod(), serveStale.perUser(), joinPoint.getArgs());
+        if (key == null) {
+            return joinPoint.proceed();
+        }
+        Snapshot stale = lastGood.getIfPresent(key);
+        if (stale != null && !circuitBreaker.isClosed()) {
+            revalidate(key, joinPoint);
+            return serveStale(stale);
+        }
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            if (stale != null && isDatabaseFailure(e)) {
+                log.debug("{} 查询失败，返回过期数据：{}", signature.toShortString(), e.toString());
+                return serveStale(stale);
+            }
+            throw e;
+        }
+        lastGood.put(key, new Snapshot(result));
+        return result;
+    }
+
+    /**
+     * 在合并切面外层，合并切面在事务外层
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 2;
+    }
+
+    public long getStaleServedCount() {
+        return staleServed.sum();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", lastGood.estimatedSize());
+        stats.put("staleServed", getStaleServedCount());
+        stats.put("revalidating", revalidating.size());
+        stats.put("revalidated", revalidated.sum());
+        stats.put("revalidationFailures", revalidationFailures.sum());
+        return stats;
+    }
+
+    public void shutdown() {
+        revalidator.shutdownNow();
+    }
+
+    private Object serveStale(Snapshot stale) {
+        staleServed.increment();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            // 异步请求中初次分派结束后 RequestAttributes 已失效，直接写到请求上
+            ((ServletRequestAttributes) attributes).getRequest()
+                    .setAttribute(STALE_AGE_ATTRIBUTE, (System.currentTimeMillis() - stale.storedAt) / 1000);
+        }
+        return stale.value;
+    }
+
+    /**
+     * 后台重新执行一次，成功后替换保存的结果，失败等下一次返回过期数据时再试；熔断期间由熔断器决定是否真正访问数据库
+     */
+    private void revalidate(InvocationKey key, ProceedingJoinPoint joinPoint) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        try {
+            revalidator.execute(() -> {
+                SecurityContextHolder.setContext(securityContext);
+                try {
+                    lastGood.put(key, new Snapshot(joinPoint.proceed()));
+                    revalidated.increment();
+                } catch (Throwable e) {
+                    revalidationFailures.increment();
+                    log.debug("后台刷新 {} 失败：{}", joinPoint.getSignature().toShortString(), e.toString());
+                } finally {
+                    SecurityContextHolder.clearContext();
+                    revalidating.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            revalidating.remove(key);
+        }
+    }
+
+    private static boolean isDatabaseFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DataAccessException || t instanceof TransactionException || t instanceof SQLException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Snapshot {
+
+        private final Object value;
+        private final long storedAt = System.currentTimeMillis();
+
+        Snapshot(Object value) {
+            this.value = value;
+        }
+    }
+}
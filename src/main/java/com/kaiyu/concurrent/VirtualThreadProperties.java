@@ -0,0 +1,29 @@
+package com.kaiyu.concurrent;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 虚拟线程模式配置，需要 Java 21 及以上的运行环境
+ */
+@Data
+@ConfigurationProperties(prefix = "virtual-threads")
+public class VirtualThreadProperties {
+
+    /**
+     * 开启后 Tomcat 为每个请求创建一个虚拟线程，请求中的服务调用也在该虚拟线程上执行
+     */
+    private boolean enabled = false;
+
+    /**
+     * 同时持有数据库连接的请求数上限，0表示与主库连接池大小相同
+     */
+    private int maxConcurrentConnections = 0;
+
+    /**
+     * 等待连接许可的最长时间，超时抛出 SQLTransientConnectionException
+     */
+    private Duration connectionWaitTimeout = Duration.ofSeconds(30);
+}
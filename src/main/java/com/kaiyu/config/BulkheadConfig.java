@@ -0,0 +1,43 @@
+package com.kaiyu.config;
+
+import com.kaiyu.concurrent.BulkheadProperties;
+import com.kaiyu.concurrent.BulkheadRegistry;
+import com.kaiyu.metrics.BulkheadMetricsBinder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 列表和查询接口按功能使用独立的有界线程池，控制器返回 CompletableFuture，Tomcat线程提交后立即释放。
+ * 线程池满时返回503，见 BulkheadExceptionHandler
+ */
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    private final BulkheadProperties properties;
+
+    public BulkheadConfig(BulkheadProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public BulkheadRegistry bulkheadRegistry() {
+        return new BulkheadRegistry(properties);
+    }
+
+    @Bean
+    public BulkheadMetricsBinder bulkheadMetricsBinder(BulkheadRegistry bulkheadRegistry) {
+        return new BulkheadMetricsBinder(bulkheadRegistry);
+    }
+
+    /**
+     * 返回 CompletableFuture 的接口不使用这里的执行器，只设置超时；超时后 Spring MVC 返回503
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(properties.getTimeout().toMillis());
+    }
+}
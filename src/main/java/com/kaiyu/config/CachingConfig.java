@@ -0,0 +1,58 @@
+package com.kaiyu.config;
+
+import com.kaiyu.cache.CacheInvalidationBus;
+import com.kaiyu.cache.CachePolicyProperties;
+import com.kaiyu.cache.CacheSnapshotProperties;
+import com.kaiyu.cache.RedisCacheStore;
+import com.kaiyu.cache.RedisInvalidationBroker;
+import com.kaiyu.cache.TwoLevelCacheManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.StringUtils;
+
+/**
+ * 缓存配置：本地Caffeine一级缓存 + Redis二级缓存，多节点之间通过Redis pub/sub同步本地缓存失效
+ */
+@Configuration
+@EnableConfigurationProperties({CachePolicyProperties.class, CacheSnapshotProperties.class})
+public class CachingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "cache", name = "redis-enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(CachePolicyProperties properties,
+                                             ObjectProvider<RedisConnectionFactory> connectionFactory,
+                                             ObjectProvider<RedisMessageListenerContainer> listenerContainer) {
+        RedisCacheStore remote = null;
+        CacheInvalidationBus invalidationBus = null;
+        RedisConnectionFactory factory = connectionFactory.getIfAvailable();
+        if (properties.isRedisEnabled() && factory != null) {
+            RedisTemplate<String, Object> template = new RedisTemplate<>();
+            template.setConnectionFactory(factory);
+            template.setKeySerializer(RedisSerializer.string());
+            template.setValueSerializer(RedisSerializer.java());
+            template.afterPropertiesSet();
+            remote = new RedisCacheStore(template, properties.getRedisRetryInterval());
+            if (StringUtils.hasText(properties.getInvalidationChannel())) {
+                invalidationBus = new CacheInvalidationBus(new RedisInvalidationBroker(
+                        new StringRedisTemplate(factory), listenerContainer.getObject(),
+                        properties.getInvalidationChannel()));
+            }
+        }
+        return new TwoLevelCacheManager(properties, remote, invalidationBus);
+    }
+}
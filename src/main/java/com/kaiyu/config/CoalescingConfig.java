@@ -0,0 +1,32 @@
+package com.kaiyu.config;
+
+import com.kaiyu.concurrent.CoalescingAspect;
+import com.kaiyu.concurrent.CoalescingProperties;
+import com.kaiyu.concurrent.RequestCoalescer;
+import com.kaiyu.datasource.ReadYourWritesTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 并发相同查询合并，见 {@link com.kaiyu.concurrent.Coalesced}。关闭 coalescing.enabled 后注解不生效
+ */
+@Configuration
+@EnableConfigurationProperties(CoalescingProperties.class)
+@ConditionalOnProperty(prefix = "coalescing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CoalescingConfig {
+
+    @Bean
+    public RequestCoalescer requestCoalescer(CoalescingProperties properties, ObjectProvider<MeterRegistry> registry) {
+        return new RequestCoalescer(properties, registry.getIfAvailable());
+    }
+
+    @Bean
+    public CoalescingAspect coalescingAspect(RequestCoalescer requestCoalescer,
+                                             ObjectProvider<ReadYourWritesTracker> tracker) {
+        return new CoalescingAspect(requestCoalescer, tracker.getIfAvailable());
+    }
+}
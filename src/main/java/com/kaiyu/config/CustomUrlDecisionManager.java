@@ -1,5 +1,6 @@
 package com.kaiyu.config;
 
+import com.kaiyu.jfr.AuthorizationEvent;
 import org.springframework.security.access.AccessDecisionManager;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.ConfigAttribute;
@@ -7,6 +8,7 @@ import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.FilterInvocation;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
@@ -20,6 +22,25 @@ public class CustomUrlDecisionManager implements AccessDecisionManager {
 
     @Override
     public void decide(Authentication authentication, Object object, Collection<ConfigAttribute> configAttributes) throws AccessDeniedException, InsufficientAuthenticationException {
+        AuthorizationEvent event = new AuthorizationEvent();
+        event.begin();
+        boolean granted = false;
+        try {
+            check(authentication, configAttributes);
+            granted = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.url = object instanceof FilterInvocation ? ((FilterInvocation) object).getRequestUrl() : String.valueOf(object);
+                event.requiredRoles = String.valueOf(configAttributes);
+                event.user = authentication.getName();
+                event.granted = granted;
+                event.commit();
+            }
+        }
+    }
+
+    private void check(Authentication authentication, Collection<ConfigAttribute> configAttributes) {
         for (ConfigAttribute configAttribute : configAttributes) {
             String needRole = configAttribute.getAttribute();
             if ("ROLE_LOGIN".equals(needRole)) {
@@ -0,0 +1,115 @@
+package com.kaiyu.config;
+
+import com.kaiyu.concurrent.CircuitBreaker;
+import com.kaiyu.concurrent.VirtualThreadProperties;
+import com.kaiyu.datasource.CircuitBreakingDataSource;
+import com.kaiyu.datasource.ConnectionLimitingDataSource;
+import com.kaiyu.datasource.QueryCountingDataSource;
+import com.kaiyu.datasource.ReadWriteRoutingDataSource;
+import com.kaiyu.datasource.ReadYourWritesInterceptor;
+import com.kaiyu.datasource.ReadYourWritesTracker;
+import com.kaiyu.datasource.ReplicaHealthMonitor;
+import com.kaiyu.datasource.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * 数据源配置：主库使用 spring.datasource，开启 replica.enabled 后只读事务路由到副本。
+ * 其他组件注入的 DataSource 是路由数据源，需要直接操作主库连接池时注入 primaryDataSource
+ */
+@Configuration
+@EnableConfigurationProperties({ReplicaProperties.class, VirtualThreadProperties.class})
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "replica.hikari")
+    @ConditionalOnProperty(prefix = "replica", name = "enabled", havingValue = "true")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "replica", name = "enabled", havingValue = "true")
+    public ReplicaHealthMonitor replicaHealthMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                     ReplicaProperties properties) {
+        return new ReplicaHealthMonitor(replicaDataSource, properties.getMaxLag(), properties.isAllowStandalone());
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaProperties properties) {
+        return new ReadYourWritesTracker(properties.getReadYourWritesWindow());
+    }
+
+    /**
+     * MyBatis插件，由mybatis-spring-boot-starter自动注册
+     */
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor(ReadYourWritesTracker tracker) {
+        return new ReadYourWritesInterceptor(tracker);
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                        @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                                        ObjectProvider<ReplicaHealthMonitor> healthMonitor,
+                                                        ReadYourWritesTracker tracker) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource.getIfAvailable(),
+                healthMonitor.getIfAvailable(), tracker);
+    }
+
+    /**
+     * 虚拟线程模式下限制同时持有连接的请求数，默认与主库连接池大小相同
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "virtual-threads", name = "enabled", havingValue = "true")
+    public ConnectionLimitingDataSource connectionLimitingDataSource(ReadWriteRoutingDataSource routingDataSource,
+                                                                     @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                                                     VirtualThreadProperties properties) {
+        int maxConnections = properties.getMaxConcurrentConnections() > 0
+                ? properties.getMaxConcurrentConnections() : primaryDataSource.getMaximumPoolSize();
+        return new ConnectionLimitingDataSource(routingDataSource, maxConnections, properties.getConnectionWaitTimeout());
+    }
+
+    /**
+     * 开启 query-count.enabled 时在路由数据源外包一层语句计数；开启 degraded-mode.enabled 时熔断期间获取连接立即失败，
+     * 熔断判断在连接数限制之前，不在信号量上排队
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource,
+                                ObjectProvider<ConnectionLimitingDataSource> connectionLimitingDataSource,
+                                ObjectProvider<CircuitBreaker> databaseCircuitBreaker,
+                                @Value("${query-count.enabled:true}") boolean queryCountEnabled) {
+        ConnectionLimitingDataSource limiter = connectionLimitingDataSource.getIfAvailable();
+        DataSource target = limiter != null ? limiter : routingDataSource;
+        CircuitBreaker circuitBreaker = databaseCircuitBreaker.getIfAvailable();
+        if (circuitBreaker != null) {
+            target = new CircuitBreakingDataSource(target, circuitBreaker);
+        }
+        if (queryCountEnabled) {
+            target = new QueryCountingDataSource(target);
+        }
+        return new LazyConnectionDataSourceProxy(target);
+    }
+}
@@ -0,0 +1,43 @@
+package com.kaiyu.config;
+
+import com.kaiyu.concurrent.CircuitBreaker;
+import com.kaiyu.concurrent.DegradedModeProperties;
+import com.kaiyu.concurrent.StaleWhileRevalidateAspect;
+import com.kaiyu.datasource.CircuitBreakerInterceptor;
+import com.kaiyu.metrics.DegradedModeMetricsBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 数据库降级：语句耗时和失败计入熔断器，熔断后获取连接立即失败（见 DataSourceConfig），
+ * {@link com.kaiyu.concurrent.ServeStale} 查询返回最近一次成功的结果
+ */
+@Configuration
+@EnableConfigurationProperties(DegradedModeProperties.class)
+@ConditionalOnProperty(prefix = "degraded-mode", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DegradedModeConfig {
+
+    @Bean
+    public CircuitBreaker databaseCircuitBreaker(DegradedModeProperties properties) {
+        return new CircuitBreaker("数据库", properties);
+    }
+
+    @Bean
+    public CircuitBreakerInterceptor circuitBreakerInterceptor(CircuitBreaker databaseCircuitBreaker) {
+        return new CircuitBreakerInterceptor(databaseCircuitBreaker);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public StaleWhileRevalidateAspect staleWhileRevalidateAspect(CircuitBreaker databaseCircuitBreaker,
+                                                                 DegradedModeProperties properties) {
+        return new StaleWhileRevalidateAspect(databaseCircuitBreaker, properties);
+    }
+
+    @Bean
+    public DegradedModeMetricsBinder degradedModeMetricsBinder(CircuitBreaker databaseCircuitBreaker,
+                                                               StaleWhileRevalidateAspect staleWhileRevalidateAspect) {
+        return new DegradedModeMetricsBinder(databaseCircuitBreaker, staleWhileRevalidateAspect);
+    }
+}
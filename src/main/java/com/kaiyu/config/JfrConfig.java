@@ -0,0 +1,22 @@
+package com.kaiyu.config;
+
+import com.kaiyu.jfr.JfrDaoInterceptor;
+import com.kaiyu.jfr.JfrProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 飞行记录自定义事件配置，持续记录由 FlightRecordingService 管理
+ */
+@Configuration
+@EnableConfigurationProperties(JfrProperties.class)
+public class JfrConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public JfrDaoInterceptor jfrDaoInterceptor() {
+        return new JfrDaoInterceptor();
+    }
+}
@@ -0,0 +1,74 @@
+package com.kaiyu.config;
+
+import com.kaiyu.cache.StatementCacheInterceptor;
+import com.kaiyu.cache.TwoLevelCacheManager;
+import com.kaiyu.metrics.CacheMetricsBinder;
+import com.kaiyu.metrics.HandlerMethodTagsContributor;
+import com.kaiyu.metrics.LoginMetrics;
+import com.kaiyu.metrics.QueryCountFilter;
+import com.kaiyu.metrics.QueryCountProperties;
+import com.kaiyu.metrics.RequestAccountingFilter;
+import com.kaiyu.metrics.RequestAccountingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Prometheus指标，通过管理端口的 /actuator/prometheus 抓取。
+ * Hikari连接池、HTTP请求和JVM指标由 actuator 自动注册，这里只补充业务相关的指标
+ */
+@Configuration
+@EnableConfigurationProperties({RequestAccountingProperties.class, QueryCountProperties.class})
+public class MetricsConfig {
+
+    @Bean
+    public CacheMetricsBinder cacheMetricsBinder(TwoLevelCacheManager cacheManager,
+                                                 ObjectProvider<StatementCacheInterceptor> statementCache) {
+        return new CacheMetricsBinder(cacheManager, statementCache.getIfAvailable());
+    }
+
+    @Bean
+    public HandlerMethodTagsContributor handlerMethodTagsContributor() {
+        return new HandlerMethodTagsContributor();
+    }
+
+    @Bean
+    public LoginMetrics loginMetrics(MeterRegistry registry) {
+        return new LoginMetrics(registry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "request-accounting", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RequestAccountingFilter requestAccountingFilter(RequestAccountingProperties properties) {
+        return new RequestAccountingFilter(properties);
+    }
+
+    /**
+     * 排在 Spring Security 过滤器之前，登录校验和权限判断的开销也计入统计
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "request-accounting", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RequestAccountingFilter> requestAccountingFilterRegistration(
+            RequestAccountingFilter requestAccountingFilter) {
+        FilterRegistrationBean<RequestAccountingFilter> registration = new FilterRegistrationBean<>(requestAccountingFilter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    /**
+     * 排在 Spring Security 之前，加载用户和权限判断的查询也计入
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "query-count", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilterRegistration(QueryCountProperties properties) {
+        FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(
+                new QueryCountFilter(properties));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        return registration;
+    }
+}
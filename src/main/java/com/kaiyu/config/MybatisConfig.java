@@ -0,0 +1,32 @@
+package com.kaiyu.config;
+
+import com.kaiyu.cache.StatementCacheInterceptor;
+import com.kaiyu.cache.StatementCacheProperties;
+import com.kaiyu.cache.TwoLevelCacheManager;
+import com.kaiyu.metrics.SqlMetricsInterceptor;
+import com.kaiyu.metrics.SqlMetricsProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MyBatis插件配置，Interceptor类型的Bean会由mybatis-spring-boot-starter自动注册
+ */
+@Configuration
+@EnableConfigurationProperties({StatementCacheProperties.class, SqlMetricsProperties.class})
+public class MybatisConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "statement-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public StatementCacheInterceptor statementCacheInterceptor(StatementCacheProperties properties,
+                                                               TwoLevelCacheManager cacheManager) {
+        return new StatementCacheInterceptor(properties, cacheManager.getInvalidationBus());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "sql-metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SqlMetricsInterceptor sqlMetricsInterceptor(SqlMetricsProperties properties) {
+        return new SqlMetricsInterceptor(properties);
+    }
+}
@@ -2,6 +2,8 @@ package com.kaiyu.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kaiyu.entity.User;
+import com.kaiyu.jfr.JfrPasswordEncoder;
+import com.kaiyu.metrics.LoginMetrics;
 import com.kaiyu.model.ResponseMsg;
 import com.kaiyu.service.UserServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,9 +42,12 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     UserServiceImpl userService;
 
+    @Autowired
+    LoginMetrics loginMetrics;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new JfrPasswordEncoder(new BCryptPasswordEncoder());
     }
 
     @Bean
@@ -58,13 +63,14 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Override
     public void configure(WebSecurity web) throws Exception {
         web.ignoring().antMatchers("/css/**", "/js/**", "/index.html", "/img/**", "/fonts/**", "/favicon.ico",
-                "/api/verifyCode");
+                "/api/verifyCode", "/actuator/health", "/actuator/prometheus");
     }
 
     @Bean
     LoginFilter loginFilter() throws Exception {
         LoginFilter loginFilter = new LoginFilter();
         loginFilter.setAuthenticationSuccessHandler((request, response, authentication) -> {
+                    loginMetrics.success();
                     response.setContentType(MediaType.APPLICATION_JSON_VALUE);
                     response.setCharacterEncoding("UTF-8");
                     PrintWriter out = response.getWriter();
@@ -78,6 +84,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 }
         );
         loginFilter.setAuthenticationFailureHandler((request, response, exception) -> {
+            loginMetrics.failure(exception);
             response.setContentType(MediaType.APPLICATION_JSON_VALUE);
             response.setCharacterEncoding("UTF-8");
             PrintWriter out = response.getWriter();
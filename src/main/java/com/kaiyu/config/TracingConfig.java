@@ -0,0 +1,105 @@
+package com.kaiyu.config;
+
+import com.kaiyu.tracing.FileSpanExporter;
+import com.kaiyu.tracing.TracingAspect;
+import com.kaiyu.tracing.TracingFilter;
+import com.kaiyu.tracing.TracingInterceptor;
+import com.kaiyu.tracing.TracingProperties;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * 链路追踪：请求入口按比例采样，span由 BatchSpanProcessor 在后台导出到本地文件或日志，不依赖外部采集服务。
+ * 关闭 tracing.enabled 后所有组件使用空实现
+ */
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+public class TracingConfig {
+
+    private static final String INSTRUMENTATION = "com.kaiyu.dormadmin";
+
+    @Value("${spring.application.name:DormAdmin}")
+    private String applicationName;
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SdkTracerProvider sdkTracerProvider(TracingProperties properties) throws IOException {
+        SpanExporter exporter = "logging".equals(properties.getExporter())
+                ? LoggingSpanExporter.create()
+                : new FileSpanExporter(Paths.get(properties.getFile()));
+        return SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(Resource.create(
+                        Attributes.of(AttributeKey.stringKey("service.name"), applicationName))))
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(properties.getSampleRatio())))
+                .addSpanProcessor(BatchSpanProcessor.builder(exporter).build())
+                .build();
+    }
+
+    /**
+     * 由 SdkTracerProvider 负责关闭，这里不再推断关闭方法
+     */
+    @Bean(destroyMethod = "")
+    public OpenTelemetry openTelemetry(ObjectProvider<SdkTracerProvider> tracerProvider) {
+        SdkTracerProvider provider = tracerProvider.getIfAvailable();
+        if (provider == null) {
+            return OpenTelemetry.noop();
+        }
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(provider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+    }
+
+    @Bean
+    public Tracer tracer(OpenTelemetry openTelemetry) {
+        return openTelemetry.getTracer(INSTRUMENTATION);
+    }
+
+    @Bean
+    public TracingInterceptor tracingInterceptor(Tracer tracer) {
+        return new TracingInterceptor(tracer);
+    }
+
+    @Bean
+    public TracingAspect tracingAspect(Tracer tracer) {
+        return new TracingAspect(tracer);
+    }
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilterRegistration(Tracer tracer, OpenTelemetry openTelemetry) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(
+                new TracingFilter(tracer, openTelemetry.getPropagators().getTextMapPropagator()));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter.SecurityExit> tracingSecurityExitRegistration() {
+        FilterRegistrationBean<TracingFilter.SecurityExit> registration = new FilterRegistrationBean<>(
+                new TracingFilter.SecurityExit());
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+}
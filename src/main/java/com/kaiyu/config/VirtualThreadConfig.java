@@ -0,0 +1,28 @@
+package com.kaiyu.config;
+
+import com.kaiyu.concurrent.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 虚拟线程模式：Tomcat 用每个请求一个虚拟线程的执行器代替固定大小的工作线程池，
+ * 阻塞在JDBC上的请求不再占用平台线程。数据库连接的并发上限见 DataSourceConfig
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        if (!VirtualThreads.isSupported()) {
+            throw new IllegalStateException("virtual-threads.enabled=true 需要 Java 21 及以上，当前为 "
+                    + System.getProperty("java.version"));
+        }
+        log.info("请求在虚拟线程上执行");
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-vt-"));
+    }
+}
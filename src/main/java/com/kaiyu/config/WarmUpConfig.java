@@ -0,0 +1,13 @@
+package com.kaiyu.config;
+
+import com.kaiyu.warmup.WarmUpProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 启动预热配置，预热步骤由 WarmUpService 执行
+ */
+@Configuration
+@EnableConfigurationProperties(WarmUpProperties.class)
+public class WarmUpConfig {
+}
@@ -1,13 +1,18 @@
 package com.kaiyu.controller;
 
+import com.kaiyu.concurrent.BulkheadRegistry;
 import com.kaiyu.entity.Building;
+import com.kaiyu.model.ChunkResult;
+import com.kaiyu.model.JobProgress;
 import com.kaiyu.model.ResponseMsg;
 import com.kaiyu.model.ResponsePage;
 import com.kaiyu.service.BuildingService;
+import com.kaiyu.utils.ChunkUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author mxxxl
@@ -20,14 +25,18 @@ public class BuildingController {
     @Autowired
     private BuildingService buildingService;
 
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
     @GetMapping("/all")
-    public List<Building> getBuildingAll() {
-        return buildingService.getBuildingAll();
+    public CompletableFuture<List<Building>> getBuildingAll() {
+        return bulkheads.get(BulkheadRegistry.BUILDING).submit(buildingService::getBuildingAll);
     }
 
     @GetMapping("/list")
-    public ResponsePage getBuildingPage(Integer page, Integer size, String name) {
-        return buildingService.getBuildingPage(page, size, name);
+    public CompletableFuture<ResponsePage> getBuildingPage(Integer page, Integer size, String name) {
+        return bulkheads.get(BulkheadRegistry.BUILDING)
+                .submit(() -> buildingService.getBuildingPage(page, size, name));
     }
 
     @PostMapping("/add")
@@ -47,12 +56,30 @@ public class BuildingController {
         }
     }
 
+    @PostMapping("/decommission")
+    public ResponseMsg decommissionBuilding(Integer id) {
+        if (null == id) {
+            return ResponseMsg.error("请选择宿舍楼！");
+        }
+        return ResponseMsg.ok("已开始撤销！", buildingService.decommissionBuilding(id));
+    }
+
+    @GetMapping("/decommission")
+    public ResponseMsg getDecommissionProgress(Integer id) {
+        JobProgress progress = buildingService.getDecommissionProgress(id);
+        if (null == progress) {
+            return ResponseMsg.error("没有该宿舍楼的撤销任务！");
+        }
+        return ResponseMsg.ok("查询成功！", progress);
+    }
+
     @PostMapping("/del")
-    public ResponseMsg deleteBuildings(@RequestBody List<Building> buildings) {
-        if (buildingService.deleteBuildings(buildings) >= 1) {
-            return ResponseMsg.ok("删除成功！");
+    public ResponseMsg deleteBuildings(@RequestBody int[] ids) {
+        List<ChunkResult> results = buildingService.deleteBuildings(ids);
+        if (ChunkUtils.totalAffected(results) >= 1) {
+            return ResponseMsg.ok("删除成功！", results);
         } else {
-            return ResponseMsg.error("删除失败！");
+            return ResponseMsg.error("删除失败！", results);
         }
     }
 }
@@ -0,0 +1,28 @@
+package com.kaiyu.controller;
+
+import com.kaiyu.concurrent.BulkheadFullException;
+import com.kaiyu.model.ResponseMsg;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 隔离线程池已满时立即返回503，前端稍后重试
+ */
+@Slf4j
+@RestControllerAdvice
+public class BulkheadExceptionHandler {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ResponseMsg> handleBulkheadFull(BulkheadFullException e) {
+        log.debug("{}，请求被拒绝", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(ResponseMsg.error("系统繁忙，请稍后重试！").setStatus(HttpStatus.SERVICE_UNAVAILABLE.value()));
+    }
+}
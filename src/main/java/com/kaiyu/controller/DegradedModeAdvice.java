@@ -0,0 +1,62 @@
+package com.kaiyu.controller;
+
+import com.kaiyu.concurrent.StaleWhileRevalidateAspect;
+import com.kaiyu.datasource.CircuitOpenException;
+import com.kaiyu.model.ResponseMsg;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 数据库降级时的响应：返回过期数据时加响应头，前端可以提示"数据可能不是最新"；
+ * 熔断期间没有过期数据可用的请求和写操作返回503
+ */
+@RestControllerAdvice
+public class DegradedModeAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STALE_HEADER = "X-Data-Stale";
+    public static final String STALE_AGE_HEADER = "X-Data-Age";
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest) {
+            Object age = ((ServletServerHttpRequest) request).getServletRequest()
+                    .getAttribute(StaleWhileRevalidateAspect.STALE_AGE_ATTRIBUTE);
+            if (age != null) {
+                response.getHeaders().set(STALE_HEADER, "true");
+                response.getHeaders().set(STALE_AGE_HEADER, age.toString());
+                response.getHeaders().set(HttpHeaders.WARNING, STALE_WARNING);
+            }
+        }
+        return body;
+    }
+
+    /**
+     * 获取连接被熔断器拒绝时，Spring 和 MyBatis 会包装成不同的异常，Spring 按异常链匹配到被包装的异常
+     */
+    @ExceptionHandler(CircuitOpenException.class)
+    public ResponseEntity<ResponseMsg> handleDatabaseUnavailable(CircuitOpenException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(ResponseMsg.error("数据库暂时不可用，请稍后重试！")
+                        .setStatus(HttpStatus.SERVICE_UNAVAILABLE.value()));
+    }
+}
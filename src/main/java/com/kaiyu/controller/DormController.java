@@ -1,13 +1,18 @@
 package com.kaiyu.controller;
 
+import com.kaiyu.concurrent.BulkheadRegistry;
 import com.kaiyu.entity.Dorm;
+import com.kaiyu.model.ChunkResult;
+import com.kaiyu.model.DormLayout;
 import com.kaiyu.model.ResponseMsg;
 import com.kaiyu.model.ResponsePage;
 import com.kaiyu.service.DormService;
+import com.kaiyu.utils.ChunkUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author mxxxl
@@ -20,14 +25,17 @@ public class DormController {
     @Autowired
     private DormService dormService;
 
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
     @GetMapping("/all")
-    public List<Dorm> getDormAll() {
-        return dormService.getDormAll();
+    public CompletableFuture<List<Dorm>> getDormAll() {
+        return bulkheads.get(BulkheadRegistry.DORM).submit(dormService::getDormAll);
     }
 
     @GetMapping("/list")
-    public ResponsePage getDormPage(Integer page, Integer size, String name) {
-        return dormService.getDormPage(page, size, name);
+    public CompletableFuture<ResponsePage> getDormPage(Integer page, Integer size, String name) {
+        return bulkheads.get(BulkheadRegistry.DORM).submit(() -> dormService.getDormPage(page, size, name));
     }
 
     @PostMapping("/add")
@@ -47,12 +55,29 @@ public class DormController {
         }
     }
 
+    @PostMapping("/generate")
+    public ResponseMsg generateDorms(@RequestBody DormLayout layout) {
+        if (null == layout.getBuildingId() || null == layout.getFloors() || null == layout.getRoomsPerFloor()
+                || layout.getFloors() <= 0 || layout.getRoomsPerFloor() <= 0) {
+            return ResponseMsg.error("楼层数和每层房间数必须大于0！");
+        }
+        if ((long) layout.getFloors() * layout.getRoomsPerFloor() > DormLayout.MAX_ROOMS) {
+            return ResponseMsg.error("一次最多生成" + DormLayout.MAX_ROOMS + "间宿舍！");
+        }
+        List<Integer> ids = dormService.generateDorms(layout);
+        if (null == ids) {
+            return ResponseMsg.error("宿舍楼不存在！");
+        }
+        return ResponseMsg.ok("生成成功！", ids);
+    }
+
     @PostMapping("/del")
-    public ResponseMsg deleteDorms(@RequestBody List<Dorm> dorms) {
-        if (dormService.deleteDorms(dorms) >= 1) {
-            return ResponseMsg.ok("删除成功！");
+    public ResponseMsg deleteDorms(@RequestBody int[] ids) {
+        List<ChunkResult> results = dormService.deleteDorms(ids);
+        if (ChunkUtils.totalAffected(results) >= 1) {
+            return ResponseMsg.ok("删除成功！", results);
         } else {
-            return ResponseMsg.error("删除失败！");
+            return ResponseMsg.error("删除失败！", results);
         }
     }
 }
@@ -3,6 +3,7 @@ package com.kaiyu.controller;
 import com.google.code.kaptcha.Constants;
 import com.google.code.kaptcha.Producer;
 import com.kaiyu.config.TestModeConfig;
+import com.kaiyu.jfr.CaptchaEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -51,6 +52,8 @@ public class KaptchaController {
         session.setAttribute(Constants.KAPTCHA_SESSION_KEY, capText);
         
         //向客户端写出
+        CaptchaEvent event = new CaptchaEvent();
+        event.begin();
         BufferedImage bi = captchaProducer.createImage(capText);
         ServletOutputStream out = response.getOutputStream();
         ImageIO.write(bi, "jpg", out);
@@ -58,6 +61,12 @@ public class KaptchaController {
             out.flush();
         } finally {
             out.close();
+            event.end();
+            if (event.shouldCommit()) {
+                event.width = bi.getWidth();
+                event.height = bi.getHeight();
+                event.commit();
+            }
         }
     }
 }
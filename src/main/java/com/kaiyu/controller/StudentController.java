@@ -1,13 +1,20 @@
 package com.kaiyu.controller;
 
+import com.kaiyu.concurrent.BulkheadRegistry;
 import com.kaiyu.entity.Student;
+import com.kaiyu.model.ChunkResult;
+import com.kaiyu.model.JobProgress;
 import com.kaiyu.model.ResponseMsg;
 import com.kaiyu.model.ResponsePage;
+import com.kaiyu.service.RolloverService;
+import com.kaiyu.service.StudentArchiveService;
 import com.kaiyu.service.StudentService;
+import com.kaiyu.utils.ChunkUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author mxxxl
@@ -20,9 +27,23 @@ public class StudentController {
     @Autowired
     private StudentService studentService;
 
+    @Autowired
+    private RolloverService rolloverService;
+
+    @Autowired
+    private StudentArchiveService studentArchiveService;
+
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
     @GetMapping("/list")
-    public ResponsePage getStudentPage(Integer page, Integer size, String name) {
-        return studentService.getStudentByName(page, size, name);
+    public CompletableFuture<ResponsePage> getStudentPage(Integer page, Integer size, String name, boolean archived) {
+        return bulkheads.get(BulkheadRegistry.STUDENT).submit(() -> {
+            if (archived) {
+                return studentService.getArchivedStudentByName(page, size, name);
+            }
+            return studentService.getStudentByName(page, size, name);
+        });
     }
 
     @PostMapping("/add")
@@ -43,11 +64,52 @@ public class StudentController {
     }
 
     @PostMapping("/del")
-    public ResponseMsg deleteStudents(@RequestBody List<Student> students) {
-        if (studentService.deleteStudents(students) >= 1) {
-            return ResponseMsg.ok("删除成功！");
+    public ResponseMsg deleteStudents(@RequestBody int[] ids) {
+        List<ChunkResult> results = studentService.deleteStudents(ids);
+        if (ChunkUtils.totalAffected(results) >= 1) {
+            return ResponseMsg.ok("删除成功！", results);
         } else {
-            return ResponseMsg.error("删除失败！");
+            return ResponseMsg.error("删除失败！", results);
+        }
+    }
+
+    @PostMapping("/rollover")
+    public ResponseMsg startRollover(String cohort) {
+        if (null == cohort || !cohort.matches("\\d{2}")) {
+            return ResponseMsg.error("请输入两位学号年级前缀，例如 18！");
+        }
+        return ResponseMsg.ok("已开始退宿！", rolloverService.startRollover(cohort));
+    }
+
+    @GetMapping("/rollover")
+    public ResponseMsg getRolloverProgress() {
+        JobProgress progress = rolloverService.getProgress();
+        if (null == progress) {
+            return ResponseMsg.error("没有退宿任务！");
+        }
+        return ResponseMsg.ok("查询成功！", progress);
+    }
+
+    @PostMapping("/rollover/cancel")
+    public ResponseMsg cancelRollover() {
+        JobProgress progress = rolloverService.cancel();
+        if (null == progress || !progress.isRunning()) {
+            return ResponseMsg.error("没有正在运行的退宿任务！");
+        }
+        return ResponseMsg.ok("正在取消！", progress);
+    }
+
+    @PostMapping("/archive")
+    public ResponseMsg startArchive() {
+        return ResponseMsg.ok("已开始归档！", studentArchiveService.startArchive());
+    }
+
+    @GetMapping("/archive")
+    public ResponseMsg getArchiveProgress() {
+        JobProgress progress = studentArchiveService.getProgress();
+        if (null == progress) {
+            return ResponseMsg.error("没有归档任务！");
         }
+        return ResponseMsg.ok("查询成功！", progress);
     }
 }
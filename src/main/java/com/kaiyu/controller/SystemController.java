@@ -0,0 +1,208 @@
+package com.kaiyu.controller;
+
+import com.kaiyu.cache.StatementCacheInterceptor;
+import com.kaiyu.cache.TwoLevelCacheManager;
+import com.kaiyu.concurrent.BulkheadRegistry;
+import com.kaiyu.concurrent.CircuitBreaker;
+import com.kaiyu.concurrent.RequestCoalescer;
+import com.kaiyu.concurrent.StaleWhileRevalidateAspect;
+import com.kaiyu.datasource.ConnectionLimitingDataSource;
+import com.kaiyu.datasource.ReadWriteRoutingDataSource;
+import com.kaiyu.metrics.RequestAccountingFilter;
+import com.kaiyu.metrics.SqlMetricsInterceptor;
+import com.kaiyu.model.ResponseMsg;
+import com.kaiyu.service.CacheSnapshotService;
+import com.kaiyu.service.FlightRecordingService;
+import com.kaiyu.service.WarmUpService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 系统运行状态，仅管理员可访问
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/system")
+public class SystemController {
+
+    @Autowired
+    private TwoLevelCacheManager cacheManager;
+
+    @Autowired(required = false)
+    private StatementCacheInterceptor statementCacheInterceptor;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired(required = false)
+    private ConnectionLimitingDataSource connectionLimitingDataSource;
+
+    @Autowired(required = false)
+    private SqlMetricsInterceptor sqlMetricsInterceptor;
+
+    @Autowired
+    private FlightRecordingService flightRecordingService;
+
+    @Autowired
+    private CacheSnapshotService cacheSnapshotService;
+
+    @Autowired
+    private WarmUpService warmUpService;
+
+    @Autowired(required = false)
+    private RequestAccountingFilter requestAccountingFilter;
+
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
+    @Autowired(required = false)
+    private RequestCoalescer requestCoalescer;
+
+    @Autowired(required = false)
+    private CircuitBreaker databaseCircuitBreaker;
+
+    @Autowired(required = false)
+    private StaleWhileRevalidateAspect staleWhileRevalidateAspect;
+
+    @GetMapping("/cache")
+    public Map<String, Map<String, Object>> getCacheStats() {
+        return cacheManager.getStats();
+    }
+
+    @GetMapping("/cache/statements")
+    public Map<String, Object> getStatementCacheStats() {
+        if (statementCacheInterceptor == null) {
+            return Collections.emptyMap();
+        }
+        return statementCacheInterceptor.getStats();
+    }
+
+    @GetMapping("/cache/snapshot")
+    public Map<String, Object> getCacheSnapshotStats() {
+        return cacheSnapshotService.getStats();
+    }
+
+    @GetMapping("/cache/invalidation")
+    public Map<String, Object> getInvalidationStats() {
+        if (cacheManager.getInvalidationBus() == null) {
+            return Collections.emptyMap();
+        }
+        return cacheManager.getInvalidationBus().getStats();
+    }
+
+    @GetMapping("/datasource")
+    public Map<String, Object> getDataSourceStats() {
+        if (connectionLimitingDataSource == null) {
+            return routingDataSource.getStats();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>(routingDataSource.getStats());
+        stats.put("connectionLimit", connectionLimitingDataSource.getStats());
+        return stats;
+    }
+
+    @GetMapping("/sql")
+    public Map<String, Map<String, Object>> getSqlStats() {
+        if (sqlMetricsInterceptor == null) {
+            return Collections.emptyMap();
+        }
+        return sqlMetricsInterceptor.getStats();
+    }
+
+    @DeleteMapping("/sql")
+    public void resetSqlStats() {
+        if (sqlMetricsInterceptor != null) {
+            sqlMetricsInterceptor.reset();
+        }
+    }
+
+    /**
+     * 各接口最近一段时间的内存分配和CPU时间，按分配字节数排序
+     */
+    @GetMapping("/requests")
+    public Map<String, Map<String, Object>> getRequestStats() {
+        if (requestAccountingFilter == null) {
+            return Collections.emptyMap();
+        }
+        return requestAccountingFilter.getStats();
+    }
+
+    @DeleteMapping("/requests")
+    public void resetRequestStats() {
+        if (requestAccountingFilter != null) {
+            requestAccountingFilter.reset();
+        }
+    }
+
+    /**
+     * 各功能线程池的执行、排队和拒绝数
+     */
+    @GetMapping("/bulkheads")
+    public Map<String, Map<String, Object>> getBulkheadStats() {
+        return bulkheads.getStats();
+    }
+
+    /**
+     * 各查询方法执行和被合并的调用数
+     */
+    @GetMapping("/coalescing")
+    public Map<String, Object> getCoalescingStats() {
+        if (requestCoalescer == null) {
+            return Collections.emptyMap();
+        }
+        return requestCoalescer.getStats();
+    }
+
+    /**
+     * 数据库熔断状态和过期数据的使用情况
+     */
+    @GetMapping("/degraded")
+    public Map<String, Object> getDegradedModeStats() {
+        if (databaseCircuitBreaker == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuitBreaker", databaseCircuitBreaker.getStats());
+        stats.put("stale", staleWhileRevalidateAspect.getStats());
+        return stats;
+    }
+
+    /**
+     * 启动预热各步骤的耗时
+     */
+    @GetMapping("/warmup")
+    public Map<String, Object> getWarmUpStatus() {
+        return warmUpService.getStatus();
+    }
+
+    @GetMapping("/jfr")
+    public Map<String, Object> getFlightRecordingStatus() {
+        return flightRecordingService.getStatus();
+    }
+
+    /**
+     * 导出最近 minutes 分钟的飞行记录到服务器本地文件
+     */
+    @PostMapping("/jfr/dump")
+    public ResponseMsg dumpFlightRecording(Integer minutes) {
+        try {
+            Path file = flightRecordingService.dump(minutes == null ? 10 : minutes);
+            return ResponseMsg.ok("导出成功！", file.toString());
+        } catch (IllegalStateException e) {
+            return ResponseMsg.error(e.getMessage());
+        } catch (IOException e) {
+            log.error("飞行记录导出失败", e);
+            return ResponseMsg.error("导出失败！");
+        }
+    }
+}
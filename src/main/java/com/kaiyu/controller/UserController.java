@@ -1,5 +1,6 @@
 package com.kaiyu.controller;
 
+import com.kaiyu.concurrent.BulkheadRegistry;
 import com.kaiyu.entity.Role;
 import com.kaiyu.entity.User;
 import com.kaiyu.model.ResponseMsg;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author mxxxl
@@ -26,14 +28,17 @@ public class UserController {
     @Autowired
     private RoleService roleService;
 
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
     @GetMapping("/info")
     public User getCurrentUser(Authentication authentication) {
         return (User) authentication.getPrincipal();
     }
 
     @GetMapping("/list")
-    public List<User> getUsersByName(String name) {
-        return userService.getUserByName(name);
+    public CompletableFuture<List<User>> getUsersByName(String name) {
+        return bulkheads.get(BulkheadRegistry.USER).submit(() -> userService.getUserByName(name));
     }
 
     @PostMapping("/add")
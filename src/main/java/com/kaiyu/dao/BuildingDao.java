@@ -15,11 +15,13 @@ public interface BuildingDao {
 
     List<Building> getBuildingByName(String buildingName);
 
+    Building getBuildingById(Integer id);
+
     int saveBuilding(Building building);
 
     int editBuilding(Building building);
 
-    int deleteBuildings(@Param("ids") List<Integer> ids);
+    int deleteBuildings(@Param("ids") int[] ids);
 
     List<Building> getBuildingAll();
 }
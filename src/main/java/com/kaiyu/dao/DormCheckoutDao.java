@@ -0,0 +1,10 @@
+package com.kaiyu.dao;
+
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DormCheckoutDao {
+
+    int saveByStudentIds(@Param("ids") int[] ids);
+}
@@ -15,11 +15,17 @@ public interface DormDao {
 
     List<Dorm> getDormAll();
 
+    Dorm getDormById(Integer id);
+
     List<Dorm> getDormByName(String dormName);
 
     int saveDorm(Dorm dorm);
 
+    int saveDorms(@Param("dorms") List<Dorm> dorms);
+
     int editDorm(Dorm dorm);
 
-    int deleteDorms(@Param("ids") List<Integer> ids);
+    int deleteDorms(@Param("ids") int[] ids);
+
+    int deleteDormsByBuilding(@Param("buildingId") Integer buildingId, @Param("limit") int limit);
 }
@@ -0,0 +1,15 @@
+package com.kaiyu.dao;
+
+import com.kaiyu.entity.Student;
+import org.apache.ibatis.annotations.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StudentArchiveDao {
+
+    int saveFromStudents(@Param("ids") int[] ids);
+
+    List<Student> getArchivedStudentByName(@Param("studentName") String studentName);
+}
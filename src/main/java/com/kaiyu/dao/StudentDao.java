@@ -4,6 +4,7 @@ import com.kaiyu.entity.Student;
 import org.apache.ibatis.annotations.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -19,5 +20,13 @@ public interface StudentDao {
 
     int editStudent(Student student);
 
-    int deleteStudents(@Param("ids") List<Integer> ids);
+    int deleteStudents(@Param("ids") int[] ids);
+
+    int[] getStaleIdsForUpdate(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    int[] getAssignedIdsByCohort(@Param("cohort") String cohort, @Param("limit") int limit);
+
+    int clearDorm(@Param("ids") int[] ids);
+
+    int[] getAssignedIdsByBuilding(@Param("buildingId") Integer buildingId, @Param("limit") int limit);
 }
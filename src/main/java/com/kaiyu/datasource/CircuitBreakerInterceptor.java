@@ -0,0 +1,45 @@
+package com.kaiyu.datasource;
+
+import com.kaiyu.concurrent.CircuitBreaker;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 把每条发到数据库的语句的耗时和SQL异常计入熔断器。
+ * 与 SqlMetricsInterceptor 一样拦截 StatementHandler，结果缓存命中不计入
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public class CircuitBreakerInterceptor implements Interceptor {
+
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakerInterceptor(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+            return result;
+        } catch (InvocationTargetException e) {
+            if (e.getTargetException() instanceof SQLException) {
+                circuitBreaker.onFailure();
+            }
+            throw e;
+        }
+    }
+}
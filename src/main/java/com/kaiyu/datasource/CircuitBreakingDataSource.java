@@ -0,0 +1,66 @@
+package com.kaiyu.datasource;
+
+import com.kaiyu.concurrent.CircuitBreaker;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 数据库熔断期间获取连接立即失败，写操作不再在连接池上等待 connectionTimeout。
+ * 获取连接失败计入熔断器，等待时间过长计为慢调用；语句的耗时和失败由 {@link CircuitBreakerInterceptor} 记录
+ */
+public class CircuitBreakingDataSource extends DelegatingDataSource {
+
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakingDataSource(DataSource targetDataSource, CircuitBreaker circuitBreaker) {
+        super(targetDataSource);
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        checkPermission();
+        long start = System.nanoTime();
+        try {
+            Connection connection = super.getConnection();
+            recordAcquire(start);
+            return connection;
+        } catch (SQLException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        checkPermission();
+        long start = System.nanoTime();
+        try {
+            Connection connection = super.getConnection(username, password);
+            recordAcquire(start);
+            return connection;
+        } catch (SQLException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+    }
+
+    private void checkPermission() throws CircuitOpenException {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new CircuitOpenException("数据库暂不可用，熔断中");
+        }
+    }
+
+    /**
+     * 只记录等待过久的获取，正常获取不占用窗口；试探期间能拿到连接不代表语句能执行，由语句结果决定是否恢复
+     */
+    private void recordAcquire(long start) {
+        long nanos = System.nanoTime() - start;
+        if (circuitBreaker.isSlow(nanos)) {
+            circuitBreaker.onSuccess(nanos);
+        }
+    }
+}
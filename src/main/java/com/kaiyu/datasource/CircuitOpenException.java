@@ -0,0 +1,13 @@
+package com.kaiyu.datasource;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * 数据库熔断期间获取连接被立即拒绝
+ */
+public class CircuitOpenException extends SQLTransientConnectionException {
+
+    public CircuitOpenException(String reason) {
+        super(reason, "08001");
+    }
+}
@@ -0,0 +1,92 @@
+package com.kaiyu.datasource;
+
+/**
+ * 当前线程上的SQL语句计数，由 {@link QueryCountingDataSource} 在语句执行时累加。
+ * 只有调用 start 之后才计数，没有开启计数的线程（批处理、定时任务）不受影响
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static Counts start() {
+        Counts counts = new Counts();
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    /**
+     * 在另一个线程上继续累加同一个计数，用于请求中交给线程池执行的查询
+     */
+    public static void resume(Counts counts) {
+        CURRENT.set(counts);
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    public static Counts current() {
+        return CURRENT.get();
+    }
+
+    static void record(String sql) {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.record(sql);
+        }
+    }
+
+    public static class Counts {
+
+        private int reads;
+        private int writes;
+        private int others;
+
+        void record(String sql) {
+            String keyword = firstKeyword(sql);
+            if ("select".equals(keyword) || "with".equals(keyword) || "show".equals(keyword)) {
+                reads++;
+            } else if ("insert".equals(keyword) || "update".equals(keyword) || "delete".equals(keyword)
+                    || "replace".equals(keyword)) {
+                writes++;
+            } else {
+                others++;
+            }
+        }
+
+        public int getReads() {
+            return reads;
+        }
+
+        public int getWrites() {
+            return writes;
+        }
+
+        public int getTotal() {
+            return reads + writes + others;
+        }
+
+        @Override
+        public String toString() {
+            return getTotal() + " (select " + reads + ", write " + writes + ")";
+        }
+
+        private static String firstKeyword(String sql) {
+            if (sql == null) {
+                return "";
+            }
+            int start = 0;
+            while (start < sql.length() && !Character.isLetter(sql.charAt(start))) {
+                start++;
+            }
+            int end = start;
+            while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+                end++;
+            }
+            return sql.substring(start, end).toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.kaiyu.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离数据源：只读事务发往副本，其余语句发往主库。以下情况只读事务也回退到主库：
+ * 当前用户刚执行过增删改、副本延迟过大或不可用、获取副本连接失败。
+ * <p>
+ * 需要包装在 LazyConnectionDataSourceProxy 中使用，事务管理器开启事务时还没有设置只读标记，
+ * 延迟到第一条语句执行时再获取连接才能按只读标记路由
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaHealthMonitor health;
+    private final ReadYourWritesTracker tracker;
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder readYourWritesHits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * replica 为空时所有连接都来自主库
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica,
+                                      ReplicaHealthMonitor health, ReadYourWritesTracker tracker) {
+        this.primary = primary;
+        this.replica = replica;
+        this.health = health;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (useReplica()) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                health.markDown(e);
+                fallbacks.increment();
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        primaryConnections.increment();
+        return primary.getConnection(username, password);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("replicaEnabled", replica != null);
+        stats.put("primaryConnections", primaryConnections.sum());
+        stats.put("replicaConnections", replicaConnections.sum());
+        stats.put("readYourWritesHits", readYourWritesHits.sum());
+        stats.put("fallbacks", fallbacks.sum());
+        stats.put("recentWriters", tracker.size());
+        if (health != null) {
+            stats.put("replica", health.getStatus());
+        }
+        return stats;
+    }
+
+    private boolean useReplica() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return false;
+        }
+        if (replica == null) {
+            return false;
+        }
+        if (tracker.wroteRecently(ReadYourWritesTracker.currentUser())) {
+            readYourWritesHits.increment();
+            return false;
+        }
+        if (!health.isAvailable()) {
+            fallbacks.increment();
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+package com.kaiyu.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 定时检查副本的复制延迟。副本不可连接、复制已停止或延迟超过 maxLag 时标记为不可用，
+ * 此时只读事务回退到主库，直到下一次检查恢复。
+ * <p>
+ * MySQL 8.0.22 起使用 SHOW REPLICA STATUS，8.4 删除了 SHOW SLAVE STATUS；更早的版本和 MariaDB 使用旧语法
+ */
+@Slf4j
+public class ReplicaHealthMonitor {
+
+    private static final String STATUS_SQL = "SHOW REPLICA STATUS";
+    private static final String LAG_COLUMN = "Seconds_Behind_Source";
+    private static final String LEGACY_STATUS_SQL = "SHOW SLAVE STATUS";
+    private static final String LEGACY_LAG_COLUMN = "Seconds_Behind_Master";
+    private static final Pattern VERSION = Pattern.compile("(\\d+)\\.(\\d+)\\.(\\d+)");
+
+    private final DataSource replica;
+    private final long maxLagSeconds;
+    private final boolean allowStandalone;
+
+    private volatile boolean available;
+    private volatile long lagSeconds = -1;
+    private volatile String reason = "尚未检查";
+    private volatile long checkedAt;
+
+    public ReplicaHealthMonitor(DataSource replica, Duration maxLag, boolean allowStandalone) {
+        this.replica = replica;
+        this.maxLagSeconds = maxLag.getSeconds();
+        this.allowStandalone = allowStandalone;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Scheduled(fixedDelayString = "${replica.check-interval-ms:5000}")
+    public void check() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement()) {
+            boolean legacy = isLegacy(connection.getMetaData().getDatabaseProductVersion());
+            try (ResultSet rs = statement.executeQuery(legacy ? LEGACY_STATUS_SQL : STATUS_SQL)) {
+                if (!rs.next()) {
+                    update(allowStandalone, -1, allowStandalone ? null : "副本未配置复制");
+                    return;
+                }
+                updateLag(rs.getObject(legacy ? LEGACY_LAG_COLUMN : LAG_COLUMN));
+            }
+        } catch (SQLException | RuntimeException e) {
+            markDown(e);
+        }
+    }
+
+    private void updateLag(Object lag) {
+        if (lag == null) {
+            update(false, -1, "复制已停止");
+        } else {
+            long seconds = ((Number) lag).longValue();
+            update(seconds <= maxLagSeconds, seconds, seconds <= maxLagSeconds ? null : "复制延迟" + seconds + "秒");
+        }
+    }
+
+    /**
+     * 早于 MySQL 8.0.22 的版本和 MariaDB 只支持 SHOW SLAVE STATUS，无法识别的版本号按新版本处理
+     */
+    private static boolean isLegacy(String version) {
+        if (version.contains("MariaDB")) {
+            return true;
+        }
+        Matcher matcher = VERSION.matcher(version);
+        if (!matcher.find()) {
+            return false;
+        }
+        int major = Integer.parseInt(matcher.group(1));
+        int minor = Integer.parseInt(matcher.group(2));
+        int patch = Integer.parseInt(matcher.group(3));
+        return major < 8 || (major == 8 && minor == 0 && patch < 22);
+    }
+
+    /**
+     * 获取副本连接失败时由路由数据源调用，不等下一次定时检查立即停用副本
+     */
+    public void markDown(Exception e) {
+        update(false, -1, "副本不可用：" + e.getMessage());
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("available", available);
+        status.put("lagSeconds", lagSeconds);
+        status.put("reason", reason);
+        status.put("checkedAt", checkedAt);
+        return status;
+    }
+
+    private void update(boolean available, long lagSeconds, String reason) {
+        if (this.available != available) {
+            if (available) {
+                log.info("只读副本恢复使用");
+            } else {
+                log.warn("只读副本停用：{}", reason);
+            }
+        }
+        this.lagSeconds = lagSeconds;
+        this.reason = reason;
+        this.checkedAt = System.currentTimeMillis();
+        this.available = available;
+    }
+}
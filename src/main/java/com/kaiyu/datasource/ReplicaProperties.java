@@ -0,0 +1,34 @@
+package com.kaiyu.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 只读副本配置，连接池参数在 replica.hikari 下配置
+ */
+@Data
+@ConfigurationProperties(prefix = "replica")
+public class ReplicaProperties {
+
+    /**
+     * 关闭时所有语句都发往主库
+     */
+    private boolean enabled = false;
+
+    /**
+     * 用户提交写事务后，在该时间内的只读事务仍然走主库，保证能读到自己刚写入的数据
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    /**
+     * 副本延迟超过该值时停止使用副本
+     */
+    private Duration maxLag = Duration.ofSeconds(3);
+
+    /**
+     * 副本没有复制状态（SHOW SLAVE STATUS 无结果）时是否仍然使用，仅用于两个独立实例的本地测试
+     */
+    private boolean allowStandalone = false;
+}
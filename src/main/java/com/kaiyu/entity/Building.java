@@ -2,12 +2,14 @@ package com.kaiyu.entity;
 
 import lombok.Data;
 
+import java.io.Serializable;
+
 /**
  * @author mxxxl
  * @date 2021/6/23
  */
 @Data
-public class Building {
+public class Building implements Serializable {
 
     private Integer id;
     private String name;
@@ -0,0 +1,29 @@
+package com.kaiyu.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 一次URL权限判断，请求所需的角色已由 CustomFilterInvocationSecurityMetadataSource 匹配好
+ */
+@Name("com.kaiyu.Authorization")
+@Label("Authorization Decision")
+@Category({"DormAdmin", "Security"})
+@Description("URL access decision in CustomUrlDecisionManager")
+public class AuthorizationEvent extends Event {
+
+    @Label("URL")
+    public String url;
+
+    @Label("Required Roles")
+    public String requiredRoles;
+
+    @Label("User")
+    public String user;
+
+    @Label("Granted")
+    public boolean granted;
+}
@@ -0,0 +1,21 @@
+package com.kaiyu.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 生成并写出一张验证码图片
+ */
+@Name("com.kaiyu.Captcha")
+@Label("Captcha Rendering")
+@Category({"DormAdmin", "Security"})
+public class CaptchaEvent extends Event {
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
@@ -0,0 +1,29 @@
+package com.kaiyu.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 一次Mapper方法调用，包含查询结果缓存和获取连接的时间
+ */
+@Name("com.kaiyu.DaoCall")
+@Label("DAO Call")
+@Category({"DormAdmin", "Database"})
+@Description("MyBatis mapped statement execution")
+public class DaoCallEvent extends Event {
+
+    @Label("Statement")
+    public String statement;
+
+    @Label("Command")
+    public String command;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,58 @@
+package com.kaiyu.jfr;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.List;
+
+/**
+ * 为每次Mapper调用记录 {@link DaoCallEvent}。事件未启用或未超过阈值时只有一次对象分配，
+ * 通常被JIT的逃逸分析消除
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class JfrDaoInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        DaoCallEvent event = new DaoCallEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable e) {
+            event.failed = true;
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+                event.statement = ms.getId();
+                event.command = ms.getSqlCommandType().name();
+                if (result instanceof List) {
+                    event.rows = ((List<?>) result).size();
+                } else if (result instanceof Integer) {
+                    event.rows = (Integer) result;
+                }
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.kaiyu.jfr;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 持续飞行记录配置
+ */
+@Data
+@ConfigurationProperties(prefix = "jfr")
+public class JfrProperties {
+
+    /**
+     * 启动后开始持续记录
+     */
+    private boolean enabled = true;
+
+    /**
+     * JDK自带的事件配置，default 开销约1%，profile 更详细但开销更大
+     */
+    private String settings = "default";
+
+    /**
+     * 磁盘上保留最近多长时间的数据，也是一次导出的最长时间
+     */
+    private Duration maxAge = Duration.ofMinutes(30);
+
+    private DataSize maxSize = DataSize.ofMegabytes(256);
+
+    /**
+     * 导出文件存放目录
+     */
+    private String dumpDir = System.getProperty("java.io.tmpdir") + "/dormadmin-jfr";
+
+    /**
+     * DAO调用和权限判断事件的记录阈值，低于阈值的调用不记录
+     */
+    private Duration daoThreshold = Duration.ofMillis(5);
+
+    private Duration authorizationThreshold = Duration.ofMillis(1);
+}
@@ -0,0 +1,21 @@
+package com.kaiyu.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 一次BCrypt密码校验，耗时主要由哈希的cost决定
+ */
+@Name("com.kaiyu.PasswordCheck")
+@Label("Password Check")
+@Category({"DormAdmin", "Security"})
+public class PasswordCheckEvent extends Event {
+
+    @Label("Cost")
+    public int cost;
+
+    @Label("Matched")
+    public boolean matched;
+}
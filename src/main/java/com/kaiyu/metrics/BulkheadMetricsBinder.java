@@ -0,0 +1,39 @@
+package com.kaiyu.metrics;
+
+import com.kaiyu.concurrent.Bulkhead;
+import com.kaiyu.concurrent.BulkheadRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 隔离线程池指标：执行中、排队中的任务数和被拒绝的请求数，按线程池名打标签
+ */
+public class BulkheadMetricsBinder implements MeterBinder {
+
+    private final BulkheadRegistry bulkheads;
+
+    public BulkheadMetricsBinder(BulkheadRegistry bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    /**
+     * 只绑定配置在 bulkhead.pools 中的线程池，它们在启动时已经创建
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Bulkhead bulkhead : bulkheads.getAll()) {
+            Gauge.builder("dormadmin.bulkhead.active", bulkhead, Bulkhead::getActiveCount)
+                    .tag("bulkhead", bulkhead.getName())
+                    .register(registry);
+            Gauge.builder("dormadmin.bulkhead.queued", bulkhead, Bulkhead::getQueueSize)
+                    .tag("bulkhead", bulkhead.getName())
+                    .register(registry);
+            FunctionCounter.builder("dormadmin.bulkhead.rejected", bulkhead, Bulkhead::getRejectedCount)
+                    .tag("bulkhead", bulkhead.getName())
+                    .description("线程池已满被拒绝的请求数")
+                    .register(registry);
+        }
+    }
+}
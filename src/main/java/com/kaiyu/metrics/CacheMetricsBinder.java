@@ -0,0 +1,61 @@
+package com.kaiyu.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.kaiyu.cache.StatementCacheInterceptor;
+import com.kaiyu.cache.TwoLevelCache;
+import com.kaiyu.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * 缓存指标。本地一级缓存使用 Micrometer 标准的 cache.* 指标，Redis二级缓存和查询结果缓存另外计数。
+ * 指标在抓取时读取已有的计数器，请求路径上没有额外开销
+ */
+public class CacheMetricsBinder implements MeterBinder {
+
+    private final TwoLevelCacheManager cacheManager;
+    private final StatementCacheInterceptor statementCache;
+
+    /**
+     * @param statementCache 为null时不统计查询结果缓存
+     */
+    public CacheMetricsBinder(TwoLevelCacheManager cacheManager, StatementCacheInterceptor statementCache) {
+        this.cacheManager = cacheManager;
+        this.statementCache = statementCache;
+    }
+
+    /**
+     * 只绑定配置在 cache.caches 中的缓存，它们在缓存管理器创建时已经存在
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void bindTo(MeterRegistry registry) {
+        for (String name : cacheManager.getCacheNames()) {
+            TwoLevelCache cache = cacheManager.getCache(name);
+            Tags tags = Tags.of("level", "local");
+            new CaffeineCacheMetrics((Cache<Object, Object>) cache.getNativeCache(), name, tags).bindTo(registry);
+            FunctionCounter.builder("cache.remote.gets", cache, TwoLevelCache::getRemoteHits)
+                    .tags("cache", name, "result", "hit")
+                    .description("二级缓存命中次数")
+                    .register(registry);
+            FunctionCounter.builder("cache.remote.gets", cache, TwoLevelCache::getRemoteMisses)
+                    .tags("cache", name, "result", "miss")
+                    .description("二级缓存未命中次数")
+                    .register(registry);
+        }
+        if (statementCache != null) {
+            FunctionCounter.builder("mybatis.statement.cache.gets", statementCache, StatementCacheInterceptor::getHits)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("mybatis.statement.cache.gets", statementCache, StatementCacheInterceptor::getMisses)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("mybatis.statement.cache.size", statementCache, StatementCacheInterceptor::getSize)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.kaiyu.metrics;
+
+import com.kaiyu.concurrent.CircuitBreaker;
+import com.kaiyu.concurrent.StaleWhileRevalidateAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 数据库熔断和过期数据指标。熔断状态 0 为正常、1 为熔断、2 为试探中
+ */
+public class DegradedModeMetricsBinder implements MeterBinder {
+
+    private final CircuitBreaker circuitBreaker;
+    private final StaleWhileRevalidateAspect staleAspect;
+
+    public DegradedModeMetricsBinder(CircuitBreaker circuitBreaker, StaleWhileRevalidateAspect staleAspect) {
+        this.circuitBreaker = circuitBreaker;
+        this.staleAspect = staleAspect;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("dormadmin.db.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .register(registry);
+        FunctionCounter.builder("dormadmin.db.circuit.opened", circuitBreaker, CircuitBreaker::getOpenedCount)
+                .register(registry);
+        FunctionCounter.builder("dormadmin.db.circuit.rejected", circuitBreaker, CircuitBreaker::getRejectedCount)
+                .description("熔断期间被拒绝的获取连接次数")
+                .register(registry);
+        FunctionCounter.builder("dormadmin.stale.served", staleAspect, StaleWhileRevalidateAspect::getStaleServedCount)
+                .register(registry);
+    }
+}
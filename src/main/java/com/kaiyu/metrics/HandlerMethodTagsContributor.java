@@ -0,0 +1,41 @@
+package com.kaiyu.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 给 http.server.requests 增加 handler 标签（控制器类名.方法名），按控制器方法统计耗时分布。
+ * 标签按方法缓存，每个请求不再拼接字符串
+ */
+public class HandlerMethodTagsContributor implements WebMvcTagsContributor {
+
+    private static final Tags NONE = Tags.of("handler", "none");
+
+    private final Map<Method, Tags> tags = new ConcurrentHashMap<>();
+
+    @Override
+    public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                 Throwable exception) {
+        if (!(handler instanceof HandlerMethod)) {
+            return NONE;
+        }
+        return tags.computeIfAbsent(((HandlerMethod) handler).getMethod(), HandlerMethodTagsContributor::tagsOf);
+    }
+
+    @Override
+    public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+        return Tags.empty();
+    }
+
+    private static Tags tagsOf(Method method) {
+        return Tags.of("handler", method.getDeclaringClass().getSimpleName() + "." + method.getName());
+    }
+}
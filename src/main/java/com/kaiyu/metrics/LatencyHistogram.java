@@ -0,0 +1,124 @@
+package com.kaiyu.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 固定分桶的耗时直方图，记录时只做一次二分查找和若干次 LongAdder 累加，可在高并发下常开。
+ * 分位数按所在桶的上界估算
+ */
+public class LatencyHistogram {
+
+    /**
+     * 各桶上界（微秒），最后一个桶没有上界
+     */
+    private static final long[] BOUNDS_MICROS = {
+            100, 250, 500,
+            1_000, 2_500, 5_000,
+            10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000,
+            1_000_000, 2_500_000, 5_000_000, 10_000_000
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MICROS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder totalRows = new LongAdder();
+    private final LongAccumulator maxRows = new LongAccumulator(Math::max, 0);
+    private final LongAdder slow = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos, long rows, boolean isSlow) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        buckets[bucketOf(micros)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        if (rows >= 0) {
+            totalRows.add(rows);
+            maxRows.accumulate(rows);
+        }
+        if (isSlow) {
+            slow.increment();
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * 估算分位数，返回毫秒；没有数据时返回0
+     */
+    public double percentileMillis(double quantile) {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i < BOUNDS_MICROS.length ? BOUNDS_MICROS[i] / 1000.0 : maxNanos.get() / 1_000_000.0;
+            }
+        }
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long n = count.sum();
+        stats.put("count", n);
+        stats.put("slow", slow.sum());
+        stats.put("totalMs", totalNanos.sum() / 1_000_000);
+        stats.put("meanMs", n == 0 ? 0 : totalNanos.sum() / n / 1_000_000.0);
+        stats.put("p50Ms", percentileMillis(0.5));
+        stats.put("p95Ms", percentileMillis(0.95));
+        stats.put("p99Ms", percentileMillis(0.99));
+        stats.put("maxMs", maxNanos.get() / 1_000_000.0);
+        stats.put("rows", totalRows.sum());
+        stats.put("maxRows", maxRows.get());
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.length; i++) {
+            long c = buckets[i].sum();
+            if (c > 0) {
+                histogram.put(i < BOUNDS_MICROS.length ? "le_" + BOUNDS_MICROS[i] + "us" : "inf", c);
+            }
+        }
+        stats.put("histogram", histogram);
+        return stats;
+    }
+
+    private static int bucketOf(long micros) {
+        int low = 0;
+        int high = BOUNDS_MICROS.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (BOUNDS_MICROS[mid] < micros) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
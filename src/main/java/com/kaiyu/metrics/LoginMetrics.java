@@ -0,0 +1,65 @@
+package com.kaiyu.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.authentication.AccountExpiredException;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * 登录成功、失败次数，失败按原因区分。计数器在创建时全部注册好，登录时只做累加
+ */
+public class LoginMetrics {
+
+    private static final String NAME = "dormadmin.login";
+
+    private final Counter success;
+    private final Counter badCredentials;
+    private final Counter verifyCode;
+    private final Counter locked;
+    private final Counter disabled;
+    private final Counter expired;
+    private final Counter other;
+
+    public LoginMetrics(MeterRegistry registry) {
+        this.success = counter(registry, "success", "none");
+        this.badCredentials = counter(registry, "failure", "bad_credentials");
+        this.verifyCode = counter(registry, "failure", "verify_code");
+        this.locked = counter(registry, "failure", "locked");
+        this.disabled = counter(registry, "failure", "disabled");
+        this.expired = counter(registry, "failure", "expired");
+        this.other = counter(registry, "failure", "other");
+    }
+
+    public void success() {
+        success.increment();
+    }
+
+    public void failure(AuthenticationException exception) {
+        if (exception instanceof BadCredentialsException) {
+            badCredentials.increment();
+        } else if (exception instanceof AuthenticationServiceException) {
+            // LoginFilter 验证码错误时抛出
+            verifyCode.increment();
+        } else if (exception instanceof LockedException) {
+            locked.increment();
+        } else if (exception instanceof DisabledException) {
+            disabled.increment();
+        } else if (exception instanceof AccountExpiredException || exception instanceof CredentialsExpiredException) {
+            expired.increment();
+        } else {
+            other.increment();
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String result, String reason) {
+        return Counter.builder(NAME)
+                .tags("result", result, "reason", reason)
+                .description("登录次数")
+                .register(registry);
+    }
+}
@@ -0,0 +1,93 @@
+package com.kaiyu.metrics;
+
+import com.kaiyu.datasource.QueryCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 统计每个请求执行的SQL语句数，排在 Spring Security 之前，加载用户和查询菜单权限的语句也计入。
+ * 超过阈值时打印警告，用于发现 N+1 查询；请求带调试请求头时在响应头返回语句数
+ */
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String DEBUG_REQUEST_HEADER = "X-Debug-Query-Count";
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String WRITE_COUNT_HEADER = "X-Query-Count-Writes";
+    private static final String COUNTS_ATTRIBUTE = QueryCountFilter.class.getName() + ".COUNTS";
+    private static final String WRAPPER_ATTRIBUTE = QueryCountFilter.class.getName() + ".WRAPPER";
+
+    private final int warnThreshold;
+    private final boolean debugHeader;
+
+    public QueryCountFilter(QueryCountProperties properties) {
+        this.warnThreshold = properties.getWarnThreshold();
+        this.debugHeader = properties.isDebugHeader();
+    }
+
+    /**
+     * 异步接口在线程池中执行的语句计入同一个计数，结果写回时的异步分派中再汇总
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter.Counts counts;
+        ContentCachingResponseWrapper wrapper;
+        HttpServletResponse target = response;
+        if (isAsyncDispatch(request)) {
+            counts = (QueryCounter.Counts) request.getAttribute(COUNTS_ATTRIBUTE);
+            if (counts == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            QueryCounter.resume(counts);
+            // 异步分派传入的响应可能还包着内层过滤器的 ContentCachingResponseWrapper，不能按类型查找
+            wrapper = (ContentCachingResponseWrapper) request.getAttribute(WRAPPER_ATTRIBUTE);
+        } else {
+            counts = QueryCounter.start();
+            wrapper = debugHeader && "true".equals(request.getHeader(DEBUG_REQUEST_HEADER))
+                    ? new ContentCachingResponseWrapper(response) : null;
+            if (wrapper != null) {
+                target = wrapper;
+            }
+        }
+        try {
+            chain.doFilter(request, target);
+        } finally {
+            QueryCounter.stop();
+            if (request.isAsyncStarted()) {
+                request.setAttribute(COUNTS_ATTRIBUTE, counts);
+                request.setAttribute(WRAPPER_ATTRIBUTE, wrapper);
+            } else {
+                report(request, counts, wrapper);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryCounter.Counts counts, ContentCachingResponseWrapper wrapper)
+            throws IOException {
+        if (warnThreshold > 0 && counts.getTotal() > warnThreshold) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            log.warn("{} {} 执行了{}条SQL，超过{}条", request.getMethod(),
+                    pattern == null ? request.getRequestURI() : pattern, counts, warnThreshold);
+        }
+        if (wrapper != null) {
+            wrapper.setHeader(QUERY_COUNT_HEADER, String.valueOf(counts.getTotal()));
+            wrapper.setHeader(WRITE_COUNT_HEADER, String.valueOf(counts.getWrites()));
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
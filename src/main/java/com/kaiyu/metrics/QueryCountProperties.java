@@ -0,0 +1,24 @@
+package com.kaiyu.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 每个请求的SQL语句计数配置
+ */
+@Data
+@ConfigurationProperties(prefix = "query-count")
+public class QueryCountProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 单个请求的语句数超过该值时打印警告，0表示不检查
+     */
+    private int warnThreshold = 10;
+
+    /**
+     * 请求带 X-Debug-Query-Count: true 时在响应头返回语句数。只有带该请求头的请求需要缓存响应体，生产环境可以开启
+     */
+    private boolean debugHeader = true;
+}
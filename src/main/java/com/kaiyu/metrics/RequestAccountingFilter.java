@@ -0,0 +1,141 @@
+package com.kaiyu.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按接口统计请求处理线程的内存分配字节数和CPU时间，用于找出造成GC压力的接口、验证减少分配的优化效果。
+ * <p>
+ * 过滤器排在 Spring Security 之前，权限判断的开销计入对应接口。接口按控制器的映射路径归类，
+ * 未进入控制器的请求（未登录、无权限、静态资源）归入 UNMAPPED。异步接口在线程池中执行的部分同样计入
+ */
+@Slf4j
+public class RequestAccountingFilter extends OncePerRequestFilter {
+
+    public static final String ALLOCATED_HEADER = "X-Allocated-Bytes";
+    public static final String CPU_HEADER = "X-Cpu-Micros";
+    private static final String UNMAPPED = "UNMAPPED";
+    private static final String USAGE_ATTRIBUTE = RequestAccountingFilter.class.getName() + ".USAGE";
+    private static final String WRAPPER_ATTRIBUTE = RequestAccountingFilter.class.getName() + ".WRAPPER";
+
+    private final double sampleRate;
+    private final boolean debugHeader;
+    private final long windowMillis;
+    private final int buckets;
+    private final Map<String, RollingResourceStats> stats = new ConcurrentHashMap<>();
+
+    public RequestAccountingFilter(RequestAccountingProperties properties) {
+        if (!ResourceUsage.ALLOCATION_SUPPORTED || !ResourceUsage.CPU_SUPPORTED) {
+            log.warn("当前JVM不支持线程级统计，分配字节数：{}，CPU时间：{}",
+                    ResourceUsage.ALLOCATION_SUPPORTED, ResourceUsage.CPU_SUPPORTED);
+        }
+        this.sampleRate = properties.getSampleRate();
+        this.debugHeader = properties.isDebugHeader();
+        this.windowMillis = properties.getWindow().toMillis();
+        this.buckets = properties.getBuckets();
+    }
+
+    /**
+     * 异步接口在线程池中执行的部分由 Bulkhead 累加到同一个统计，结果写回时的异步分派中再汇总
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ResourceUsage usage;
+        ContentCachingResponseWrapper wrapper;
+        HttpServletResponse target = response;
+        if (isAsyncDispatch(request)) {
+            usage = (ResourceUsage) request.getAttribute(USAGE_ATTRIBUTE);
+            if (usage == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            ResourceUsage.resume(usage);
+            wrapper = (ContentCachingResponseWrapper) request.getAttribute(WRAPPER_ATTRIBUTE);
+        } else {
+            if (!debugHeader && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            usage = ResourceUsage.start();
+            wrapper = debugHeader ? new ContentCachingResponseWrapper(response) : null;
+            if (wrapper != null) {
+                target = wrapper;
+            }
+        }
+        ResourceUsage.Segment segment = usage.measure();
+        try {
+            chain.doFilter(request, target);
+        } finally {
+            segment.end();
+            ResourceUsage.stop();
+            if (request.isAsyncStarted()) {
+                request.setAttribute(USAGE_ATTRIBUTE, usage);
+                request.setAttribute(WRAPPER_ATTRIBUTE, wrapper);
+            } else {
+                report(request, usage, wrapper);
+            }
+        }
+    }
+
+    /**
+     * 按窗口内分配字节数从高到低返回各接口的统计。每个接口只取一次快照再排序，
+     * 排序过程中新完成的请求不会改变排序依据
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, Map<String, Object>>> entries = new ArrayList<>(stats.size());
+        stats.forEach((endpoint, endpointStats) -> entries.add(Map.entry(endpoint, endpointStats.snapshot(now))));
+        entries.sort((a, b) -> Long.compare((Long) b.getValue().get("allocatedBytes"),
+                (Long) a.getValue().get("allocatedBytes")));
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Object>> entry : entries) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private void report(HttpServletRequest request, ResourceUsage usage, ContentCachingResponseWrapper wrapper)
+            throws IOException {
+        long bytes = usage.getAllocatedBytes();
+        long cpu = usage.getCpuNanos();
+        stats.computeIfAbsent(endpoint(request), k -> new RollingResourceStats(windowMillis, buckets))
+                .record(System.currentTimeMillis(), bytes, cpu);
+        if (wrapper != null) {
+            wrapper.setHeader(ALLOCATED_HEADER, String.valueOf(bytes));
+            wrapper.setHeader(CPU_HEADER, String.valueOf(cpu / 1000));
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return UNMAPPED;
+        }
+        return request.getMethod() + " " + pattern;
+    }
+}
@@ -0,0 +1,33 @@
+package com.kaiyu.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 请求级内存分配和CPU时间统计配置
+ */
+@Data
+@ConfigurationProperties(prefix = "request-accounting")
+public class RequestAccountingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 统计的请求比例，1表示全部统计
+     */
+    private double sampleRate = 0.1;
+
+    /**
+     * 滚动统计的时间窗口，分成 buckets 段滚动淘汰
+     */
+    private Duration window = Duration.ofMinutes(1);
+
+    private int buckets = 6;
+
+    /**
+     * 调试用，在响应头中返回本次请求的分配字节数和CPU时间。开启后响应体需要先缓存，不要在生产环境开启
+     */
+    private boolean debugHeader = false;
+}
@@ -0,0 +1,91 @@
+package com.kaiyu.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一个请求在各个线程上分配的内存字节数和CPU时间。请求线程和执行异步接口的线程池线程分别测量
+ * 本线程上的增量后累加到同一个对象，用法与 QueryCounter 相同：只有调用 start 之后才统计
+ */
+public final class ResourceUsage {
+
+    private static final ThreadLocal<ResourceUsage> CURRENT = new ThreadLocal<>();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = THREADS instanceof com.sun.management.ThreadMXBean
+            ? (com.sun.management.ThreadMXBean) THREADS : null;
+
+    static final boolean ALLOCATION_SUPPORTED = ALLOCATIONS != null
+            && ALLOCATIONS.isThreadAllocatedMemorySupported() && ALLOCATIONS.isThreadAllocatedMemoryEnabled();
+    static final boolean CPU_SUPPORTED = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong cpuNanos = new AtomicLong();
+
+    public static ResourceUsage start() {
+        ResourceUsage usage = new ResourceUsage();
+        CURRENT.set(usage);
+        return usage;
+    }
+
+    /**
+     * 异步分派时在新的请求线程上继续统计
+     */
+    public static void resume(ResourceUsage usage) {
+        CURRENT.set(usage);
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    public static ResourceUsage current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 开始测量当前线程，结束时调用 {@link Segment#end()} 把这段时间的增量累加进来
+     */
+    public Segment measure() {
+        return new Segment(this);
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos.get();
+    }
+
+    private static long threadAllocatedBytes(long threadId) {
+        return ALLOCATION_SUPPORTED ? ALLOCATIONS.getThreadAllocatedBytes(threadId) : 0;
+    }
+
+    private static long threadCpuNanos() {
+        return CPU_SUPPORTED ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    public static final class Segment {
+
+        private final ResourceUsage usage;
+        private final long threadId;
+        private final long bytesBefore;
+        private final long cpuBefore;
+
+        private Segment(ResourceUsage usage) {
+            this.usage = usage;
+            this.threadId = Thread.currentThread().getId();
+            this.bytesBefore = threadAllocatedBytes(threadId);
+            this.cpuBefore = threadCpuNanos();
+        }
+
+        /**
+         * 必须在开始测量的线程上调用
+         */
+        public void end() {
+            usage.allocatedBytes.addAndGet(threadAllocatedBytes(threadId) - bytesBefore);
+            usage.cpuNanos.addAndGet(threadCpuNanos() - cpuBefore);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.kaiyu.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 一个接口最近一段时间内的请求数、分配字节数和CPU时间。时间窗口分成若干段，
+ * 记录时写入当前段，过期的段在下次写入或读取时清零
+ */
+public class RollingResourceStats {
+
+    private final long bucketMillis;
+    private final long[] epochs;
+    private final long[] counts;
+    private final long[] allocatedBytes;
+    private final long[] cpuNanos;
+    private final long[] maxAllocatedBytes;
+
+    private long totalCount;
+    private long totalAllocatedBytes;
+    private long totalCpuNanos;
+
+    /**
+     * 不用 synchronized：虚拟线程在 monitor 上等待时会占住载体线程
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public RollingResourceStats(long windowMillis, int buckets) {
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.epochs = new long[buckets];
+        this.counts = new long[buckets];
+        this.allocatedBytes = new long[buckets];
+        this.cpuNanos = new long[buckets];
+        this.maxAllocatedBytes = new long[buckets];
+    }
+
+    public void record(long now, long bytes, long cpu) {
+        lock.lock();
+        try {
+            recordLocked(now, bytes, cpu);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordLocked(long now, long bytes, long cpu) {
+        long epoch = now / bucketMillis;
+        int i = (int) (epoch % epochs.length);
+        if (epochs[i] != epoch) {
+            epochs[i] = epoch;
+            counts[i] = 0;
+            allocatedBytes[i] = 0;
+            cpuNanos[i] = 0;
+            maxAllocatedBytes[i] = 0;
+        }
+        counts[i]++;
+        allocatedBytes[i] += bytes;
+        cpuNanos[i] += cpu;
+        maxAllocatedBytes[i] = Math.max(maxAllocatedBytes[i], bytes);
+        totalCount++;
+        totalAllocatedBytes += bytes;
+        totalCpuNanos += cpu;
+    }
+
+    public Map<String, Object> snapshot(long now) {
+        long current = now / bucketMillis;
+        long count = 0;
+        long bytes = 0;
+        long cpu = 0;
+        long maxBytes = 0;
+        long allCount;
+        long allBytes;
+        long allCpu;
+        lock.lock();
+        try {
+            for (int i = 0; i < epochs.length; i++) {
+                if (current - epochs[i] < epochs.length) {
+                    count += counts[i];
+                    bytes += allocatedBytes[i];
+                    cpu += cpuNanos[i];
+                    maxBytes = Math.max(maxBytes, maxAllocatedBytes[i]);
+                }
+            }
+            allCount = totalCount;
+            allBytes = totalAllocatedBytes;
+            allCpu = totalCpuNanos;
+        } finally {
+            lock.unlock();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", count);
+        stats.put("allocatedBytes", bytes);
+        stats.put("avgAllocatedBytes", count == 0 ? 0 : bytes / count);
+        stats.put("maxAllocatedBytes", maxBytes);
+        stats.put("cpuMs", cpu / 1_000_000.0);
+        stats.put("avgCpuMs", count == 0 ? 0 : cpu / count / 1_000_000.0);
+        stats.put("totalCount", allCount);
+        stats.put("totalAllocatedBytes", allBytes);
+        stats.put("totalCpuMs", allCpu / 1_000_000);
+        return stats;
+    }
+}
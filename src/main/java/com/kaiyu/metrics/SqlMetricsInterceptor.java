@@ -0,0 +1,166 @@
+package com.kaiyu.metrics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按语句id统计SQL耗时和行数，超过阈值的语句连同绑定参数记录到日志，其余按比例抽样记录。
+ * <p>
+ * 拦截 StatementHandler 而不是 Executor，只统计真正发到数据库的语句，
+ * 结果缓存命中和获取连接的等待时间不计入
+ */
+@Slf4j
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public class SqlMetricsInterceptor implements Interceptor {
+
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final int maxLoggedParameters;
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public SqlMetricsInterceptor(SqlMetricsProperties properties) {
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.sampleRate = properties.getSampleRate();
+        this.maxLoggedParameters = properties.getMaxLoggedParameters();
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            record((StatementHandler) invocation.getTarget(), nanos, rows(result));
+        }
+    }
+
+    /**
+     * 按累计耗时从高到低返回各语句的统计
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        List<Map.Entry<String, LatencyHistogram>> entries = new ArrayList<>(histograms.entrySet());
+        entries.sort(Comparator.comparingLong(
+                (Map.Entry<String, LatencyHistogram> e) -> e.getValue().getTotalNanos()).reversed());
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : entries) {
+            stats.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return stats;
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    private void record(StatementHandler handler, long nanos, long rows) {
+        MappedStatement ms = mappedStatement(handler);
+        if (ms == null) {
+            return;
+        }
+        String id = shortId(ms.getId());
+        boolean slow = nanos >= slowThresholdNanos;
+        histograms.computeIfAbsent(id, k -> new LatencyHistogram()).record(nanos, rows, slow);
+        if (slow) {
+            log.warn("慢SQL {} 耗时{}ms 行数{} 参数{}", id, nanos / 1_000_000, rows,
+                    parameters(ms.getConfiguration(), handler.getBoundSql()));
+        } else if (sampleRate > 0 && log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("SQL抽样 {} 耗时{}ms 行数{} 参数{}", id, nanos / 1_000_000, rows,
+                    parameters(ms.getConfiguration(), handler.getBoundSql()));
+        }
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof List) {
+            return ((List<?>) result).size();
+        }
+        if (result instanceof Integer) {
+            return (Integer) result;
+        }
+        return -1;
+    }
+
+    /**
+     * 其他插件也拦截 StatementHandler 时目标是层层代理，需要先取出最内层的 RoutingStatementHandler
+     */
+    private static MappedStatement mappedStatement(StatementHandler handler) {
+        MetaObject meta = SystemMetaObject.forObject(handler);
+        while (Proxy.isProxyClass(meta.getOriginalObject().getClass())) {
+            meta = SystemMetaObject.forObject(meta.getValue("h.target"));
+        }
+        if (!meta.hasGetter("delegate")) {
+            return null;
+        }
+        return (MappedStatement) meta.getValue("delegate.mappedStatement");
+    }
+
+    /**
+     * 与 DefaultParameterHandler 取参数值的规则一致
+     */
+    private List<String> parameters(Configuration configuration, BoundSql boundSql) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        Object parameterObject = boundSql.getParameterObject();
+        MetaObject meta = null;
+        List<String> values = new ArrayList<>(Math.min(mappings.size(), maxLoggedParameters) + 1);
+        for (ParameterMapping mapping : mappings) {
+            if (values.size() == maxLoggedParameters) {
+                values.add("...共" + mappings.size() + "个");
+                break;
+            }
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameterObject == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                value = parameterObject;
+            } else {
+                if (meta == null) {
+                    meta = configuration.newMetaObject(parameterObject);
+                }
+                value = meta.getValue(property);
+            }
+            String text = String.valueOf(value);
+            values.add(text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) + "..." : text);
+        }
+        return values;
+    }
+
+    /**
+     * com.kaiyu.dao.StudentDao.getStudentByName -> StudentDao.getStudentByName
+     */
+    private static String shortId(String id) {
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? id.substring(type + 1) : id;
+    }
+}
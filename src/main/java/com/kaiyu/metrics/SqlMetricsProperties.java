@@ -0,0 +1,31 @@
+package com.kaiyu.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * SQL耗时统计与慢查询日志配置
+ */
+@Data
+@ConfigurationProperties(prefix = "sql-metrics")
+public class SqlMetricsProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 超过该耗时的语句连同绑定参数一起以WARN级别记录
+     */
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    /**
+     * 未超过阈值的语句按该比例抽样记录，0表示不记录
+     */
+    private double sampleRate = 0.001;
+
+    /**
+     * 日志中最多输出的参数个数，批量语句的参数很多时截断
+     */
+    private int maxLoggedParameters = 20;
+}
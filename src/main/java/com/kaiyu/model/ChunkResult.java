@@ -0,0 +1,23 @@
+package com.kaiyu.model;
+
+import lombok.Data;
+
+/**
+ * 分批操作中单个批次的执行结果
+ */
+@Data
+public class ChunkResult {
+
+    /**
+     * 本批次在请求id数组中的起始下标
+     */
+    private int offset;
+    private int size;
+    private int affected;
+    private String error;
+
+    public ChunkResult(int offset, int size) {
+        this.offset = offset;
+        this.size = size;
+    }
+}
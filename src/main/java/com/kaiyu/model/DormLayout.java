@@ -0,0 +1,40 @@
+package com.kaiyu.model;
+
+import lombok.Data;
+
+/**
+ * 批量生成宿舍的楼层布局参数
+ */
+@Data
+public class DormLayout {
+
+    /**
+     * 默认命名规则，例如 M + 23 层 + 17 号 = M2317
+     */
+    public static final String DEFAULT_PATTERN = "{prefix}{floor}{room}";
+
+    /**
+     * 一次最多生成的宿舍数，整栋楼在同一事务中插入，过大的布局会长时间持有锁
+     */
+    public static final int MAX_ROOMS = 1000;
+
+    private Integer buildingId;
+
+    /**
+     * 起始楼层，默认为1
+     */
+    private Integer startFloor;
+
+    private Integer floors;
+
+    private Integer roomsPerFloor;
+
+    /**
+     * 命名规则，支持 {prefix}（宿舍楼备注）、{floor}、{room}（两位补零）
+     */
+    private String pattern;
+
+    private Integer maxNum;
+
+    private String remark;
+}
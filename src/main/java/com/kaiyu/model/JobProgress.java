@@ -0,0 +1,49 @@
+package com.kaiyu.model;
+
+import lombok.Getter;
+
+/**
+ * 后台分批任务的进度，供前端轮询
+ */
+@Getter
+public class JobProgress {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String FINISHED = "FINISHED";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    private final String name;
+    private final long startTime;
+    private volatile String status = RUNNING;
+    private volatile String phase;
+    private volatile long processed;
+    private volatile String msg;
+    private volatile boolean cancelRequested;
+
+    public JobProgress(String name) {
+        this.name = name;
+        this.startTime = System.currentTimeMillis();
+    }
+
+    public boolean isRunning() {
+        return RUNNING.equals(status);
+    }
+
+    public void phase(String phase) {
+        this.phase = phase;
+    }
+
+    public void advance(long rows) {
+        this.processed += rows;
+    }
+
+    public void cancel() {
+        this.cancelRequested = true;
+    }
+
+    public void finish(String status, String msg) {
+        this.status = status;
+        this.msg = msg;
+    }
+}
@@ -2,6 +2,7 @@ package com.kaiyu.model;
 
 import lombok.Data;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
@@ -9,12 +10,14 @@ import java.util.List;
  * @date 2021/6/23
  */
 @Data
-public class ResponsePage {
+public class ResponsePage implements Serializable {
 
     private List<?> data;
     private Long total;
     private Integer pageSize;
 
+    private static final long serialVersionUID = 1L;
+
     public Integer getTotalPages() {
         if (total == null || pageSize == null || pageSize <= 0) {
             return 0;
@@ -1,14 +1,29 @@
 package com.kaiyu.service;
 
 import com.github.pagehelper.PageInfo;
+import com.kaiyu.concurrent.Coalesced;
+import com.kaiyu.concurrent.ServeStale;
 import com.kaiyu.dao.BuildingDao;
+import com.kaiyu.dao.DormCheckoutDao;
+import com.kaiyu.dao.DormDao;
+import com.kaiyu.dao.StudentDao;
 import com.kaiyu.entity.Building;
+import com.kaiyu.model.ChunkResult;
+import com.kaiyu.model.JobProgress;
 import com.kaiyu.model.ResponsePage;
+import com.kaiyu.utils.ChunkUtils;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.github.pagehelper.page.PageMethod.startPage;
 
@@ -16,16 +31,43 @@ import static com.github.pagehelper.page.PageMethod.startPage;
  * @author mxxxl
  * @date 2021/6/23
  */
+@Slf4j
 @Service
 public class BuildingService {
 
     @Autowired
     private BuildingDao buildingDao;
 
+    @Autowired
+    private DormDao dormDao;
+
+    @Autowired
+    private StudentDao studentDao;
+
+    @Autowired
+    private DormCheckoutDao dormCheckoutDao;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TaskExecutor batchJobExecutor;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Value("${batch.chunk-size:500}")
+    private int chunkSize = 500;
+
+    private final Map<Integer, JobProgress> decommissions = new ConcurrentHashMap<>();
+
     public List<Building> getBuildingAll() {
-        return buildingDao.getBuildingAll();
+        return referenceDataService.getBuildings();
     }
 
+    @ServeStale
+    @Coalesced
+    @Transactional(readOnly = true)
     public ResponsePage getBuildingPage(Integer page, Integer size, String buildingName) {
         startPage(page, size);
         List<Building> buildings = buildingDao.getBuildingByName(buildingName);
@@ -37,18 +79,75 @@ public class BuildingService {
     }
 
     public int saveBuilding(Building building) {
-        return buildingDao.saveBuilding(building);
+        int result = buildingDao.saveBuilding(building);
+        referenceDataService.refreshBuilding(building.getId());
+        return result;
     }
 
     public int editBuilding(Building building) {
-        return buildingDao.editBuilding(building);
+        int result = buildingDao.editBuilding(building);
+        referenceDataService.refreshBuilding(building.getId());
+        return result;
+    }
+
+    /**
+     * 分批删除，不加入外层事务，每批语句单独提交以缩短锁持有时间
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ChunkResult> deleteBuildings(int[] ids) {
+        List<ChunkResult> results = ChunkUtils.runInChunks(ids, chunkSize, buildingDao::deleteBuildings);
+        referenceDataService.refreshBuildings();
+        return results;
+    }
+
+    /**
+     * 撤销宿舍楼：先记录退宿并清空学生的宿舍分配，再删除宿舍，最后删除宿舍楼。
+     * 每批语句单独提交，避免长时间持有锁；每一步都只依赖当前数据，中断后再次调用即可从断点继续。
+     */
+    public JobProgress decommissionBuilding(Integer buildingId) {
+        JobProgress created = new JobProgress("decommission-" + buildingId);
+        JobProgress progress = decommissions.compute(buildingId, (id, current) ->
+                current != null && current.isRunning() ? current : created);
+        if (progress == created) {
+            progress.phase("queued");
+            batchJobExecutor.execute(() -> runDecommission(buildingId, progress));
+        }
+        return progress;
+    }
+
+    public JobProgress getDecommissionProgress(Integer buildingId) {
+        return decommissions.get(buildingId);
     }
 
-    public int deleteBuildings(List<Building> buildings) {
-        List<Integer> ids = new ArrayList<>();
-        for (Building building : buildings) {
-            ids.add(building.getId());
+    private void runDecommission(Integer buildingId, JobProgress progress) {
+        try {
+            progress.phase("students");
+            while (true) {
+                int[] ids = studentDao.getAssignedIdsByBuilding(buildingId, chunkSize);
+                if (ids.length == 0) {
+                    break;
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    dormCheckoutDao.saveByStudentIds(ids);
+                    studentDao.clearDorm(ids);
+                });
+                progress.advance(ids.length);
+            }
+            progress.phase("dorms");
+            int rows;
+            do {
+                rows = dormDao.deleteDormsByBuilding(buildingId, chunkSize);
+                progress.advance(rows);
+            } while (rows >= chunkSize);
+            progress.phase("building");
+            progress.advance(buildingDao.deleteBuildings(new int[]{buildingId}));
+            progress.finish(JobProgress.FINISHED, "撤销成功！");
+        } catch (RuntimeException e) {
+            log.error("宿舍楼{}撤销失败，已处理{}行", buildingId, progress.getProcessed(), e);
+            progress.finish(JobProgress.FAILED, "撤销失败，可重新提交以继续！");
+        } finally {
+            referenceDataService.refreshDorms();
+            referenceDataService.refreshBuildings();
         }
-        return buildingDao.deleteBuildings(ids);
     }
 }
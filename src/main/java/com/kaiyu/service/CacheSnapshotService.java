@@ -0,0 +1,271 @@
+package com.kaiyu.service;
+
+import com.kaiyu.cache.CacheSnapshotFile;
+import com.kaiyu.cache.CacheSnapshotProperties;
+import com.kaiyu.cache.ReferenceSnapshot;
+import com.kaiyu.cache.TwoLevelCache;
+import com.kaiyu.cache.TwoLevelCacheManager;
+import com.kaiyu.entity.Building;
+import com.kaiyu.entity.Dorm;
+import com.kaiyu.entity.Role;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 缓存快照：停机时和每隔一段时间把菜单等本地缓存和基础数据快照写入文件，启动时直接从文件恢复，
+ * 新实例不用在流量进来时再从数据库重建缓存。
+ * <p>
+ * 每段数据都带有写入时数据来源表在 table_version 中的版本号，版本号由各表的增删改触发器维护。恢复前重新读取，
+ * 不一致或无法读取时跳过该段，仍从数据库加载。写入时先取版本号再读取缓存内容，两者之间发生的修改只会让版本号对不上，
+ * 不会恢复出旧数据。
+ * <p>
+ * 不用 CHECKSUM TABLE：InnoDB 不维护实时校验和，每次计算都要读遍整张表，启动和定时写入时都会扫表
+ */
+@Slf4j
+@Service
+public class CacheSnapshotService implements SmartInitializingSingleton {
+
+    private static final String REFERENCE_SECTION = "reference";
+    private static final String CACHE_SECTION_PREFIX = "cache:";
+    private static final String VERSION_SQL = "SELECT table_name, version FROM table_version WHERE table_name IN (%s)";
+
+    @Autowired
+    private CacheSnapshotProperties properties;
+
+    @Autowired
+    private TwoLevelCacheManager cacheManager;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    /**
+     * 版本号以主库为准，注入默认数据源得到的是读写路由数据源
+     */
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource dataSource;
+
+    /**
+     * 定时写入和停机写入互斥，用 ReentrantLock 而不是 synchronized，写文件时不占住虚拟线程的载体线程
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Map<String, Object> lastRestore = Collections.emptyMap();
+    private volatile Map<String, Object> lastWrite = Collections.emptyMap();
+
+    /**
+     * 所有单例创建完成后、Web服务器开始接收请求前恢复
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (properties.isEnabled()) {
+            restore();
+        }
+    }
+
+    public void restore() {
+        Path file = Paths.get(properties.getFile());
+        if (!Files.exists(file)) {
+            log.info("缓存快照文件不存在，从数据库加载：{}", file);
+            return;
+        }
+        long start = System.nanoTime();
+        Map<String, Object> result = new LinkedHashMap<>();
+        List<String> restored = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        try {
+            CacheSnapshotFile.Contents contents = CacheSnapshotFile.read(file);
+            result.put("createdAt", contents.getCreatedAt());
+            for (CacheSnapshotFile.Section section : contents.getSections().values()) {
+                if (restoreSection(section)) {
+                    restored.add(section.getName());
+                } else {
+                    skipped.add(section.getName());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("缓存快照文件无法读取，从数据库加载：{}", e.getMessage());
+            result.put("error", e.getMessage());
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        result.put("restored", restored);
+        result.put("skipped", skipped);
+        result.put("durationMs", millis);
+        lastRestore = result;
+        log.info("缓存快照恢复完成，耗时{}ms，已恢复：{}，已跳过：{}", millis, restored, skipped);
+    }
+
+    @Scheduled(initialDelayString = "${cache-snapshot.write-interval-ms:300000}",
+            fixedDelayString = "${cache-snapshot.write-interval-ms:300000}")
+    public void scheduledWrite() {
+        if (properties.isEnabled()) {
+            write();
+        }
+    }
+
+    /**
+     * 在数据源关闭之前写入
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void onShutdown() {
+        if (properties.isEnabled()) {
+            write();
+        }
+    }
+
+    public void write() {
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            List<CacheSnapshotFile.Section> sections = new ArrayList<>();
+            CacheSnapshotFile.Section reference = referenceSection();
+            if (reference != null) {
+                sections.add(reference);
+            }
+            for (Map.Entry<String, List<String>> entry : properties.getCaches().entrySet()) {
+                CacheSnapshotFile.Section section = cacheSection(entry.getKey(), entry.getValue());
+                if (section != null) {
+                    sections.add(section);
+                }
+            }
+            if (sections.isEmpty()) {
+                return;
+            }
+            Path file = Paths.get(properties.getFile());
+            CacheSnapshotFile.write(file, sections);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("writtenAt", System.currentTimeMillis());
+            result.put("sections", sections.size());
+            result.put("bytes", Files.size(file));
+            result.put("durationMs", (System.nanoTime() - start) / 1_000_000);
+            lastWrite = result;
+            log.debug("缓存快照已写入{}：{}", file, result);
+        } catch (IOException | RuntimeException e) {
+            log.warn("缓存快照写入失败：{}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("file", properties.getFile());
+        stats.put("lastRestore", lastRestore);
+        stats.put("lastWrite", lastWrite);
+        return stats;
+    }
+
+    private CacheSnapshotFile.Section referenceSection() throws IOException {
+        Map<String, Long> versions = versions(properties.getReferenceTables());
+        ReferenceSnapshot snapshot = referenceDataService.loaded();
+        if (versions == null || snapshot == null) {
+            return null;
+        }
+        List<List<?>> value = Arrays.asList(snapshot.getBuildings().all(), snapshot.getDorms().all(),
+                snapshot.getRoles().all());
+        return CacheSnapshotFile.Section.of(REFERENCE_SECTION, versions, value);
+    }
+
+    private CacheSnapshotFile.Section cacheSection(String name, List<String> tables) throws IOException {
+        Map<String, Long> versions = versions(tables);
+        if (versions == null) {
+            return null;
+        }
+        Map<Object, Object> entries = cacheManager.getCache(name).localEntries();
+        if (entries.isEmpty()) {
+            return null;
+        }
+        return CacheSnapshotFile.Section.of(CACHE_SECTION_PREFIX + name, versions, entries);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean restoreSection(CacheSnapshotFile.Section section) {
+        String name = section.getName();
+        Map<String, Long> current = versions(section.getVersions().keySet());
+        if (current == null || !current.equals(section.getVersions())) {
+            log.info("缓存快照{}的数据来源表已变化，跳过", name);
+            return false;
+        }
+        try {
+            Object value = section.value();
+            if (REFERENCE_SECTION.equals(name)) {
+                List<List<?>> lists = (List<List<?>>) value;
+                return referenceDataService.restore((List<Building>) lists.get(0), (List<Dorm>) lists.get(1),
+                        (List<Role>) lists.get(2));
+            }
+            if (name.startsWith(CACHE_SECTION_PREFIX)) {
+                TwoLevelCache cache = cacheManager.getCache(name.substring(CACHE_SECTION_PREFIX.length()));
+                ((Map<Object, Object>) value).forEach(cache::putLocal);
+                return true;
+            }
+            return false;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            log.warn("缓存快照{}无法反序列化，跳过：{}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 按主键读取 table_version，不扫描业务表
+     *
+     * @return 表名到版本号，有表未登记或查询失败时返回null
+     */
+    private Map<String, Long> versions(Collection<String> tables) {
+        if (tables.isEmpty()) {
+            return null;
+        }
+        String sql = String.format(VERSION_SQL, String.join(", ", Collections.nCopies(tables.size(), "?")));
+        Map<String, Long> found = new HashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            int i = 1;
+            for (String table : tables) {
+                statement.setString(i++, table);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    found.put(rs.getString("table_name"), rs.getLong("version"));
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("数据表版本号读取失败：{}", e.getMessage());
+            return null;
+        }
+        Map<String, Long> versions = new LinkedHashMap<>();
+        for (String table : tables) {
+            Long version = found.get(table);
+            if (version == null) {
+                log.warn("数据表{}未登记在table_version中，缓存快照无法校验", table);
+                return null;
+            }
+            versions.put(table, version);
+        }
+        return versions;
+    }
+}
@@ -1,11 +1,21 @@
 package com.kaiyu.service;
 
 import com.github.pagehelper.PageInfo;
+import com.kaiyu.concurrent.Coalesced;
+import com.kaiyu.concurrent.ServeStale;
+import com.kaiyu.dao.BuildingDao;
 import com.kaiyu.dao.DormDao;
+import com.kaiyu.entity.Building;
 import com.kaiyu.entity.Dorm;
+import com.kaiyu.model.ChunkResult;
+import com.kaiyu.model.DormLayout;
 import com.kaiyu.model.ResponsePage;
+import com.kaiyu.utils.ChunkUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,13 +29,30 @@ import static com.github.pagehelper.page.PageMethod.startPage;
 @Service
 public class DormService {
 
+    /**
+     * 批量插入时每条多行insert语句包含的宿舍数
+     */
+    private static final int BATCH_SIZE = 200;
+
     @Autowired
     private DormDao dormDao;
 
+    @Autowired
+    private BuildingDao buildingDao;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Value("${batch.chunk-size:500}")
+    private int chunkSize = 500;
+
     public List<Dorm> getDormAll() {
-        return dormDao.getDormAll();
+        return referenceDataService.getDorms();
     }
 
+    @ServeStale
+    @Coalesced
+    @Transactional(readOnly = true)
     public ResponsePage getDormPage(Integer page, Integer size, String dormName) {
         startPage(page, size);
         List<Dorm> dorms = dormDao.getDormByName(dormName);
@@ -37,18 +64,74 @@ public class DormService {
     }
 
     public int saveDorm(Dorm dorm) {
-        return dormDao.saveDorm(dorm);
+        int result = dormDao.saveDorm(dorm);
+        referenceDataService.refreshDorm(dorm.getId());
+        return result;
     }
 
-    public int editDorm(Dorm dorm) {
-        return dormDao.editDorm(dorm);
+    /**
+     * 按楼层布局为宿舍楼批量生成宿舍，整栋楼在同一事务中分批插入
+     *
+     * @return 生成的宿舍id，宿舍楼不存在时返回null
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<Integer> generateDorms(DormLayout layout) {
+        Building building = buildingDao.getBuildingById(layout.getBuildingId());
+        if (building == null) {
+            return null;
+        }
+        String prefix = building.getRemark() == null ? "" : building.getRemark();
+        String pattern = layout.getPattern() == null || layout.getPattern().isEmpty()
+                ? DormLayout.DEFAULT_PATTERN : layout.getPattern();
+        int startFloor = layout.getStartFloor() == null ? 1 : layout.getStartFloor();
+        int total = layout.getFloors() * layout.getRoomsPerFloor();
+        List<Integer> ids = new ArrayList<>(total);
+        List<Dorm> batch = new ArrayList<>(Math.min(total, BATCH_SIZE));
+        for (int floor = startFloor; floor < startFloor + layout.getFloors(); floor++) {
+            for (int room = 1; room <= layout.getRoomsPerFloor(); room++) {
+                Dorm dorm = new Dorm();
+                dorm.setName(pattern.replace("{prefix}", prefix)
+                        .replace("{floor}", String.valueOf(floor))
+                        .replace("{room}", String.format("%02d", room)));
+                dorm.setBuildingId(building.getId());
+                dorm.setMaxNum(layout.getMaxNum());
+                dorm.setRemark(layout.getRemark());
+                batch.add(dorm);
+                if (batch.size() == BATCH_SIZE) {
+                    ids.addAll(saveBatch(batch));
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            ids.addAll(saveBatch(batch));
+        }
+        referenceDataService.refreshDorms();
+        return ids;
     }
 
-    public int deleteDorms(List<Dorm> dorms) {
-        List<Integer> ids = new ArrayList<>();
-        for (Dorm dorm : dorms) {
+    private List<Integer> saveBatch(List<Dorm> batch) {
+        dormDao.saveDorms(batch);
+        List<Integer> ids = new ArrayList<>(batch.size());
+        for (Dorm dorm : batch) {
             ids.add(dorm.getId());
         }
-        return dormDao.deleteDorms(ids);
+        return ids;
+    }
+
+    public int editDorm(Dorm dorm) {
+        int result = dormDao.editDorm(dorm);
+        referenceDataService.refreshDorm(dorm.getId());
+        return result;
+    }
+
+    /**
+     * 分批删除，不加入外层事务，每批语句单独提交以缩短锁持有时间
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ChunkResult> deleteDorms(int[] ids) {
+        List<ChunkResult> results = ChunkUtils.runInChunks(ids, chunkSize, dormDao::deleteDorms);
+        referenceDataService.refreshDorms();
+        return results;
     }
 }
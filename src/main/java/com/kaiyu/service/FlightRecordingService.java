@@ -0,0 +1,157 @@
+package com.kaiyu.service;
+
+import com.kaiyu.jfr.AuthorizationEvent;
+import com.kaiyu.jfr.CaptchaEvent;
+import com.kaiyu.jfr.DaoCallEvent;
+import com.kaiyu.jfr.JfrProperties;
+import com.kaiyu.jfr.PasswordCheckEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 持续飞行记录：启动后一直以低开销配置记录，磁盘上滚动保留最近 maxAge 的数据；
+ * 出现延迟问题时导出最近若干分钟到文件，离线用 JDK Mission Control 分析
+ */
+@Slf4j
+@Service
+public class FlightRecordingService {
+
+    private static final String NAME = "dormadmin-continuous";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Autowired
+    private JfrProperties properties;
+
+    private volatile Recording recording;
+
+    /**
+     * 导出时写文件，用 ReentrantLock 而不是 synchronized，虚拟线程等待时不占住载体线程
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        lock.lock();
+        try {
+            startLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void startLocked() {
+        if (!properties.isEnabled() || recording != null) {
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("当前JVM不支持飞行记录，持续记录未开启");
+            return;
+        }
+        try {
+            Recording r = new Recording(Configuration.getConfiguration(properties.getSettings()));
+            r.setName(NAME);
+            r.setToDisk(true);
+            r.setMaxAge(properties.getMaxAge());
+            r.setMaxSize(properties.getMaxSize().toBytes());
+            r.enable(DaoCallEvent.class).withThreshold(properties.getDaoThreshold());
+            r.enable(AuthorizationEvent.class).withThreshold(properties.getAuthorizationThreshold());
+            r.enable(CaptchaEvent.class).withoutThreshold();
+            r.enable(PasswordCheckEvent.class).withoutThreshold();
+            r.start();
+            recording = r;
+            log.info("持续飞行记录已开启，保留最近{}", properties.getMaxAge());
+        } catch (IOException | ParseException e) {
+            log.error("持续飞行记录开启失败", e);
+        }
+    }
+
+    /**
+     * 导出最近 minutes 分钟的数据，超过 maxAge 时按 maxAge 导出
+     *
+     * @return 导出的文件
+     */
+    public Path dump(int minutes) throws IOException {
+        lock.lock();
+        try {
+            return dumpLocked(minutes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path dumpLocked(int minutes) throws IOException {
+        Recording current = recording;
+        if (current == null) {
+            throw new IllegalStateException("持续飞行记录未开启");
+        }
+        Duration window = Duration.ofMinutes(Math.max(1, minutes));
+        if (window.compareTo(properties.getMaxAge()) > 0) {
+            window = properties.getMaxAge();
+        }
+        Path dir = Paths.get(properties.getDumpDir());
+        Files.createDirectories(dir);
+        Path target = dir.resolve("dormadmin-" + FILE_TIME.format(LocalDateTime.now()) + ".jfr");
+        Instant end = Instant.now();
+        // 复制出一个已停止的记录，包含正在写入的数据块，原记录继续运行
+        try (Recording copy = current.copy(true)) {
+            try (InputStream in = copy.getStream(end.minus(window), end)) {
+                if (in == null) {
+                    copy.dump(target);
+                } else {
+                    Files.copy(in, target);
+                }
+            }
+        }
+        log.info("飞行记录已导出到{}，时长{}", target, window);
+        return target;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        Recording current = recording;
+        status.put("enabled", properties.isEnabled());
+        status.put("state", current == null ? "NOT_STARTED" : current.getState().name());
+        if (current != null) {
+            status.put("startTime", current.getStartTime());
+            status.put("size", current.getSize());
+        }
+        status.put("settings", properties.getSettings());
+        status.put("maxAge", properties.getMaxAge().toString());
+        status.put("dumpDir", properties.getDumpDir());
+        return status;
+    }
+
+    @PreDestroy
+    public void stop() {
+        lock.lock();
+        try {
+            if (recording != null) {
+                recording.close();
+                recording = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
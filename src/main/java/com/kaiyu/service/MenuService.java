@@ -1,5 +1,7 @@
 package com.kaiyu.service;
 
+import com.kaiyu.concurrent.Coalesced;
+import com.kaiyu.concurrent.ServeStale;
 import com.kaiyu.dao.MenuDao;
 import com.kaiyu.dao.MenuRoleDao;
 import com.kaiyu.entity.Menu;
@@ -31,6 +33,8 @@ public class MenuService {
         return menuDao.getAllMenusWithRole();
     }
 
+    @ServeStale(perUser = true)
+    @Coalesced(perUser = true)
     public List<Menu> getMenusByUserId() {
         return menuDao.getMenusByUserId(((User) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getId());
     }
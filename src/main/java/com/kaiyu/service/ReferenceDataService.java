@@ -0,0 +1,214 @@
+package com.kaiyu.service;
+
+import com.kaiyu.cache.CacheInvalidationBus;
+import com.kaiyu.cache.ReferenceSnapshot;
+import com.kaiyu.cache.TwoLevelCacheManager;
+import com.kaiyu.dao.BuildingDao;
+import com.kaiyu.dao.DormDao;
+import com.kaiyu.dao.RoleDao;
+import com.kaiyu.entity.Building;
+import com.kaiyu.entity.Dorm;
+import com.kaiyu.entity.Role;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 宿舍楼、宿舍、角色的内存快照，下拉框等全量读取直接使用快照，不访问数据库。
+ * 写操作提交后重新加载对应部分并原子替换快照，同时通知其他节点重新加载。
+ * 单条新增或修改只按主键重新查询这一条，替换进新的快照，不重新加载整张表
+ */
+@Slf4j
+@Service
+public class ReferenceDataService {
+
+    public static final String NAMESPACE = "reference_snapshot";
+    private static final String BUILDINGS = "building";
+    private static final String DORMS = "dorm";
+    private static final String ROLES = "role";
+    private static final String ID_SEPARATOR = ":";
+
+    @Autowired
+    private BuildingDao buildingDao;
+
+    @Autowired
+    private DormDao dormDao;
+
+    @Autowired
+    private RoleDao roleDao;
+
+    @Autowired(required = false)
+    private TwoLevelCacheManager cacheManager;
+
+    private volatile ReferenceSnapshot snapshot;
+
+    /**
+     * 重新加载互斥执行，保证后开始的加载结果不会被先开始的覆盖
+     */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        CacheInvalidationBus bus = cacheManager == null ? null : cacheManager.getInvalidationBus();
+        if (bus != null) {
+            bus.register(NAMESPACE, this::reload);
+        }
+        try {
+            current();
+        } catch (RuntimeException e) {
+            log.warn("基础数据快照加载失败，将在首次访问时重试：{}", e.getMessage());
+        }
+    }
+
+    public ReferenceSnapshot current() {
+        ReferenceSnapshot current = snapshot;
+        if (current == null) {
+            reloadLock.lock();
+            try {
+                current = snapshot;
+                if (current == null) {
+                    current = ReferenceSnapshot.EMPTY
+                            .withBuildings(buildingDao.getBuildingAll())
+                            .withDorms(dormDao.getDormAll())
+                            .withRoles(roleDao.getAllRoles());
+                    snapshot = current;
+                }
+            } finally {
+                reloadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 已加载的快照，未加载时返回null，不触发加载
+     */
+    public ReferenceSnapshot loaded() {
+        return snapshot;
+    }
+
+    /**
+     * 用缓存快照文件中的数据初始化，已经从数据库加载过时不覆盖
+     *
+     * @return 是否使用了传入的数据
+     */
+    public boolean restore(List<Building> buildings, List<Dorm> dorms, List<Role> roles) {
+        reloadLock.lock();
+        try {
+            if (snapshot != null) {
+                return false;
+            }
+            snapshot = ReferenceSnapshot.EMPTY.withBuildings(buildings).withDorms(dorms).withRoles(roles);
+            return true;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    public List<Building> getBuildings() {
+        return current().getBuildings().all();
+    }
+
+    public List<Dorm> getDorms() {
+        return current().getDorms().all();
+    }
+
+    public List<Role> getRoles() {
+        return current().getRoles().all();
+    }
+
+    public void refreshBuildings() {
+        afterCommit(BUILDINGS);
+    }
+
+    public void refreshDorms() {
+        afterCommit(DORMS);
+    }
+
+    public void refreshRoles() {
+        afterCommit(ROLES);
+    }
+
+    /**
+     * 只重新查询一栋宿舍楼，id为null时重新加载全部宿舍楼
+     */
+    public void refreshBuilding(Integer id) {
+        afterCommit(id == null ? BUILDINGS : BUILDINGS + ID_SEPARATOR + id);
+    }
+
+    /**
+     * 只重新查询一间宿舍，id为null时重新加载全部宿舍
+     */
+    public void refreshDorm(Integer id) {
+        afterCommit(id == null ? DORMS : DORMS + ID_SEPARATOR + id);
+    }
+
+    /**
+     * 在事务中调用时等事务提交后再重新加载，否则立即加载
+     */
+    private void afterCommit(String part) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        reloadAndPublish(part);
+                    }
+                }
+            });
+        } else {
+            reloadAndPublish(part);
+        }
+    }
+
+    private void reloadAndPublish(String part) {
+        reload(part);
+        CacheInvalidationBus bus = cacheManager == null ? null : cacheManager.getInvalidationBus();
+        if (bus != null) {
+            bus.publish(NAMESPACE, part);
+        }
+    }
+
+    private void reload(String part) {
+        reloadLock.lock();
+        try {
+            ReferenceSnapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            int separator = part.indexOf(ID_SEPARATOR);
+            if (separator > 0) {
+                snapshot = reloadOne(current, part.substring(0, separator),
+                        Integer.valueOf(part.substring(separator + 1)));
+            } else if (BUILDINGS.equals(part)) {
+                snapshot = current.withBuildings(buildingDao.getBuildingAll());
+            } else if (DORMS.equals(part)) {
+                snapshot = current.withDorms(dormDao.getDormAll());
+            } else if (ROLES.equals(part)) {
+                snapshot = current.withRoles(roleDao.getAllRoles());
+            }
+        } catch (RuntimeException e) {
+            log.error("基础数据快照重新加载失败：{}", part, e);
+            snapshot = null;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private ReferenceSnapshot reloadOne(ReferenceSnapshot current, String table, Integer id) {
+        if (BUILDINGS.equals(table)) {
+            return current.withBuilding(id, buildingDao.getBuildingById(id));
+        }
+        if (DORMS.equals(table)) {
+            return current.withDorm(id, dormDao.getDormById(id));
+        }
+        return current;
+    }
+}
@@ -17,18 +17,25 @@ public class RoleService {
     @Autowired
     private RoleDao roleDao;
 
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
     public List<Role> getAllRoles() {
-        return roleDao.getAllRoles();
+        return referenceDataService.getRoles();
     }
 
     public int addRole(Role role) {
         if (!role.getName().startsWith("ROLE_")) {
             role.setName("ROLE_" + role.getName());
         }
-        return roleDao.insert(role);
+        int result = roleDao.insert(role);
+        referenceDataService.refreshRoles();
+        return result;
     }
 
     public int deleteRoleById(Integer rid) {
-        return roleDao.deleteByPrimaryKey(rid);
+        int result = roleDao.deleteByPrimaryKey(rid);
+        referenceDataService.refreshRoles();
+        return result;
     }
 }
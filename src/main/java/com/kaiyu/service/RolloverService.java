@@ -0,0 +1,149 @@
+package com.kaiyu.service;
+
+import com.kaiyu.dao.DormCheckoutDao;
+import com.kaiyu.dao.StudentDao;
+import com.kaiyu.model.JobProgress;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Year;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 毕业退宿：按学号年级前缀分批记录退宿并清空宿舍分配
+ */
+@Slf4j
+@Service
+public class RolloverService {
+
+    @Autowired
+    private StudentDao studentDao;
+
+    @Autowired
+    private DormCheckoutDao dormCheckoutDao;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TaskExecutor batchJobExecutor;
+
+    /**
+     * 直接观察主库连接池，注入默认数据源得到的是读写路由数据源
+     */
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource dataSource;
+
+    @Value("${batch.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${rollover.study-years:4}")
+    private int studyYears = 4;
+
+    /**
+     * 任务最多占用的连接池比例，连接池空闲不足该比例时暂停
+     */
+    @Value("${rollover.max-pool-share:0.1}")
+    private double maxPoolShare = 0.1;
+
+    @Value("${rollover.pause-ms:50}")
+    private long pauseMs = 50;
+
+    private final AtomicReference<JobProgress> current = new AtomicReference<>();
+
+    /**
+     * 每年按配置的时间自动为应届毕业年级退宿，默认不启用
+     */
+    @Scheduled(cron = "${rollover.cron:-}")
+    public void scheduledRollover() {
+        String cohort = String.format("%02d", (Year.now().getValue() - studyYears) % 100);
+        log.info("开始定时毕业退宿，年级：{}", cohort);
+        startRollover(cohort);
+    }
+
+    /**
+     * 同一时间只运行一个退宿任务，已有任务运行时返回该任务的进度
+     */
+    public JobProgress startRollover(String cohort) {
+        JobProgress created = new JobProgress("rollover-" + cohort);
+        JobProgress progress = current.updateAndGet(job -> job != null && job.isRunning() ? job : created);
+        if (progress == created) {
+            progress.phase("queued");
+            batchJobExecutor.execute(() -> runRollover(cohort, progress));
+        }
+        return progress;
+    }
+
+    public JobProgress getProgress() {
+        return current.get();
+    }
+
+    public JobProgress cancel() {
+        JobProgress progress = current.get();
+        if (progress != null && progress.isRunning()) {
+            progress.cancel();
+        }
+        return progress;
+    }
+
+    private void runRollover(String cohort, JobProgress progress) {
+        progress.phase("checkout");
+        try {
+            while (true) {
+                throttle(progress);
+                if (progress.isCancelRequested()) {
+                    progress.finish(JobProgress.CANCELLED, "已取消，已退宿" + progress.getProcessed() + "人");
+                    return;
+                }
+                int[] ids = studentDao.getAssignedIdsByCohort(cohort, chunkSize);
+                if (ids.length == 0) {
+                    break;
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    dormCheckoutDao.saveByStudentIds(ids);
+                    studentDao.clearDorm(ids);
+                });
+                progress.advance(ids.length);
+            }
+            progress.finish(JobProgress.FINISHED, "退宿完成，共" + progress.getProcessed() + "人");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.finish(JobProgress.CANCELLED, "任务被中断，可重新提交以继续！");
+        } catch (RuntimeException e) {
+            log.error("年级{}毕业退宿失败，已处理{}人", cohort, progress.getProcessed(), e);
+            progress.finish(JobProgress.FAILED, "退宿失败，可重新提交以继续！");
+        }
+    }
+
+    /**
+     * 每批之间稍作停顿；当有请求在等待连接，或正常请求已占用超过 1 - maxPoolShare 的连接时继续等待，
+     * 保证任务只在连接池有富余时才取用连接
+     */
+    private void throttle(JobProgress progress) throws InterruptedException {
+        Thread.sleep(pauseMs);
+        if (!(dataSource instanceof HikariDataSource)) {
+            return;
+        }
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return;
+        }
+        int share = Math.max(1, (int) (hikari.getMaximumPoolSize() * maxPoolShare));
+        int busyLimit = hikari.getMaximumPoolSize() - share;
+        while (!progress.isCancelRequested()
+                && (pool.getThreadsAwaitingConnection() > 0 || pool.getActiveConnections() > busyLimit)) {
+            Thread.sleep(Math.max(pauseMs, 10));
+        }
+    }
+}
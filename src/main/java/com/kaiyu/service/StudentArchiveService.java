@@ -0,0 +1,122 @@
+package com.kaiyu.service;
+
+import com.kaiyu.dao.StudentArchiveDao;
+import com.kaiyu.dao.StudentDao;
+import com.kaiyu.model.JobProgress;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 学生冷热分离：退宿超过保留期且未重新分配宿舍的学生分批移入归档表，
+ * 使 student 表只保留在住及近期退宿的学生
+ */
+@Slf4j
+@Service
+public class StudentArchiveService {
+
+    @Autowired
+    private StudentDao studentDao;
+
+    @Autowired
+    private StudentArchiveDao studentArchiveDao;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TaskExecutor batchJobExecutor;
+
+    @Value("${batch.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${archive.retention-days:180}")
+    private int retentionDays = 180;
+
+    @Value("${archive.pause-ms:50}")
+    private long pauseMs = 50;
+
+    private final AtomicReference<JobProgress> current = new AtomicReference<>();
+
+    /**
+     * 按配置的时间自动归档，默认不启用
+     */
+    @Scheduled(cron = "${archive.cron:-}")
+    public void scheduledArchive() {
+        log.info("开始定时归档学生");
+        startArchive();
+    }
+
+    /**
+     * 同一时间只运行一个归档任务，已有任务运行时返回该任务的进度
+     */
+    public JobProgress startArchive() {
+        JobProgress created = new JobProgress("archive");
+        JobProgress progress = current.updateAndGet(job -> job != null && job.isRunning() ? job : created);
+        if (progress == created) {
+            progress.phase("queued");
+            batchJobExecutor.execute(() -> runArchive(progress));
+        }
+        return progress;
+    }
+
+    public JobProgress getProgress() {
+        return current.get();
+    }
+
+    private void runArchive(JobProgress progress) {
+        progress.phase("archive");
+        try {
+            int total = archiveStale(progress);
+            progress.finish(JobProgress.FINISHED, "归档完成，共" + total + "人");
+        } catch (RuntimeException e) {
+            log.error("学生归档失败，已归档{}人", progress.getProcessed(), e);
+            progress.finish(JobProgress.FAILED, "归档失败，可重新提交以继续！");
+        }
+    }
+
+    /**
+     * 每批在一个事务内锁定待归档的学生、复制到归档表并删除，批与批之间短暂停顿
+     *
+     * @return 归档的学生数
+     */
+    public int archiveStale(JobProgress progress) {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+        int moved;
+        do {
+            Integer rows = transactionTemplate.execute(status -> {
+                int[] ids = studentDao.getStaleIdsForUpdate(before, chunkSize);
+                if (ids.length == 0) {
+                    return 0;
+                }
+                studentArchiveDao.saveFromStudents(ids);
+                return studentDao.deleteStudents(ids);
+            });
+            moved = rows == null ? 0 : rows;
+            total += moved;
+            progress.advance(moved);
+            if (moved > 0 && !pause()) {
+                break;
+            }
+        } while (moved >= chunkSize);
+        return total;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,14 +1,20 @@
 package com.kaiyu.service;
 
 import com.github.pagehelper.PageInfo;
+import com.kaiyu.concurrent.Coalesced;
+import com.kaiyu.concurrent.ServeStale;
+import com.kaiyu.dao.StudentArchiveDao;
 import com.kaiyu.dao.StudentDao;
 import com.kaiyu.entity.Student;
+import com.kaiyu.model.ChunkResult;
 import com.kaiyu.model.ResponsePage;
+import com.kaiyu.utils.ChunkUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static com.github.pagehelper.page.PageMethod.startPage;
@@ -24,6 +30,15 @@ public class StudentService {
     @Autowired
     private StudentDao studentDao;
 
+    @Autowired
+    private StudentArchiveDao studentArchiveDao;
+
+    @Value("${batch.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @ServeStale
+    @Coalesced
+    @Transactional(readOnly = true)
     public ResponsePage getStudentByName(Integer page, Integer size, String studentName) {
         startPage(page, size);
         List<Student> students = studentDao.getStudentByName(studentName);
@@ -35,6 +50,23 @@ public class StudentService {
         return responsePage;
     }
 
+    /**
+     * 只在明确要求时查询归档表
+     */
+    @ServeStale
+    @Coalesced
+    @Transactional(readOnly = true)
+    public ResponsePage getArchivedStudentByName(Integer page, Integer size, String studentName) {
+        startPage(page, size);
+        List<Student> students = studentArchiveDao.getArchivedStudentByName(studentName);
+        PageInfo<Student> pageInfo = new PageInfo<>(students);
+        ResponsePage responsePage = new ResponsePage();
+        responsePage.setData(students);
+        responsePage.setTotal(pageInfo.getTotal());
+        responsePage.setPageSize(size);
+        return responsePage;
+    }
+
     public int saveStudent(Student student) {
         return studentDao.saveStudent(student);
     }
@@ -43,11 +75,11 @@ public class StudentService {
         return studentDao.editStudent(student);
     }
 
-    public int deleteStudents(List<Student> students) {
-        List<Integer> ids = new ArrayList<>();
-        for (Student student : students) {
-            ids.add(student.getId());
-        }
-        return studentDao.deleteStudents(ids);
+    /**
+     * 分批删除，不加入外层事务，每批语句单独提交以缩短锁持有时间
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ChunkResult> deleteStudents(int[] ids) {
+        return ChunkUtils.runInChunks(ids, chunkSize, studentDao::deleteStudents);
     }
 }
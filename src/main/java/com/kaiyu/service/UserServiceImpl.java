@@ -1,5 +1,6 @@
 package com.kaiyu.service;
 
+import com.kaiyu.concurrent.Coalesced;
 import com.kaiyu.dao.UserDao;
 import com.kaiyu.dao.UserRoleDao;
 import com.kaiyu.entity.User;
@@ -68,6 +69,7 @@ public class UserServiceImpl implements UserDetailsService {
         return userDao.updateUser(user);
     }
 
+    @Coalesced(perUser = true)
     public List<User> getUserByName(String name) {
         return userDao.getUserByName(UserUtils.getCurrentUser().getId(), name);
     }
@@ -0,0 +1,200 @@
+package com.kaiyu.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.code.kaptcha.Producer;
+import com.kaiyu.config.CustomFilterInvocationSecurityMetadataSource;
+import com.kaiyu.model.ResponseMsg;
+import com.kaiyu.model.ResponsePage;
+import com.kaiyu.warmup.WarmUpProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.FilterInvocation;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 启动预热：依次执行数据库连接、基础数据、菜单、列表查询、权限判断、验证码和JSON序列化的首次调用，
+ * 让类加载、MyBatis语句和反射信息的初始化、字体加载和缓存填充在接收流量之前完成。
+ * <p>
+ * 在其他 ApplicationReadyEvent 监听器之后同步执行，执行期间就绪状态为 REFUSING_TRAFFIC，
+ * /actuator/health/readiness 返回不可用，负载均衡不会把请求转发过来。每一步单独计时，
+ * 失败只记录日志；总时长超过 maxDuration 后跳过剩余步骤
+ */
+@Slf4j
+@Service
+public class WarmUpService {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private WarmUpProperties properties;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Autowired
+    private MenuService menuService;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private DormService dormService;
+
+    @Autowired
+    private BuildingService buildingService;
+
+    @Autowired
+    private CustomFilterInvocationSecurityMetadataSource securityMetadataSource;
+
+    @Autowired
+    private Producer captchaProducer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Map<String, Object> status = Collections.singletonMap("state", "NOT_STARTED");
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+        try {
+            warmUp();
+        } finally {
+            AvailabilityChangeEvent.publish(publisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+        }
+    }
+
+    public void warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDuration().toNanos();
+        Map<String, Object> steps = new LinkedHashMap<>();
+        publishStatus("RUNNING", steps, null);
+
+        List<ResponsePage> pages = new ArrayList<>();
+        step(steps, deadline, "connections", this::openConnections);
+        step(steps, deadline, "referenceData", referenceDataService::current);
+        step(steps, deadline, "menus", menuService::getAllMenusWithRole);
+        step(steps, deadline, "pageQueries", () -> {
+            pages.add(studentService.getStudentByName(1, PAGE_SIZE, null));
+            pages.add(dormService.getDormPage(1, PAGE_SIZE, null));
+            pages.add(buildingService.getBuildingPage(1, PAGE_SIZE, null));
+        });
+        step(steps, deadline, "security", () -> {
+            for (int i = 0; i < properties.getIterations(); i++) {
+                for (String url : properties.getUrls()) {
+                    securityMetadataSource.getAttributes(new FilterInvocation(url, "GET"));
+                }
+            }
+        });
+        step(steps, deadline, "captcha", () -> {
+            for (int i = 0; i < properties.getCaptchas(); i++) {
+                ImageIO.write(captchaProducer.createImage(captchaProducer.createText()), "jpg",
+                        OutputStream.nullOutputStream());
+            }
+        });
+        step(steps, deadline, "json", () -> {
+            List<Object> bodies = new ArrayList<>(pages);
+            bodies.add(ResponseMsg.ok("ok", menuService.getAllMenusWithRole()));
+            bodies.add(referenceDataService.getBuildings());
+            bodies.add(referenceDataService.getDorms());
+            bodies.add(referenceDataService.getRoles());
+            for (int i = 0; i < properties.getIterations(); i++) {
+                for (Object body : bodies) {
+                    objectMapper.writeValueAsBytes(body);
+                }
+            }
+        });
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        publishStatus("DONE", steps, millis);
+        log.info("启动预热完成，耗时{}ms：{}", millis, steps);
+    }
+
+    public Map<String, Object> getStatus() {
+        return status;
+    }
+
+    /**
+     * 每一步结束后整体替换，查询状态的线程不会读到正在修改的 Map
+     */
+    private void publishStatus(String state, Map<String, Object> steps, Long durationMs) {
+        Map<String, Object> next = new LinkedHashMap<>();
+        next.put("state", state);
+        next.put("steps", new LinkedHashMap<>(steps));
+        if (durationMs != null) {
+            next.put("durationMs", durationMs);
+        }
+        status = next;
+    }
+
+    /**
+     * 同时占用 minimumIdle 个连接，连接池不足时当场建立，而不是等后台线程慢慢补齐
+     */
+    private void openConnections() throws SQLException {
+        int count = Math.min(primaryDataSource.getMinimumIdle(), primaryDataSource.getMaximumPoolSize());
+        List<Connection> connections = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                connections.add(primaryDataSource.getConnection());
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+
+    private void step(Map<String, Object> steps, long deadline, String name, Step step) {
+        if (System.nanoTime() - deadline >= 0) {
+            steps.put(name, "SKIPPED");
+            log.warn("启动预热超过{}，跳过{}", properties.getMaxDuration(), name);
+        } else {
+            long start = System.nanoTime();
+            try {
+                step.run();
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                steps.put(name, millis);
+                log.info("预热步骤{}完成，耗时{}ms", name, millis);
+            } catch (Exception e) {
+                steps.put(name, "FAILED");
+                log.warn("预热步骤{}失败：{}", name, e.getMessage());
+            }
+        }
+        publishStatus("RUNNING", steps, null);
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run() throws Exception;
+    }
+}
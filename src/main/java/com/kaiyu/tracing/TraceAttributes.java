@@ -0,0 +1,26 @@
+package com.kaiyu.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+
+/**
+ * span属性名，与 OpenTelemetry 语义约定保持一致
+ */
+public final class TraceAttributes {
+
+    public static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.request.method");
+    public static final AttributeKey<String> HTTP_ROUTE = AttributeKey.stringKey("http.route");
+    public static final AttributeKey<String> URL_PATH = AttributeKey.stringKey("url.path");
+    public static final AttributeKey<Long> HTTP_STATUS = AttributeKey.longKey("http.response.status_code");
+    public static final AttributeKey<String> USER = AttributeKey.stringKey("enduser.id");
+
+    public static final AttributeKey<String> CODE_NAMESPACE = AttributeKey.stringKey("code.namespace");
+    public static final AttributeKey<String> CODE_FUNCTION = AttributeKey.stringKey("code.function");
+
+    public static final AttributeKey<String> DB_SYSTEM = AttributeKey.stringKey("db.system");
+    public static final AttributeKey<String> DB_OPERATION = AttributeKey.stringKey("db.operation.name");
+    public static final AttributeKey<String> DB_STATEMENT_ID = AttributeKey.stringKey("mybatis.statement");
+    public static final AttributeKey<Long> DB_ROWS = AttributeKey.longKey("db.rows");
+
+    private TraceAttributes() {
+    }
+}
@@ -0,0 +1,163 @@
+package com.kaiyu.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * 请求入口：创建SERVER span，并为 Spring Security 过滤器链单独创建一个子span。
+ * <p>
+ * 本过滤器排在 Spring Security 之前，{@link SecurityExit} 排在其后；请求穿过安全过滤器链到达 SecurityExit 时
+ * 结束安全span，之后的控制器、服务和SQL span都挂在SERVER span下。请求被安全过滤器拦截时安全span在这里结束
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+    private static final String SERVER_CONTEXT = TracingFilter.class.getName() + ".SERVER_CONTEXT";
+    private static final String SECURITY_SPAN = TracingFilter.class.getName() + ".SECURITY_SPAN";
+    private static final String ASYNC_SERVER_SPAN = TracingFilter.class.getName() + ".ASYNC_SERVER_SPAN";
+
+    private static final TextMapGetter<HttpServletRequest> HEADERS = new TextMapGetter<HttpServletRequest>() {
+        @Override
+        public Iterable<String> keys(HttpServletRequest request) {
+            return Collections.list(request.getHeaderNames());
+        }
+
+        @Override
+        public String get(HttpServletRequest request, String key) {
+            return request == null ? null : request.getHeader(key);
+        }
+    };
+
+    private final Tracer tracer;
+    private final TextMapPropagator propagator;
+
+    public TracingFilter(Tracer tracer, TextMapPropagator propagator) {
+        this.tracer = tracer;
+        this.propagator = propagator;
+    }
+
+    /**
+     * 异步接口的SERVER span在写回结果的异步分派结束时才结束
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            doFilterAsyncDispatch(request, response, chain);
+            return;
+        }
+        Context parent = propagator.extract(Context.root(), request, HEADERS);
+        Span server = tracer.spanBuilder(request.getMethod())
+                .setParent(parent)
+                .setSpanKind(SpanKind.SERVER)
+                .setAttribute(TraceAttributes.HTTP_METHOD, request.getMethod())
+                .setAttribute(TraceAttributes.URL_PATH, request.getRequestURI())
+                .startSpan();
+        if (!server.getSpanContext().isSampled()) {
+            try (Scope ignored = server.makeCurrent()) {
+                chain.doFilter(request, response);
+            } finally {
+                server.end();
+            }
+            return;
+        }
+        Context serverContext = parent.with(server);
+        Span security = tracer.spanBuilder("SecurityFilterChain").setParent(serverContext).startSpan();
+        request.setAttribute(SERVER_CONTEXT, serverContext);
+        request.setAttribute(SECURITY_SPAN, security);
+        try (Scope ignored = serverContext.with(security).makeCurrent()) {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            server.recordException(e);
+            server.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            if (request.getAttribute(SECURITY_SPAN) != null) {
+                security.setAttribute("security.rejected", true);
+                security.end();
+            }
+            if (request.isAsyncStarted()) {
+                request.setAttribute(ASYNC_SERVER_SPAN, server);
+            } else {
+                end(server, request, response);
+            }
+        }
+    }
+
+    private void doFilterAsyncDispatch(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Span server = (Span) request.getAttribute(ASYNC_SERVER_SPAN);
+        if (server == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        request.removeAttribute(ASYNC_SERVER_SPAN);
+        try (Scope ignored = server.makeCurrent()) {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            server.recordException(e);
+            server.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            end(server, request, response);
+        }
+    }
+
+    private static void end(Span server, HttpServletRequest request, HttpServletResponse response) {
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route != null) {
+            server.updateName(request.getMethod() + " " + route);
+            server.setAttribute(TraceAttributes.HTTP_ROUTE, route.toString());
+        }
+        server.setAttribute(TraceAttributes.HTTP_STATUS, (long) response.getStatus());
+        if (response.getStatus() >= 500) {
+            server.setStatus(StatusCode.ERROR);
+        }
+        server.end();
+    }
+
+    /**
+     * 排在 Spring Security 之后：结束安全span，后续处理回到SERVER span下
+     */
+    public static class SecurityExit extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            Span security = (Span) request.getAttribute(SECURITY_SPAN);
+            Context serverContext = (Context) request.getAttribute(SERVER_CONTEXT);
+            if (security == null || serverContext == null) {
+                chain.doFilter(request, response);
+                return;
+            }
+            request.removeAttribute(SECURITY_SPAN);
+            security.end();
+            // 经过安全过滤器链包装后的请求才能取到登录用户
+            if (request.getRemoteUser() != null) {
+                Span.fromContext(serverContext).setAttribute(TraceAttributes.USER, request.getRemoteUser());
+            }
+            try (Scope ignored = serverContext.makeCurrent()) {
+                chain.doFilter(request, response);
+            }
+        }
+    }
+}
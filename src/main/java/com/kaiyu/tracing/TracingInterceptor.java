@@ -0,0 +1,76 @@
+package com.kaiyu.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.List;
+
+/**
+ * 为每次Mapper调用创建一个CLIENT span，属性包含语句id和行数。
+ * 当前链路未被采样时不创建span
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class TracingInterceptor implements Interceptor {
+
+    private final Tracer tracer;
+
+    public TracingInterceptor(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!Span.current().getSpanContext().isSampled()) {
+            return invocation.proceed();
+        }
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        String id = ms.getId();
+        String operation = ms.getSqlCommandType().name();
+        Span span = tracer.spanBuilder(shortId(id))
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute(TraceAttributes.DB_SYSTEM, "mysql")
+                .setAttribute(TraceAttributes.DB_OPERATION, operation)
+                .setAttribute(TraceAttributes.DB_STATEMENT_ID, id)
+                .startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            Object result = invocation.proceed();
+            if (result instanceof List) {
+                span.setAttribute(TraceAttributes.DB_ROWS, ((List<?>) result).size());
+            } else if (result instanceof Integer) {
+                span.setAttribute(TraceAttributes.DB_ROWS, (Integer) result);
+            }
+            return result;
+        } catch (Throwable e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static String shortId(String id) {
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? id.substring(type + 1) : id;
+    }
+}
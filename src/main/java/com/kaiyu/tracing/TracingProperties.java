@@ -0,0 +1,27 @@
+package com.kaiyu.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 链路追踪配置
+ */
+@Data
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 在请求入口按traceId决定是否采样，同一链路的所有span一起保留或丢弃；
+     * 请求头带有上游的 traceparent 时沿用上游的采样决定
+     */
+    private double sampleRatio = 0.05;
+
+    /**
+     * file：每个span一行JSON写入 file；logging：输出到 LoggingSpanExporter 的日志
+     */
+    private String exporter = "file";
+
+    private String file = "logs/traces.jsonl";
+}
@@ -0,0 +1,49 @@
+package com.kaiyu.utils;
+
+import com.kaiyu.model.ChunkResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+@Slf4j
+public class ChunkUtils {
+
+    /**
+     * 返回给前端的批次错误信息，异常原文包含SQL和参数，只写入日志
+     */
+    public static final String CHUNK_ERROR = "该批次执行失败，请联系管理员！";
+
+    private ChunkUtils() {
+    }
+
+    /**
+     * 把id数组切成不超过chunkSize的批次依次执行，每批是一条独立提交的语句，
+     * 某一批失败不影响其余批次
+     */
+    public static List<ChunkResult> runInChunks(int[] ids, int chunkSize, ToIntFunction<int[]> action) {
+        List<ChunkResult> results = new ArrayList<>((ids.length + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < ids.length; from += chunkSize) {
+            int to = Math.min(from + chunkSize, ids.length);
+            ChunkResult result = new ChunkResult(from, to - from);
+            try {
+                result.setAffected(action.applyAsInt(Arrays.copyOfRange(ids, from, to)));
+            } catch (RuntimeException e) {
+                log.error("批次[{}, {})执行失败", from, to, e);
+                result.setError(CHUNK_ERROR);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    public static int totalAffected(List<ChunkResult> results) {
+        int total = 0;
+        for (ChunkResult result : results) {
+            total += result.getAffected();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,52 @@
+package com.kaiyu.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 从SQL中粗略解析读写的表名，只需覆盖本项目mapper中使用的写法
+ */
+public class SqlTables {
+
+    private static final String TABLE = "[a-z0-9_]+(?:\\s+(?:as\\s+)?[a-z0-9_]+)?";
+    private static final Pattern READ = Pattern.compile(
+            "\\b(?:from|join)\\s+(" + TABLE + "(?:\\s*,\\s*" + TABLE + ")*)");
+    private static final Pattern WRITE = Pattern.compile(
+            "^\\s*(?:insert\\s+(?:ignore\\s+)?into|replace\\s+into|update|delete\\s+from)\\s+([a-z0-9_]+)");
+
+    private SqlTables() {
+    }
+
+    /**
+     * 查询语句（包括子查询）涉及的所有表
+     */
+    public static Set<String> readTables(String sql) {
+        Set<String> tables = new LinkedHashSet<>();
+        Matcher matcher = READ.matcher(normalize(sql));
+        while (matcher.find()) {
+            for (String part : matcher.group(1).split(",")) {
+                tables.add(part.trim().split("\\s+")[0]);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 增删改语句写入的表
+     */
+    public static Set<String> writeTables(String sql) {
+        Matcher matcher = WRITE.matcher(normalize(sql));
+        if (matcher.find()) {
+            return Collections.singleton(matcher.group(1));
+        }
+        return Collections.emptySet();
+    }
+
+    private static String normalize(String sql) {
+        return sql.replace("`", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,39 @@
+package com.kaiyu.warmup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 启动预热配置
+ */
+@Data
+@ConfigurationProperties(prefix = "warm-up")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 预热总时长上限，超过后跳过剩余步骤直接就绪，避免数据库异常时实例一直不能接收流量
+     */
+    private Duration maxDuration = Duration.ofSeconds(30);
+
+    /**
+     * 生成验证码图片的次数，第一次需要加载字体
+     */
+    private int captchas = 3;
+
+    /**
+     * 权限判断和JSON序列化的重复次数
+     */
+    private int iterations = 200;
+
+    /**
+     * 用于预热权限判断的请求地址
+     */
+    private List<String> urls = new ArrayList<>(List.of(
+            "/api/student/list", "/api/dorm/list", "/api/building/list", "/api/user/list", "/api/menu"));
+}
@@ -0,0 +1,73 @@
+package com.kaiyu.perf;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.util.StringUtils;
+
+/**
+ * 内嵌 MariaDB，数据库程序随依赖一起下载，运行时不需要网络。
+ * 启动后建表、导入角色菜单账号，再生成宿舍楼、宿舍和学生；指定了数据目录且已有数据时直接复用
+ */
+@Slf4j
+public class EmbeddedMariaDb {
+
+    private static final String DATABASE = "dormadmin";
+
+    private final PerfProperties properties;
+    private final DataSourceProperties dataSourceProperties;
+    private DB db;
+
+    public EmbeddedMariaDb(PerfProperties properties, DataSourceProperties dataSourceProperties) {
+        this.properties = properties;
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    public void start() throws ManagedProcessException {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+        config.setPort(properties.getPort());
+        if (StringUtils.hasText(properties.getDataDir())) {
+            config.setDataDir(properties.getDataDir());
+            config.setDeletingTemporaryBaseAndDataDirsOnShutdown(false);
+        }
+        config.addArg("--character-set-server=utf8mb4");
+        config.addArg("--innodb-buffer-pool-size=256M");
+        db = DB.newEmbeddedDB(config.build());
+        db.start();
+        db.createDB(DATABASE);
+        log.info("内嵌MariaDB已启动，端口{}", properties.getPort());
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        if (!properties.isRegenerate() && hasData(jdbcTemplate)) {
+            log.info("数据目录{}中已有数据，跳过生成", properties.getDataDir());
+            return;
+        }
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+                new ClassPathResource("perf/schema.sql"), new ClassPathResource("perf/reference-data.sql"));
+        populator.setSqlScriptEncoding("UTF-8");
+        populator.execute(dataSource);
+        new PerfDataGenerator(jdbcTemplate, properties).generate();
+    }
+
+    public void stop() throws ManagedProcessException {
+        if (db != null) {
+            db.stop();
+            db = null;
+        }
+    }
+
+    private static boolean hasData(JdbcTemplate jdbcTemplate) {
+        Integer tables = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables "
+                + "WHERE table_schema = ? AND table_name = 'student'", Integer.class, DATABASE);
+        return tables != null && tables > 0
+                && jdbcTemplate.queryForObject("SELECT COUNT(*) FROM student", Integer.class) > 0;
+    }
+}
@@ -0,0 +1,165 @@
+package com.kaiyu.perf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 按学校的实际规模生成宿舍楼、宿舍和学生，同一个种子每次生成的数据完全相同。
+ * <p>
+ * 宿舍楼男女各半；宿舍按 楼号+层+房间号 命名，4/6/8人间；学号为 入学年份2位+学院2位+专业2位+班级1位+序号3位。
+ * 学生按性别住进对应宿舍楼，床位约九成七住满，其余学生未分配宿舍（走读、待分配），与线上库的分布接近
+ */
+@Slf4j
+public class PerfDataGenerator {
+
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * 常见姓氏，前面的出现得更多
+     */
+    private static final String[] SURNAMES = {"王", "李", "张", "刘", "陈", "杨", "黄", "赵", "吴", "周",
+            "徐", "孙", "马", "朱", "胡", "郭", "何", "林", "罗", "高", "郑", "梁", "谢", "宋", "唐",
+            "许", "韩", "冯", "邓", "曹", "彭", "曾", "肖", "田", "董", "潘", "袁", "蔡", "蒋", "余",
+            "于", "杜", "叶", "程", "魏", "苏", "吕", "丁", "任", "卢", "钟", "欧阳", "司马", "诸葛"};
+    private static final String MALE_CHARS = "伟强磊军勇杰涛斌超明刚平辉鹏华飞鑫波宇浩凯健俊帆帅旭宁龙林欢阳建国志文博子轩晨睿";
+    private static final String FEMALE_CHARS = "芳娜敏静丽艳娟霞燕玲婷雪琳颖洁倩茜慧莹晶欣怡佳悦思雨梦瑶璐岚妍萱诗涵彤蕾";
+    private static final String[] BUILDING_PREFIXES = {"清枫", "红棉", "黄槐", "绿杨", "书新", "碧波", "紫薇", "金桂",
+            "橙萱", "蓝楹", "书院", "海棠", "玉兰", "丁香", "银杏", "芙蓉", "翠竹", "松涛", "梧桐", "木棉", "紫荆",
+            "桃李", "杏林", "兰亭", "荷风"};
+    private static final String[] BUILDING_SUFFIXES = {"楼", "阁", "园", "居"};
+    private static final int[] ROOM_SIZES = {4, 4, 4, 4, 6, 6, 6, 8, 8, 8};
+    private static final int[] ENROLL_YEARS = {18, 19, 20, 21};
+    private static final int COLLEGES = 20;
+    private static final int MAJORS = 8;
+    private static final int CLASSES = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PerfProperties properties;
+
+    public PerfDataGenerator(JdbcTemplate jdbcTemplate, PerfProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    public void generate() {
+        long start = System.currentTimeMillis();
+        Random random = new Random(properties.getSeed());
+        List<Object[]> buildings = buildings();
+        List<Object[]> dorms = dorms(random, buildings);
+        List<Object[]> students = students(random, buildings, dorms);
+        insert("INSERT INTO building (id, name, building_type, remark) VALUES (?, ?, ?, ?)", buildings);
+        insert("INSERT INTO dorm (id, name, building_id, max_num, remark) VALUES (?, ?, ?, ?, ?)", dorms);
+        insert("INSERT INTO student (id, student_no, student_name, sex, dorm_id) VALUES (?, ?, ?, ?, ?)", students);
+        jdbcTemplate.execute("ANALYZE TABLE building, dorm, student");
+        log.info("性能测试数据生成完成：宿舍楼{}，宿舍{}，学生{}，耗时{}ms", buildings.size(), dorms.size(),
+                students.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * id, name, building_type, remark；前一半为男生宿舍楼，remark 为楼号
+     */
+    private List<Object[]> buildings() {
+        int count = properties.getBuildings();
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = BUILDING_PREFIXES[i % BUILDING_PREFIXES.length]
+                    + BUILDING_SUFFIXES[i / BUILDING_PREFIXES.length % BUILDING_SUFFIXES.length];
+            int type = i < (count + 1) / 2 ? 1 : 0;
+            rows.add(new Object[]{i + 1, name, type, buildingCode(i)});
+        }
+        return rows;
+    }
+
+    /**
+     * id, name, building_id, max_num, remark；每栋楼的宿舍按层排列，每层20间
+     */
+    private List<Object[]> dorms(Random random, List<Object[]> buildings) {
+        int count = properties.getDorms();
+        List<Object[]> rows = new ArrayList<>(count);
+        int perBuilding = (count + buildings.size() - 1) / buildings.size();
+        for (int i = 0; i < count; i++) {
+            int building = i / perBuilding;
+            int room = i % perBuilding;
+            String name = buildings.get(building)[3].toString() + (room / 20 + 1) + String.format("%02d", room % 20 + 1);
+            rows.add(new Object[]{i + 1, name, building + 1, ROOM_SIZES[random.nextInt(ROOM_SIZES.length)], null});
+        }
+        return rows;
+    }
+
+    /**
+     * id, student_no, student_name, sex, dorm_id；男女各半，按性别依次住进对应宿舍楼的床位
+     */
+    private List<Object[]> students(Random random, List<Object[]> buildings, List<Object[]> dorms) {
+        List<Integer> maleBeds = new ArrayList<>();
+        List<Integer> femaleBeds = new ArrayList<>();
+        for (Object[] dorm : dorms) {
+            int buildingType = (Integer) buildings.get((Integer) dorm[2] - 1)[2];
+            List<Integer> beds = buildingType == 1 ? maleBeds : femaleBeds;
+            int occupied = random.nextInt(100) < 97 ? (Integer) dorm[3] : random.nextInt((Integer) dorm[3]);
+            for (int b = 0; b < occupied; b++) {
+                beds.add((Integer) dorm[0]);
+            }
+        }
+        int count = properties.getStudents();
+        List<Object[]> rows = new ArrayList<>(count);
+        int[] sequence = new int[ENROLL_YEARS.length * COLLEGES * MAJORS * CLASSES];
+        int male = 0;
+        int female = 0;
+        for (int i = 0; i < count; i++) {
+            int sex = random.nextBoolean() ? 1 : 0;
+            Integer dormId = null;
+            if (sex == 1 && male < maleBeds.size()) {
+                dormId = maleBeds.get(male++);
+            } else if (sex == 0 && female < femaleBeds.size()) {
+                dormId = femaleBeds.get(female++);
+            }
+            rows.add(new Object[]{i + 1, studentNo(random, sequence), name(random, sex), sex, dormId});
+        }
+        return rows;
+    }
+
+    private void insert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+
+    /**
+     * 入学年份2位+学院2位+专业2位+班级1位+班内序号3位，同一班级内序号递增，每班约二三十人
+     */
+    private static String studentNo(Random random, int[] sequence) {
+        int year = random.nextInt(ENROLL_YEARS.length);
+        int college = random.nextInt(COLLEGES);
+        int major = random.nextInt(MAJORS);
+        int clazz = random.nextInt(CLASSES);
+        int no = ++sequence[((year * COLLEGES + college) * MAJORS + major) * CLASSES + clazz];
+        return String.format("%02d%02d%02d%d%03d", ENROLL_YEARS[year], college + 1, major + 1, clazz + 1, no);
+    }
+
+    /**
+     * 姓氏按常见程度取，名为一到两个字，单名约三成
+     */
+    private static String name(Random random, int sex) {
+        double r = random.nextDouble();
+        String surname = SURNAMES[(int) (r * r * SURNAMES.length)];
+        String chars = sex == 1 ? MALE_CHARS : FEMALE_CHARS;
+        StringBuilder name = new StringBuilder(surname);
+        name.append(chars.charAt(random.nextInt(chars.length())));
+        if (random.nextInt(10) >= 3) {
+            name.append(chars.charAt(random.nextInt(chars.length())));
+        }
+        return name.toString();
+    }
+
+    /**
+     * A..Z，超过26栋后为 AA、AB...
+     */
+    private static String buildingCode(int index) {
+        char first = (char) ('A' + index % 26);
+        return index < 26 ? String.valueOf(first) : (char) ('A' + index / 26 - 1) + String.valueOf(first);
+    }
+}
@@ -0,0 +1,42 @@
+package com.kaiyu.perf;
+
+import org.springframework.boot.autoconfigure.AbstractDependsOnBeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+
+/**
+ * perf 配置：连接内嵌 MariaDB 和生成的数据，不依赖外部 MySQL 和 Redis。
+ * 启动方式：mvn -Pperf spring-boot:run -Dspring-boot.run.profiles=perf
+ */
+@Configuration
+@Profile("perf")
+@EnableConfigurationProperties(PerfProperties.class)
+public class PerfDatabaseConfig {
+
+    private static final String EMBEDDED_DATABASE = "embeddedMariaDb";
+
+    @Bean(name = EMBEDDED_DATABASE, initMethod = "start", destroyMethod = "stop")
+    public EmbeddedMariaDb embeddedMariaDb(PerfProperties properties, DataSourceProperties dataSourceProperties) {
+        return new EmbeddedMariaDb(properties, dataSourceProperties);
+    }
+
+    /**
+     * 所有数据源在数据库启动、数据生成之后才创建
+     */
+    @Bean
+    public static DataSourceDependsOnEmbeddedDatabase dataSourceDependsOnEmbeddedDatabase() {
+        return new DataSourceDependsOnEmbeddedDatabase();
+    }
+
+    static class DataSourceDependsOnEmbeddedDatabase extends AbstractDependsOnBeanFactoryPostProcessor {
+
+        DataSourceDependsOnEmbeddedDatabase() {
+            super(DataSource.class, EMBEDDED_DATABASE);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.kaiyu.perf;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 性能测试库配置，前缀 perf
+ */
+@Data
+@ConfigurationProperties(prefix = "perf")
+public class PerfProperties {
+
+    /**
+     * 内嵌数据库端口，与 spring.datasource.url 中的端口一致
+     */
+    private int port = 3310;
+
+    /**
+     * 数据目录，为空时每次启动使用新的临时目录
+     */
+    private String dataDir;
+
+    /**
+     * 数据目录中已有数据时是否重新生成
+     */
+    private boolean regenerate = false;
+
+    /**
+     * 随机种子，相同的种子和规模生成完全相同的数据
+     */
+    private long seed = 20210628L;
+
+    private int buildings = 50;
+
+    private int dorms = 5000;
+
+    private int students = 60000;
+}
@@ -0,0 +1,34 @@
+-- 角色、菜单和账号，与 dormadmin.sql 相同；宿舍楼、宿舍和学生由 PerfDataGenerator 生成
+SET FOREIGN_KEY_CHECKS = 0;
+
+INSERT INTO `role` VALUES (1, 'ROLE_admin', '超级管理员');
+INSERT INTO `role` VALUES (2, 'ROLE_manager', '管理员');
+
+INSERT INTO `menu` VALUES (1, '/', NULL, NULL, '所有', NULL, NULL, NULL, NULL, 1);
+INSERT INTO `menu` VALUES (2, '/', '/home', 'Home', '学生管理', 'fa fa-graduation-cap', NULL, 1, 1, 1);
+INSERT INTO `menu` VALUES (3, '/', '/home', 'Home', '楼层管理', 'fa fa-building', NULL, 1, 1, 1);
+INSERT INTO `menu` VALUES (4, '/', '/home', 'Home', '宿舍管理', 'fa fa-hotel', NULL, 1, 1, 1);
+INSERT INTO `menu` VALUES (5, '/', '/home', 'Home', '用户管理', 'fa fa-users', NULL, 1, 1, 1);
+INSERT INTO `menu` VALUES (6, '/', '/home', 'Home', '系统管理', 'fa fa-wrench', NULL, 1, 1, 1);
+INSERT INTO `menu` VALUES (7, '/api/student/**', '/student/profile', 'StudentProfile', '学生资料', NULL, NULL, 1, 2, 1);
+INSERT INTO `menu` VALUES (8, '/api/building/**', '/building/info', 'BuildingInfo', '楼层信息', NULL, NULL, 1, 3, 1);
+INSERT INTO `menu` VALUES (9, '/api/dorm/**', '/dorm/details', 'DormDetails', '宿舍详情', NULL, NULL, 1, 4, 1);
+INSERT INTO `menu` VALUES (10, '/api/user/**', '/user/info', 'UserInfo', '用户信息', NULL, NULL, 1, 5, 1);
+INSERT INTO `menu` VALUES (11, '/api/system/**', '/system/profile', 'SystemProfile', '系统资料', NULL, NULL, 1, 6, 1);
+
+INSERT INTO `menu_role` VALUES (283, 7, 1);
+INSERT INTO `menu_role` VALUES (284, 8, 1);
+INSERT INTO `menu_role` VALUES (285, 9, 1);
+INSERT INTO `menu_role` VALUES (286, 10, 1);
+INSERT INTO `menu_role` VALUES (287, 11, 1);
+INSERT INTO `menu_role` VALUES (288, 7, 2);
+INSERT INTO `menu_role` VALUES (289, 8, 2);
+INSERT INTO `menu_role` VALUES (290, 9, 2);
+
+INSERT INTO `user` VALUES (13, '超级管理员', '13511112222', 1, 'admin', '$2a$10$lQkDrNOYHqcelxfjxkD0MukyLeC54IPnomtvwN1EnJL1ts/xlA/8O', '超级管理员');
+INSERT INTO `user` VALUES (14, '管理员', '13522221111', 1, 'mxxxl', '$2a$10$H8U41CIf4IV.YqzcGXLPFO/jj9FEUlHiAHcoy3EGy.EHkjZZpPbu2', '管理员');
+
+INSERT INTO `user_role` VALUES (75, 13, 1);
+INSERT INTO `user_role` VALUES (76, 14, 2);
+
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,148 @@
+-- 性能测试库的表结构，与 dormadmin.sql 相同，去掉了 MariaDB 不支持的 MySQL 8 排序规则
+SET FOREIGN_KEY_CHECKS = 0;
+
+DROP TABLE IF EXISTS `building`;
+CREATE TABLE `building`  (
+  `id` int NOT NULL AUTO_INCREMENT COMMENT '主键',
+  `name` varchar(20) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL COMMENT '名字',
+  `building_type` tinyint unsigned NOT NULL COMMENT '宿舍楼类型：1男生宿舍楼 ，0女生宿舍楼',
+  `remark` varchar(50) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL COMMENT '备注',
+  PRIMARY KEY (`id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci ROW_FORMAT = Dynamic;
+
+DROP TABLE IF EXISTS `dorm`;
+CREATE TABLE `dorm`  (
+  `id` int NOT NULL AUTO_INCREMENT COMMENT '主键',
+  `name` varchar(20) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL COMMENT '宿舍名',
+  `building_id` int NULL DEFAULT NULL COMMENT '宿舍楼id',
+  `max_num` int NULL DEFAULT 4 COMMENT '最大人数',
+  `remark` varchar(50) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL COMMENT '备注',
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `dorm_ibfk_1`(`building_id`) USING BTREE,
+  CONSTRAINT `dorm_ibfk_1` FOREIGN KEY (`building_id`) REFERENCES `building` (`id`) ON DELETE RESTRICT ON UPDATE RESTRICT
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci ROW_FORMAT = Dynamic;
+
+DROP TABLE IF EXISTS `dorm_checkout`;
+CREATE TABLE `dorm_checkout`  (
+  `id` int NOT NULL AUTO_INCREMENT,
+  `student_id` int NOT NULL COMMENT '学生id',
+  `student_no` varchar(10) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL COMMENT '学号',
+  `dorm_id` int NOT NULL COMMENT '退宿前的宿舍id',
+  `checkout_time` datetime(0) NOT NULL COMMENT '退宿时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `dorm_checkout_student_id`(`student_id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
+
+DROP TABLE IF EXISTS `menu`;
+CREATE TABLE `menu`  (
+  `id` int NOT NULL AUTO_INCREMENT,
+  `url` varchar(64) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL,
+  `path` varchar(64) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL,
+  `component` varchar(64) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL,
+  `name` varchar(64) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL,
+  `iconCls` varchar(64) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL,
+  `keepAlive` tinyint(1) NULL DEFAULT NULL,
+  `requireAuth` tinyint(1) NULL DEFAULT NULL,
+  `parentId` int NULL DEFAULT NULL,
+  `enabled` tinyint(1) NULL DEFAULT 1,
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `parentId`(`parentId`) USING BTREE,
+  CONSTRAINT `menu_ibfk_1` FOREIGN KEY (`parentId`) REFERENCES `menu` (`id`) ON DELETE RESTRICT ON UPDATE RESTRICT
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
+
+DROP TABLE IF EXISTS `menu_role`;
+CREATE TABLE `menu_role`  (
+  `id` int NOT NULL AUTO_INCREMENT,
+  `mid` int NULL DEFAULT NULL,
+  `rid` int NULL DEFAULT NULL,
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `mid`(`mid`) USING BTREE,
+  INDEX `rid`(`rid`) USING BTREE,
+  CONSTRAINT `menu_role_ibfk_1` FOREIGN KEY (`mid`) REFERENCES `menu` (`id`) ON DELETE RESTRICT ON UPDATE RESTRICT,
+  CONSTRAINT `menu_role_ibfk_2` FOREIGN KEY (`rid`) REFERENCES `role` (`id`) ON DELETE RESTRICT ON UPDATE RESTRICT
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
+
+DROP TABLE IF EXISTS `role`;
+CREATE TABLE `role`  (
+  `id` int NOT NULL AUTO_INCREMENT,
+  `name` varchar(64) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL,
+  `nameZh` varchar(64) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL COMMENT '角色名称',
+  PRIMARY KEY (`id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
+
+DROP TABLE IF EXISTS `student`;
+CREATE TABLE `student`  (
+  `id` int NOT NULL AUTO_INCREMENT,
+  `student_no` varchar(10) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL,
+  `student_name` varchar(10) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL,
+  `sex` tinyint(1) NOT NULL DEFAULT 1,
+  `dorm_id` int NULL DEFAULT NULL,
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `student_dorm_id`(`dorm_id`) USING BTREE,
+  INDEX `student_no`(`student_no`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
+
+DROP TABLE IF EXISTS `student_archive`;
+CREATE TABLE `student_archive`  (
+  `id` int NOT NULL COMMENT '归档前的学生id',
+  `student_no` varchar(10) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL,
+  `student_name` varchar(10) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL,
+  `sex` tinyint(1) NOT NULL DEFAULT 1,
+  `archive_time` datetime(0) NOT NULL COMMENT '归档时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `student_archive_no`(`student_no`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
+
+DROP TABLE IF EXISTS `table_version`;
+CREATE TABLE `table_version`  (
+  `table_name` varchar(64) CHARACTER SET utf8 COLLATE utf8_general_ci NOT NULL COMMENT '表名',
+  `version` bigint NOT NULL DEFAULT 0 COMMENT '版本号，表中有增删改时由触发器加一',
+  PRIMARY KEY (`table_name`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
+INSERT INTO `table_version` VALUES ('building', 0);
+INSERT INTO `table_version` VALUES ('dorm', 0);
+INSERT INTO `table_version` VALUES ('menu', 0);
+INSERT INTO `table_version` VALUES ('menu_role', 0);
+INSERT INTO `table_version` VALUES ('role', 0);
+
+DROP TABLE IF EXISTS `user`;
+CREATE TABLE `user`  (
+  `id` int NOT NULL AUTO_INCREMENT COMMENT '用户ID',
+  `name` varchar(32) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL COMMENT '姓名',
+  `phone` char(11) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL COMMENT '手机号码',
+  `enabled` tinyint NULL DEFAULT 1,
+  `username` varchar(255) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL COMMENT '用户名',
+  `password` varchar(255) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL COMMENT '密码',
+  `remark` varchar(255) CHARACTER SET utf8 COLLATE utf8_general_ci NULL DEFAULT NULL,
+  PRIMARY KEY (`id`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
+
+DROP TABLE IF EXISTS `user_role`;
+CREATE TABLE `user_role`  (
+  `id` int NOT NULL AUTO_INCREMENT,
+  `uid` int NULL DEFAULT NULL,
+  `rid` int NULL DEFAULT NULL,
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `rid`(`rid`) USING BTREE,
+  INDEX `user_role_ibfk_1`(`uid`) USING BTREE,
+  CONSTRAINT `user_role_ibfk_1` FOREIGN KEY (`uid`) REFERENCES `user` (`id`) ON DELETE CASCADE ON UPDATE RESTRICT,
+  CONSTRAINT `user_role_ibfk_2` FOREIGN KEY (`rid`) REFERENCES `role` (`id`) ON DELETE RESTRICT ON UPDATE RESTRICT
+) ENGINE = InnoDB CHARACTER SET = utf8 COLLATE = utf8_general_ci ROW_FORMAT = Dynamic;
+
+CREATE TRIGGER `building_version_insert` AFTER INSERT ON `building` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'building';
+CREATE TRIGGER `building_version_update` AFTER UPDATE ON `building` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'building';
+CREATE TRIGGER `building_version_delete` AFTER DELETE ON `building` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'building';
+CREATE TRIGGER `dorm_version_insert` AFTER INSERT ON `dorm` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'dorm';
+CREATE TRIGGER `dorm_version_update` AFTER UPDATE ON `dorm` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'dorm';
+CREATE TRIGGER `dorm_version_delete` AFTER DELETE ON `dorm` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'dorm';
+CREATE TRIGGER `menu_version_insert` AFTER INSERT ON `menu` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'menu';
+CREATE TRIGGER `menu_version_update` AFTER UPDATE ON `menu` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'menu';
+CREATE TRIGGER `menu_version_delete` AFTER DELETE ON `menu` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'menu';
+CREATE TRIGGER `menu_role_version_insert` AFTER INSERT ON `menu_role` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'menu_role';
+CREATE TRIGGER `menu_role_version_update` AFTER UPDATE ON `menu_role` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'menu_role';
+CREATE TRIGGER `menu_role_version_delete` AFTER DELETE ON `menu_role` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'menu_role';
+CREATE TRIGGER `role_version_insert` AFTER INSERT ON `role` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'role';
+CREATE TRIGGER `role_version_update` AFTER UPDATE ON `role` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'role';
+CREATE TRIGGER `role_version_delete` AFTER DELETE ON `role` FOR EACH ROW UPDATE `table_version` SET `version` = `version` + 1 WHERE `table_name` = 'role';
+
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,204 @@
+package com.kaiyu.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 压测：在内嵌数据库和生成的数据上启动应用，多个虚拟用户按 {@link Operation} 的比例发请求，
+ * 用 HdrHistogram 记录各类请求的延迟，与基线比较 p99 和吞吐。
+ * <p>
+ * 默认不运行，执行方式：mvn -Pperf test -Dtest=DormAdminLoadTest -Dload=true，
+ * 可选 -Dload.concurrency、-Dload.warmup、-Dload.duration（秒）。
+ * 基线文件不存在或指定 -Dload.update-baseline=true 时把本次结果写为基线；基线与机器相关，换机器后需要重新生成。
+ * 平台线程和虚拟线程（{@link VirtualThreadLoadTest}）分别保存结果和基线
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "test.mode=true")
+@ActiveProfiles("perf")
+@EnabledIfSystemProperty(named = "load", matches = "true")
+class DormAdminLoadTest {
+
+    private static final String[] SEARCH_NAMES = {"王", "李", "张", "刘", "陈", "伟", "芳", "欧阳", "诸葛", "明"};
+
+    /**
+     * 允许 p99 比基线高出的比例、吞吐比基线低的比例
+     */
+    private static final double P99_TOLERANCE = Double.parseDouble(System.getProperty("load.p99-tolerance", "0.2"));
+    private static final double THROUGHPUT_TOLERANCE = Double.parseDouble(
+            System.getProperty("load.throughput-tolerance", "0.15"));
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    private final HttpClient httpClient = LoadClient.newHttpClient();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * 测试用例：混合负载下各类请求的 p99 和总吞吐不比基线差
+     */
+    @Test
+    void mixedWorkload_WithinBaseline() throws Exception {
+        // Arrange
+        int concurrency = Integer.getInteger("load.concurrency", 16);
+        long warmupMillis = TimeUnit.SECONDS.toMillis(Long.getLong("load.warmup", 15L));
+        long durationMillis = TimeUnit.SECONDS.toMillis(Long.getLong("load.duration", 60L));
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(3));
+        }
+        List<Integer> dormIds = dormIds();
+
+        // Act
+        ExecutorService users = Executors.newFixedThreadPool(concurrency);
+        long start = System.currentTimeMillis();
+        long measureFrom = start + warmupMillis;
+        long end = measureFrom + durationMillis;
+        List<Future<?>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            long seed = i;
+            futures.add(users.submit(() -> {
+                runUser(new Random(seed), dormIds, end);
+                return null;
+            }));
+        }
+        Thread.sleep(Math.max(0, measureFrom - System.currentTimeMillis()));
+        recorders.values().forEach(Recorder::getIntervalHistogram);
+        errors.set(0);
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        users.shutdown();
+        LoadReport report = report(concurrency, System.currentTimeMillis() - measureFrom);
+
+        // Assert
+        String mode = virtualThreads ? "virtual" : "platform";
+        report.setMode(mode);
+        log.info("压测结果：\n{}", report.format());
+        Path result = Paths.get("target/load-test/result-" + mode + ".json");
+        Files.createDirectories(result.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(result.toFile(), report);
+        assertEquals(0, report.getErrors(), "压测期间有请求失败");
+        Path baseline = Paths.get("src/perf/test/resources/load-baseline-" + mode + ".json");
+        if (Boolean.getBoolean("load.update-baseline") || !Files.exists(baseline)) {
+            Files.createDirectories(baseline.getParent());
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(baseline.toFile(), report);
+            log.warn("已把本次结果写为基线：{}", baseline.toAbsolutePath());
+            return;
+        }
+        assertWithinBaseline(report, objectMapper.readValue(baseline.toFile(), LoadReport.class));
+    }
+
+    private void runUser(Random random, List<Integer> dormIds, long end) throws IOException, InterruptedException {
+        LoadClient client = client();
+        client.login("admin", "123456");
+        while (System.currentTimeMillis() < end) {
+            Operation operation = Operation.pick(random.nextDouble());
+            long begin = System.nanoTime();
+            try {
+                JsonNode result = execute(client, operation, random, dormIds);
+                if (result.has("status") && result.path("status").asInt() != 200) {
+                    throw new IOException(operation + " 失败：" + result.path("msg").asText());
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+                log.warn("{}", e.getMessage());
+                continue;
+            }
+            recorders.get(operation).recordValue(Math.max(1, (System.nanoTime() - begin) / 1000));
+        }
+    }
+
+    private JsonNode execute(LoadClient client, Operation operation, Random random, List<Integer> dormIds)
+            throws IOException, InterruptedException {
+        switch (operation) {
+            case LOGIN:
+                client.login("admin", "123456");
+                return objectMapper.createObjectNode();
+            case MENU:
+                return client.get("/api/menu", Map.of());
+            case STUDENT_SEARCH:
+                return client.get("/api/student/list", Map.of("page", 1 + random.nextInt(20), "size", 10,
+                        "name", SEARCH_NAMES[random.nextInt(SEARCH_NAMES.length)]));
+            case DORM_EDIT:
+                return client.postJson("/api/dorm/add", Map.of("id", dormIds.get(random.nextInt(dormIds.size())),
+                        "remark", "压测" + random.nextInt(1000)));
+            default:
+                throw new IllegalArgumentException(operation.name());
+        }
+    }
+
+    private List<Integer> dormIds() throws IOException, InterruptedException {
+        LoadClient client = client();
+        client.login("admin", "123456");
+        JsonNode page = client.get("/api/dorm/list", Map.of("page", 1, "size", 500));
+        List<Integer> ids = new ArrayList<>();
+        page.path("data").forEach(dorm -> ids.add(dorm.path("id").asInt()));
+        assertFalse(ids.isEmpty(), "perf 数据中没有宿舍");
+        return ids;
+    }
+
+    private LoadReport report(int concurrency, long durationMillis) {
+        LoadReport report = new LoadReport();
+        report.setConcurrency(concurrency);
+        report.setDurationMillis(durationMillis);
+        long total = 0;
+        for (Map.Entry<Operation, Recorder> entry : recorders.entrySet()) {
+            Histogram histogram = entry.getValue().getIntervalHistogram();
+            report.add(entry.getKey(), histogram);
+            total += histogram.getTotalCount();
+        }
+        report.setThroughput(total * 1000.0 / durationMillis);
+        report.setErrors(errors.get());
+        return report;
+    }
+
+    private static void assertWithinBaseline(LoadReport report, LoadReport baseline) {
+        List<String> regressions = new ArrayList<>();
+        if (report.getThroughput() < baseline.getThroughput() * (1 - THROUGHPUT_TOLERANCE)) {
+            regressions.add(String.format("吞吐 %.1f < 基线 %.1f", report.getThroughput(), baseline.getThroughput()));
+        }
+        baseline.getOperations().forEach((name, expected) -> {
+            LoadReport.Latency actual = report.getOperations().get(name);
+            if (actual != null && actual.getP99() > expected.getP99() * (1 + P99_TOLERANCE)) {
+                regressions.add(String.format("%s p99 %.2fms > 基线 %.2fms", name, actual.getP99(), expected.getP99()));
+            }
+        });
+        assertTrue(regressions.isEmpty(), "性能退化：" + regressions);
+    }
+
+    private LoadClient client() {
+        return new LoadClient(httpClient, "http://localhost:" + port, objectMapper);
+    }
+}
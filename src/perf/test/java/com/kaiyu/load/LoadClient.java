@@ -0,0 +1,94 @@
+package com.kaiyu.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 一个虚拟用户：自己保存会话Cookie，登录后复用同一个会话。所有虚拟用户共用一个 HttpClient，
+ * 上千个虚拟用户时不会各自创建连接池和选择器线程
+ */
+class LoadClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private String sessionCookie;
+
+    LoadClient(HttpClient httpClient, String baseUrl, ObjectMapper objectMapper) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+    }
+
+    static HttpClient newHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TIMEOUT)
+                .build();
+    }
+
+    /**
+     * 先取验证码建立会话，测试模式下验证码固定为1234
+     */
+    void login(String username, String password) throws IOException, InterruptedException {
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/verifyCode")).GET(), HttpResponse.BodyHandlers.discarding());
+        JsonNode result = postJson("/api/doLogin", Map.of("username", username, "password", password, "code", "1234"));
+        if (result.path("status").asInt() != 200) {
+            throw new IOException("登录失败：" + result.path("msg").asText());
+        }
+    }
+
+    JsonNode get(String path, Map<String, Object> params) throws IOException, InterruptedException {
+        StringBuilder uri = new StringBuilder(baseUrl).append(path);
+        char separator = '?';
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            uri.append(separator).append(param.getKey()).append('=')
+                    .append(URLEncoder.encode(String.valueOf(param.getValue()), StandardCharsets.UTF_8));
+            separator = '&';
+        }
+        return readJson(send(HttpRequest.newBuilder(URI.create(uri.toString())).GET(),
+                HttpResponse.BodyHandlers.ofByteArray()));
+    }
+
+    JsonNode postJson(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        return readJson(send(request, HttpResponse.BodyHandlers.ofByteArray()));
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest.Builder request, HttpResponse.BodyHandler<T> handler)
+            throws IOException, InterruptedException {
+        if (sessionCookie != null) {
+            request.header("Cookie", sessionCookie);
+        }
+        HttpResponse<T> response = httpClient.send(request.timeout(TIMEOUT).build(), handler);
+        // 登录后 Spring Security 会更换会话id
+        for (String cookie : response.headers().allValues("Set-Cookie")) {
+            if (cookie.startsWith("JSESSIONID=")) {
+                int end = cookie.indexOf(';');
+                sessionCookie = end < 0 ? cookie : cookie.substring(0, end);
+            }
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException(response.request().uri().getPath() + " 返回 " + response.statusCode());
+        }
+        return response;
+    }
+
+    private JsonNode readJson(HttpResponse<byte[]> response) throws IOException {
+        return objectMapper.readTree(response.body());
+    }
+}
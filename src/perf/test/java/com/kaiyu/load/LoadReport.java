@@ -0,0 +1,49 @@
+package com.kaiyu.load;
+
+import lombok.Data;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次压测的结果，也用作基线文件的格式。延迟单位为毫秒
+ */
+@Data
+class LoadReport {
+
+    private String mode;
+    private int concurrency;
+    private long durationMillis;
+    private double throughput;
+    private long errors;
+    private Map<String, Latency> operations = new LinkedHashMap<>();
+
+    void add(Operation operation, Histogram histogram) {
+        Latency latency = new Latency();
+        latency.setCount(histogram.getTotalCount());
+        latency.setP50(histogram.getValueAtPercentile(50) / 1000.0);
+        latency.setP95(histogram.getValueAtPercentile(95) / 1000.0);
+        latency.setP99(histogram.getValueAtPercentile(99) / 1000.0);
+        latency.setMax(histogram.getMaxValue() / 1000.0);
+        operations.put(operation.name(), latency);
+    }
+
+    String format() {
+        StringBuilder text = new StringBuilder(String.format("%s，并发 %d，时长 %ds，吞吐 %.1f req/s，错误 %d%n",
+                mode, concurrency, durationMillis / 1000, throughput, errors));
+        text.append(String.format("%-16s %8s %10s %10s %10s %10s%n", "operation", "count", "p50", "p95", "p99", "max"));
+        operations.forEach((name, latency) -> text.append(String.format("%-16s %8d %10.2f %10.2f %10.2f %10.2f%n",
+                name, latency.getCount(), latency.getP50(), latency.getP95(), latency.getP99(), latency.getMax())));
+        return text.toString();
+    }
+
+    @Data
+    static class Latency {
+        private long count;
+        private double p50;
+        private double p95;
+        private double p99;
+        private double max;
+    }
+}
@@ -0,0 +1,42 @@
+package com.kaiyu.load;
+
+/**
+ * 压测的请求组合，权重参照线上访问日志：以学生查询为主，其次是菜单和宿舍修改，登录最少
+ */
+enum Operation {
+
+    LOGIN(5),
+    MENU(25),
+    STUDENT_SEARCH(50),
+    DORM_EDIT(20);
+
+    private static final int TOTAL_WEIGHT;
+
+    static {
+        int total = 0;
+        for (Operation operation : values()) {
+            total += operation.weight;
+        }
+        TOTAL_WEIGHT = total;
+    }
+
+    private final int weight;
+
+    Operation(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * @param roll [0, 1) 之间的随机数
+     */
+    static Operation pick(double roll) {
+        int target = (int) (roll * TOTAL_WEIGHT);
+        for (Operation operation : values()) {
+            target -= operation.weight;
+            if (target < 0) {
+                return operation;
+            }
+        }
+        return STUDENT_SEARCH;
+    }
+}
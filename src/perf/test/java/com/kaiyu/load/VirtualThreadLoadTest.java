@@ -0,0 +1,18 @@
+package com.kaiyu.load;
+
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * 同样的负载在虚拟线程模式下运行，与平台线程的结果对比，只在 Java 21 及以上运行。
+ * 1000 个并发客户端对比：mvn -Pperf test -Dtest='*LoadTest' -Dload=true -Dload.concurrency=1000
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"test.mode=true", "virtual-threads.enabled=true"})
+@ActiveProfiles("perf")
+@EnabledIfSystemProperty(named = "load", matches = "true")
+@EnabledIf("com.kaiyu.concurrent.VirtualThreads#isSupported")
+class VirtualThreadLoadTest extends DormAdminLoadTest {
+}
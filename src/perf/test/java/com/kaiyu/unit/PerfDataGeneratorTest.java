@@ -0,0 +1,103 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.perf.PerfDataGenerator;
+import com.kaiyu.perf.PerfProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 性能测试数据生成测试类
+ */
+class PerfDataGeneratorTest {
+
+    private PerfProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PerfProperties();
+        properties.setBuildings(4);
+        properties.setDorms(200);
+        properties.setStudents(1500);
+    }
+
+    /**
+     * 测试用例：相同种子生成的数据完全相同
+     */
+    @Test
+    void generate_Deterministic() {
+        Map<String, List<Object[]>> first = generate();
+        Map<String, List<Object[]>> second = generate();
+
+        for (String table : first.keySet()) {
+            List<Object[]> a = first.get(table);
+            List<Object[]> b = second.get(table);
+            assertEquals(a.size(), b.size());
+            for (int i = 0; i < a.size(); i++) {
+                assertArrayEquals(a.get(i), b.get(i));
+            }
+        }
+    }
+
+    /**
+     * 测试用例：规模、学号格式和唯一性、住宿人数和性别符合约束
+     */
+    @Test
+    void generate_RealisticCampus() {
+        // Act
+        Map<String, List<Object[]>> rows = generate();
+
+        // Assert
+        List<Object[]> buildings = rows.get("building");
+        List<Object[]> dorms = rows.get("dorm");
+        List<Object[]> students = rows.get("student");
+        assertEquals(4, buildings.size());
+        assertEquals(200, dorms.size());
+        assertEquals(1500, students.size());
+
+        Set<Object> studentNos = new HashSet<>();
+        Map<Integer, Integer> occupancy = new HashMap<>();
+        for (Object[] student : students) {
+            String studentNo = (String) student[1];
+            assertTrue(studentNo.matches("(18|19|20|21)\\d{8}"), studentNo);
+            assertTrue(studentNos.add(studentNo), "学号重复：" + studentNo);
+            assertTrue(((String) student[2]).length() <= 10);
+            Integer dormId = (Integer) student[4];
+            if (dormId != null) {
+                Object[] dorm = dorms.get(dormId - 1);
+                Object[] building = buildings.get((Integer) dorm[2] - 1);
+                assertEquals(building[2], student[3], "学生性别与宿舍楼类型不符");
+                occupancy.merge(dormId, 1, Integer::sum);
+            }
+        }
+        for (Map.Entry<Integer, Integer> entry : occupancy.entrySet()) {
+            assertTrue(entry.getValue() <= (Integer) dorms.get(entry.getKey() - 1)[3]);
+        }
+        assertTrue(occupancy.size() > dorms.size() * 9 / 10);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, List<Object[]>> generate() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        Map<String, List<Object[]>> rows = new HashMap<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            String table = invocation.<String>getArgument(0).split(" ")[2];
+            rows.computeIfAbsent(table, k -> new ArrayList<>()).addAll((List<Object[]>) invocation.getArgument(1));
+            return new int[0];
+        });
+        new PerfDataGenerator(jdbcTemplate, properties).generate();
+        return rows;
+    }
+}
@@ -0,0 +1,103 @@
+package com.kaiyu.integration;
+
+import com.kaiyu.metrics.QueryCountFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 每个接口的SQL语句数上限，防止出现 N+1 查询。
+ * 先请求一次预热缓存，第二次请求的语句数不能超过预算
+ */
+@SpringBootTest(properties = {"test.mode=true", "query-count.debug-header=true"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private MockHttpSession session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        session = new MockHttpSession();
+        mockMvc.perform(login()).andExpect(status().isOk());
+    }
+
+    /**
+     * 集成测试：登录加载用户和角色，不超过2条
+     */
+    @Test
+    void login_WithinBudget() throws Exception {
+        assertQueryBudget("POST /api/doLogin", login(), 2);
+    }
+
+    /**
+     * 集成测试：学生分页查询为 count 加一页数据，不超过2条
+     */
+    @Test
+    void studentList_WithinBudget() throws Exception {
+        assertQueryBudget("GET /api/student/list",
+                get("/api/student/list").param("page", "1").param("size", "10").param("name", "王"), 2);
+    }
+
+    /**
+     * 集成测试：宿舍分页查询不超过2条
+     */
+    @Test
+    void dormList_WithinBudget() throws Exception {
+        assertQueryBudget("GET /api/dorm/list", get("/api/dorm/list").param("page", "1").param("size", "10"), 2);
+    }
+
+    /**
+     * 集成测试：用户菜单查询不超过1条，权限判断用的菜单角色来自缓存
+     */
+    @Test
+    void menu_WithinBudget() throws Exception {
+        assertQueryBudget("GET /api/menu", get("/api/menu"), 1);
+    }
+
+    private MockHttpServletRequestBuilder login() {
+        return post("/api/doLogin").session(session)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"admin\",\"password\":\"123456\",\"code\":\"1234\"}");
+    }
+
+    private void assertQueryBudget(String endpoint, MockHttpServletRequestBuilder request, int budget) throws Exception {
+        RequestBuilder debug = request.session(session).header(QueryCountFilter.DEBUG_REQUEST_HEADER, "true");
+        perform(debug);
+        MvcResult result = perform(debug);
+        String count = result.getResponse().getHeader(QueryCountFilter.QUERY_COUNT_HEADER);
+        assertNotNull(count, "响应中没有 " + QueryCountFilter.QUERY_COUNT_HEADER);
+        assertTrue(Integer.parseInt(count) <= budget,
+                endpoint + " 执行了" + count + "条SQL，预算" + budget + "条");
+    }
+
+    /**
+     * 列表接口在线程池中异步执行，等结果写回后再检查响应头
+     */
+    private MvcResult perform(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertEquals(200, result.getResponse().getStatus());
+        return result;
+    }
+}
@@ -1,19 +1,35 @@
 package com.kaiyu.unit;
 
+import com.github.pagehelper.PageHelper;
 import com.kaiyu.dao.BuildingDao;
+import com.kaiyu.dao.DormCheckoutDao;
+import com.kaiyu.dao.DormDao;
+import com.kaiyu.dao.StudentDao;
 import com.kaiyu.entity.Building;
+import com.kaiyu.model.ChunkResult;
+import com.kaiyu.model.JobProgress;
 import com.kaiyu.model.ResponsePage;
 import com.kaiyu.service.BuildingService;
+import com.kaiyu.service.ReferenceDataService;
+import com.kaiyu.utils.ChunkUtils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -25,12 +41,42 @@ class BuildingServiceTest {
     @Mock
     private BuildingDao buildingDao;
 
+    @Mock
+    private DormDao dormDao;
+
+    @Mock
+    private StudentDao studentDao;
+
+    @Mock
+    private DormCheckoutDao dormCheckoutDao;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ReferenceDataService referenceDataService;
+
     @InjectMocks
     private BuildingService buildingService;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(buildingService, "batchJobExecutor", new SyncTaskExecutor());
+        ReflectionTestUtils.setField(buildingService, "chunkSize", 2);
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    /**
+     * 被测方法调用 startPage 后 DAO 是模拟的，分页参数不会被消费，需要手动清除
+     */
+    @AfterEach
+    void tearDown() {
+        PageHelper.clearPage();
     }
 
     /**
@@ -46,7 +92,7 @@ class BuildingServiceTest {
             createBuilding(1, "男生宿舍1号楼", 1),
             createBuilding(2, "女生宿舍1号楼", 2)
         );
-        when(buildingDao.getBuildingAll()).thenReturn(expectedBuildings);
+        when(referenceDataService.getBuildings()).thenReturn(expectedBuildings);
 
         // Act
         List<Building> result = buildingService.getBuildingAll();
@@ -56,7 +102,8 @@ class BuildingServiceTest {
         assertEquals(2, result.size());
         assertEquals("男生宿舍1号楼", result.get(0).getName());
         assertEquals("女生宿舍1号楼", result.get(1).getName());
-        verify(buildingDao).getBuildingAll();
+        verify(referenceDataService).getBuildings();
+        verify(buildingDao, never()).getBuildingAll();
     }
 
     /**
@@ -103,6 +150,7 @@ class BuildingServiceTest {
         // Assert
         assertEquals(1, result);
         verify(buildingDao).saveBuilding(building);
+        verify(referenceDataService).refreshBuilding(building.getId());
     }
 
     /**
@@ -128,28 +176,93 @@ class BuildingServiceTest {
     /**
      * 测试用例：批量删除宿舍楼
      * 验证：
-     * 1. 正确处理删除列表
-     * 2. 正确调���DAO层删除方法
-     * 3. 返回正确的删除结果
+     * 1. 按批次大小切分id数组
+     * 2. 正确调用DAO层删除方法
+     * 3. 返回每个批次的删除结果
      */
     @Test
     void deleteBuildings_Success() {
         // Arrange
-        List<Building> buildings = Arrays.asList(
-            createBuilding(1, "宿舍楼1", 1),
-            createBuilding(2, "宿舍楼2", 1)
-        );
-        List<Integer> ids = Arrays.asList(1, 2);
-        when(buildingDao.deleteBuildings(ids)).thenReturn(2);
+        when(buildingDao.deleteBuildings(aryEq(new int[]{1, 2}))).thenReturn(2);
+        when(buildingDao.deleteBuildings(aryEq(new int[]{3}))).thenReturn(1);
 
         // Act
-        int result = buildingService.deleteBuildings(buildings);
+        List<ChunkResult> result = buildingService.deleteBuildings(new int[]{1, 2, 3});
 
         // Assert
-        assertEquals(2, result);
-        verify(buildingDao).deleteBuildings(ids);
+        assertEquals(2, result.size());
+        assertEquals(0, result.get(0).getOffset());
+        assertEquals(2, result.get(0).getAffected());
+        assertEquals(2, result.get(1).getOffset());
+        assertEquals(1, result.get(1).getAffected());
+        assertEquals(3, ChunkUtils.totalAffected(result));
     }
 
+    /**
+     * 测试用例：某一批删除失败时返回固定的错误信息并继续执行后续批次
+     */
+    @Test
+    void deleteBuildings_ChunkFailure() {
+        // Arrange
+        when(buildingDao.deleteBuildings(aryEq(new int[]{1, 2}))).thenThrow(new RuntimeException("foreign key"));
+        when(buildingDao.deleteBuildings(aryEq(new int[]{3}))).thenReturn(1);
+
+        // Act
+        List<ChunkResult> result = buildingService.deleteBuildings(new int[]{1, 2, 3});
+
+        // Assert
+        assertEquals(ChunkUtils.CHUNK_ERROR, result.get(0).getError());
+        assertEquals(1, result.get(1).getAffected());
+    }
+
+    /**
+     * 测试用例：撤销宿舍楼
+     * 验证：
+     * 1. 按批先记录退宿再清空学生宿舍，之后按批删除宿舍，直到不足一批
+     * 2. 最后删除宿舍楼并记录处理行数
+     */
+    @Test
+    void decommissionBuilding_Success() {
+        // Arrange
+        when(studentDao.getAssignedIdsByBuilding(1, 2)).thenReturn(new int[]{1, 2}, new int[]{3}, new int[0]);
+        when(dormDao.deleteDormsByBuilding(1, 2)).thenReturn(2, 0);
+        when(buildingDao.deleteBuildings(aryEq(new int[]{1}))).thenReturn(1);
+
+        // Act
+        JobProgress progress = buildingService.decommissionBuilding(1);
+
+        // Assert
+        assertEquals(JobProgress.FINISHED, progress.getStatus());
+        assertEquals(6, progress.getProcessed());
+        InOrder inOrder = inOrder(dormCheckoutDao, studentDao);
+        inOrder.verify(dormCheckoutDao).saveByStudentIds(aryEq(new int[]{1, 2}));
+        inOrder.verify(studentDao).clearDorm(aryEq(new int[]{1, 2}));
+        inOrder.verify(dormCheckoutDao).saveByStudentIds(aryEq(new int[]{3}));
+        inOrder.verify(studentDao).clearDorm(aryEq(new int[]{3}));
+        verify(dormDao, times(2)).deleteDormsByBuilding(1, 2);
+        assertSame(progress, buildingService.getDecommissionProgress(1));
+    }
+
+    /**
+     * 测试用例：撤销失败后重新提交可继续执行
+     */
+    @Test
+    void decommissionBuilding_ResumeAfterFailure() {
+        // Arrange
+        when(studentDao.getAssignedIdsByBuilding(1, 2)).thenThrow(new RuntimeException("lock wait timeout"))
+                .thenReturn(new int[0]);
+        when(dormDao.deleteDormsByBuilding(1, 2)).thenReturn(0);
+        when(buildingDao.deleteBuildings(aryEq(new int[]{1}))).thenReturn(1);
+
+        // Act
+        JobProgress failed = buildingService.decommissionBuilding(1);
+        JobProgress resumed = buildingService.decommissionBuilding(1);
+
+        // Assert
+        assertEquals(JobProgress.FAILED, failed.getStatus());
+        assertEquals(JobProgress.FINISHED, resumed.getStatus());
+        assertNotSame(failed, resumed);
+    }
 
     /**
      * 辅助方法：创建测试用Building对象
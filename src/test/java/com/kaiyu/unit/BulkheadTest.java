@@ -0,0 +1,147 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.concurrent.Bulkhead;
+import com.kaiyu.concurrent.BulkheadFullException;
+import com.kaiyu.concurrent.BulkheadProperties;
+import com.kaiyu.concurrent.BulkheadRegistry;
+import com.kaiyu.controller.BulkheadExceptionHandler;
+import com.kaiyu.datasource.QueryCounter;
+import com.kaiyu.model.ResponseMsg;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按功能隔离的线程池测试类
+ */
+class BulkheadTest {
+
+    private Bulkhead bulkhead;
+
+    @AfterEach
+    void tearDown() {
+        if (bulkhead != null) {
+            bulkhead.shutdown();
+        }
+        SecurityContextHolder.clearContext();
+        QueryCounter.stop();
+    }
+
+    /**
+     * 测试用例：线程和队列都占满后立即拒绝，不阻塞提交线程
+     */
+    @Test
+    void submit_RejectsWhenSaturated() throws Exception {
+        // Arrange
+        bulkhead = new Bulkhead("student", pool(1, 1));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = bulkhead.submit(() -> await(release));
+        CompletableFuture<String> queued = bulkhead.submit(() -> await(release));
+
+        // Act & Assert
+        assertThrows(BulkheadFullException.class, () -> bulkhead.submit(() -> "rejected"));
+        assertEquals(1L, bulkhead.getRejectedCount());
+
+        release.countDown();
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        assertEquals("done", queued.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", bulkhead.submit(() -> "ok").get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 测试用例：任务在线程池中执行时带有提交线程的登录信息和SQL计数，执行后清除
+     */
+    @Test
+    void submit_PropagatesRequestContext() throws Exception {
+        // Arrange
+        bulkhead = new Bulkhead("user", pool(1, 1));
+        Authentication authentication = new UsernamePasswordAuthenticationToken("admin", null);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        QueryCounter.Counts counts = QueryCounter.start();
+
+        // Act
+        Authentication seen = bulkhead.submit(() -> {
+            assertSame(counts, QueryCounter.current());
+            return SecurityContextHolder.getContext().getAuthentication();
+        }).get(5, TimeUnit.SECONDS);
+        SecurityContextHolder.clearContext();
+        QueryCounter.stop();
+        boolean cleared = bulkhead.submit(() -> SecurityContextHolder.getContext().getAuthentication() == null
+                && QueryCounter.current() == null).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertSame(authentication, seen);
+        assertTrue(cleared, "线程池线程上残留了上一个任务的上下文");
+    }
+
+    /**
+     * 测试用例：任务抛出的异常通过 CompletableFuture 返回
+     */
+    @Test
+    void submit_CompletesExceptionally() {
+        bulkhead = new Bulkhead("dorm", pool(1, 1));
+
+        CompletableFuture<Object> future = bulkhead.submit(() -> {
+            throw new IllegalArgumentException("bad page");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    /**
+     * 测试用例：关闭隔离后在调用线程上直接执行
+     */
+    @Test
+    void registry_DisabledRunsInline() throws Exception {
+        BulkheadProperties properties = new BulkheadProperties();
+        properties.setEnabled(false);
+        BulkheadRegistry registry = new BulkheadRegistry(properties);
+        Thread caller = Thread.currentThread();
+
+        CompletableFuture<Thread> future = registry.get(BulkheadRegistry.STUDENT).submit(Thread::currentThread);
+
+        assertTrue(future.isDone());
+        assertSame(caller, future.get());
+    }
+
+    /**
+     * 测试用例：线程池已满时返回503和 Retry-After
+     */
+    @Test
+    void exceptionHandler_Returns503() {
+        ResponseEntity<ResponseMsg> response = new BulkheadExceptionHandler()
+                .handleBulkheadFull(new BulkheadFullException("student"));
+
+        assertEquals(503, response.getStatusCodeValue());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(503, response.getBody().getStatus());
+    }
+
+    private static BulkheadProperties.Pool pool(int threads, int queueCapacity) {
+        BulkheadProperties.Pool pool = new BulkheadProperties.Pool();
+        pool.setThreads(threads);
+        pool.setQueueCapacity(queueCapacity);
+        return pool;
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+}
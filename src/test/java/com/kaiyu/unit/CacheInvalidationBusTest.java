@@ -0,0 +1,176 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.cache.CacheInvalidationBus;
+import com.kaiyu.cache.CachePolicyProperties;
+import com.kaiyu.cache.InvalidationBroker;
+import com.kaiyu.cache.InvalidationMessage;
+import com.kaiyu.cache.RedisCacheStore;
+import com.kaiyu.cache.TwoLevelCache;
+import com.kaiyu.cache.TwoLevelCacheManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 多节点缓存失效广播测试类，使用进程内的消息通道代替Redis
+ */
+class CacheInvalidationBusTest {
+
+    private InProcessBroker broker;
+    private TwoLevelCacheManager nodeA;
+    private TwoLevelCacheManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        broker = new InProcessBroker();
+        CachePolicyProperties properties = new CachePolicyProperties();
+        nodeA = new TwoLevelCacheManager(properties, null, new CacheInvalidationBus(broker));
+        nodeB = new TwoLevelCacheManager(properties, null, new CacheInvalidationBus(broker));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * 测试用例：一个节点失效某个键后，其他节点的本地缓存同步失效
+     */
+    @Test
+    void evict_PropagatesToOtherNodes() {
+        // Arrange
+        nodeA.getCache("roles_cache").put(SimpleKey.EMPTY, "old");
+        nodeB.getCache("roles_cache").put(SimpleKey.EMPTY, "old");
+        nodeB.getCache("roles_cache").put("other", "keep");
+
+        // Act
+        nodeA.getCache("roles_cache").evict(SimpleKey.EMPTY);
+
+        // Assert
+        assertNull(nodeA.getCache("roles_cache").get(SimpleKey.EMPTY));
+        assertNull(nodeB.getCache("roles_cache").get(SimpleKey.EMPTY));
+        assertEquals("keep", nodeB.getCache("roles_cache").get("other").get());
+        assertEquals(1L, nodeB.getInvalidationBus().getStats().get("applied"));
+        assertEquals(1L, nodeA.getInvalidationBus().getStats().get("ignored"));
+    }
+
+    /**
+     * 测试用例：清空缓存同步到其他节点
+     */
+    @Test
+    void clear_PropagatesToOtherNodes() {
+        // Arrange
+        nodeB.getCache("buildings_cache").put("a", 1);
+        nodeB.getCache("buildings_cache").put("b", 2);
+
+        // Act
+        nodeA.getCache("buildings_cache").clear();
+
+        // Assert
+        assertNull(nodeB.getCache("buildings_cache").get("a"));
+        assertNull(nodeB.getCache("buildings_cache").get("b"));
+    }
+
+    /**
+     * 测试用例：事务中的失效消息在提交后才发送
+     */
+    @Test
+    void evictInTransaction_PublishedAfterCommit() {
+        // Arrange
+        TwoLevelCache cacheB = nodeB.getCache("dorms_cache");
+        cacheB.put("all", "old");
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        nodeA.getCache("dorms_cache").evict("all");
+
+        // Assert
+        assertTrue(broker.sent.isEmpty());
+        assertNotNull(cacheB.get("all"));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals(1, broker.sent.size());
+        assertNull(cacheB.get("all"));
+    }
+
+    /**
+     * 测试用例：事务中失效时提交后再删一次Redis，且在通知其他节点之前，
+     * 提交前被其他节点写回Redis的旧值不会在广播后被重新加载
+     */
+    @Test
+    void evictInTransaction_DeletesRemoteAgainBeforeBroadcast() {
+        // Arrange
+        List<String> events = new CopyOnWriteArrayList<>();
+        RedisCacheStore remote = mock(RedisCacheStore.class);
+        doAnswer(invocation -> events.add("delete " + invocation.getArgument(0)))
+                .when(remote).delete(anyString());
+        broker.subscribe(message -> events.add("broadcast"));
+        TwoLevelCacheManager node = new TwoLevelCacheManager(new CachePolicyProperties(), remote,
+                new CacheInvalidationBus(broker));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        node.getCache("dorms_cache").evict("all");
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+
+        // Assert
+        assertEquals(List.of("delete dorms_cache::all", "delete dorms_cache::all", "broadcast"), events);
+    }
+
+    /**
+     * 测试用例：重复投递的消息被忽略
+     */
+    @Test
+    void duplicateMessage_Ignored() {
+        // Arrange
+        nodeA.getCache("roles_cache").evict("k");
+        String message = broker.sent.get(0);
+        nodeB.getCache("roles_cache").put("k", "new");
+
+        // Act
+        broker.publish(message);
+
+        // Assert
+        assertEquals("new", nodeB.getCache("roles_cache").get("k").get());
+        assertEquals("k", InvalidationMessage.decode(message).getKey());
+    }
+
+    /**
+     * 进程内消息通道，同步投递给所有订阅者
+     */
+    private static class InProcessBroker implements InvalidationBroker {
+
+        private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(String message) {
+            sent.add(message);
+            for (Consumer<String> listener : listeners) {
+                listener.accept(message);
+            }
+        }
+
+        @Override
+        public void subscribe(Consumer<String> listener) {
+            listeners.add(listener);
+        }
+    }
+}
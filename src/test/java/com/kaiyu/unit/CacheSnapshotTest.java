@@ -0,0 +1,220 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.cache.CachePolicyProperties;
+import com.kaiyu.cache.CacheSnapshotFile;
+import com.kaiyu.cache.CacheSnapshotProperties;
+import com.kaiyu.cache.TwoLevelCacheManager;
+import com.kaiyu.entity.Building;
+import com.kaiyu.entity.Dorm;
+import com.kaiyu.entity.Role;
+import com.kaiyu.service.CacheSnapshotService;
+import com.kaiyu.service.ReferenceDataService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 缓存快照文件和启动恢复测试类
+ */
+class CacheSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+
+    /**
+     * 模拟的表版本号，修改后相当于表中数据发生了变化
+     */
+    private final AtomicLong version = new AtomicLong(42);
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("snapshot.bin");
+    }
+
+    /**
+     * 测试用例：写入后读取，各段的版本号与数据保持不变
+     */
+    @Test
+    void file_RoundTrip() throws Exception {
+        // Arrange
+        List<Building> buildings = Collections.singletonList(building(1, "一号楼"));
+
+        // Act
+        CacheSnapshotFile.write(file, Collections.singletonList(
+                CacheSnapshotFile.Section.of("reference", Map.of("building", 7L), buildings)));
+        CacheSnapshotFile.Contents contents = CacheSnapshotFile.read(file);
+
+        // Assert
+        CacheSnapshotFile.Section section = contents.get("reference");
+        assertEquals(Map.of("building", 7L), section.getVersions());
+        assertEquals(buildings, section.value());
+        assertTrue(contents.getCreatedAt() > 0);
+    }
+
+    /**
+     * 测试用例：快照中出现实体类和JDK集合以外的类型时拒绝反序列化
+     */
+    @Test
+    void file_RejectsUnexpectedClasses() throws Exception {
+        CacheSnapshotFile.write(file, Collections.singletonList(
+                CacheSnapshotFile.Section.of("cache:x", Map.of("t", 1L), new File("/etc/passwd"))));
+
+        CacheSnapshotFile.Section section = CacheSnapshotFile.read(file).get("cache:x");
+
+        assertThrows(IOException.class, section::value);
+    }
+
+    /**
+     * 测试用例：文件不完整或不是快照文件时读取失败
+     */
+    @Test
+    void file_Truncated() throws Exception {
+        CacheSnapshotFile.write(file, Collections.singletonList(
+                CacheSnapshotFile.Section.of("reference", Map.of("building", 7L), "data")));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+        Path other = dir.resolve("other.bin");
+        Files.write(other, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThrows(IOException.class, () -> CacheSnapshotFile.read(file));
+        assertThrows(IOException.class, () -> CacheSnapshotFile.read(other));
+    }
+
+    /**
+     * 测试用例：数据来源表未变化时启动直接恢复基础数据和菜单缓存，不查询业务表
+     */
+    @Test
+    void restore_VersionsUnchanged() throws Exception {
+        // Arrange
+        ReferenceDataService source = new ReferenceDataService();
+        source.restore(Collections.singletonList(building(1, "一号楼")), Collections.emptyList(),
+                Collections.singletonList(new Role()));
+        TwoLevelCacheManager sourceCaches = cacheManager();
+        sourceCaches.getCache("menus_cache").put(SimpleKey.EMPTY, Collections.singletonList("menu"));
+        service(source, sourceCaches).write();
+
+        ReferenceDataService target = new ReferenceDataService();
+        TwoLevelCacheManager targetCaches = cacheManager();
+        CacheSnapshotService restoring = service(target, targetCaches);
+
+        // Act
+        restoring.restore();
+
+        // Assert
+        assertNotNull(target.loaded());
+        assertEquals("一号楼", target.loaded().getBuildings().byId(1).getName());
+        assertEquals(Collections.singletonList("menu"),
+                targetCaches.getCache("menus_cache").get(SimpleKey.EMPTY).get());
+        assertEquals(List.of("reference", "cache:menus_cache"),
+                ((Map<?, ?>) restoring.getStats().get("lastRestore")).get("restored"));
+    }
+
+    /**
+     * 测试用例：快照写入后表数据有变化时跳过恢复，仍从数据库加载
+     */
+    @Test
+    void restore_VersionsChanged() throws Exception {
+        // Arrange
+        ReferenceDataService source = new ReferenceDataService();
+        source.restore(Collections.singletonList(building(1, "一号楼")), Collections.emptyList(),
+                Collections.emptyList());
+        service(source, cacheManager()).write();
+        version.incrementAndGet();
+
+        ReferenceDataService target = new ReferenceDataService();
+        CacheSnapshotService restoring = service(target, cacheManager());
+
+        // Act
+        restoring.restore();
+
+        // Assert
+        assertNull(target.loaded());
+        assertEquals(List.of("reference"), ((Map<?, ?>) restoring.getStats().get("lastRestore")).get("skipped"));
+    }
+
+    private CacheSnapshotService service(ReferenceDataService referenceDataService,
+                                         TwoLevelCacheManager cacheManager) throws SQLException {
+        CacheSnapshotProperties properties = new CacheSnapshotProperties();
+        properties.setFile(file.toString());
+        properties.getCaches().put("menus_cache", List.of("menu", "menu_role", "role"));
+        CacheSnapshotService service = new CacheSnapshotService();
+        ReflectionTestUtils.setField(service, "properties", properties);
+        ReflectionTestUtils.setField(service, "referenceDataService", referenceDataService);
+        ReflectionTestUtils.setField(service, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(service, "dataSource", dataSource());
+        return service;
+    }
+
+    private static TwoLevelCacheManager cacheManager() {
+        CachePolicyProperties properties = new CachePolicyProperties();
+        properties.getCaches().put("menus_cache", new CachePolicyProperties.Policy());
+        return new TwoLevelCacheManager(properties, null, null);
+    }
+
+    /**
+     * table_version 中登记了所有表，版本号都相同
+     */
+    private DataSource dataSource() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            List<String> tables = new ArrayList<>();
+            PreparedStatement statement = mock(PreparedStatement.class);
+            doAnswer(i -> tables.add(i.getArgument(1))).when(statement).setString(anyInt(), anyString());
+            when(statement.executeQuery()).thenAnswer(i -> {
+                Iterator<String> rows = tables.iterator();
+                AtomicReference<String> row = new AtomicReference<>();
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.next()).thenAnswer(n -> {
+                    if (!rows.hasNext()) {
+                        return false;
+                    }
+                    row.set(rows.next());
+                    return true;
+                });
+                when(rs.getString("table_name")).thenAnswer(n -> row.get());
+                when(rs.getLong("version")).thenAnswer(n -> version.get());
+                return rs;
+            });
+            return statement;
+        });
+        return dataSource;
+    }
+
+    private static Building building(int id, String name) {
+        Building building = new Building();
+        building.setId(id);
+        building.setName(name);
+        return building;
+    }
+}
@@ -0,0 +1,159 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.concurrent.CircuitBreaker;
+import com.kaiyu.concurrent.DegradedModeProperties;
+import com.kaiyu.datasource.CircuitBreakingDataSource;
+import com.kaiyu.datasource.CircuitOpenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 数据库熔断器测试类
+ */
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(3);
+
+    private AtomicLong now;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        DegradedModeProperties properties = new DegradedModeProperties();
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(0.5);
+        properties.setSlowCallRateThreshold(0.8);
+        properties.setSlowCallDuration(Duration.ofSeconds(2));
+        properties.setOpenDuration(Duration.ofSeconds(10));
+        now = new AtomicLong();
+        breaker = new CircuitBreaker("数据库", properties, now::get);
+    }
+
+    /**
+     * 测试用例：调用数未达到最小值时不熔断，失败率达到阈值后熔断并拒绝调用
+     */
+    @Test
+    void opensOnFailureRate() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onSuccess(FAST);
+
+        // 4次中3次失败
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(1L, breaker.getRejectedCount());
+    }
+
+    /**
+     * 测试用例：慢调用比例达到阈值后熔断
+     */
+    @Test
+    void opensOnSlowCallRate() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onSuccess(SLOW);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    /**
+     * 测试用例：窗口只保留最近的调用，早期的成功滑出窗口后按最近的调用计算失败率
+     */
+    @Test
+    void slidingWindowForgetsOldCalls() {
+        for (int i = 0; i < 10; i++) {
+            breaker.onSuccess(FAST);
+        }
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure();
+
+        // 窗口内10次中5次失败，累计15次中只有5次失败
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    /**
+     * 测试用例：熔断时间到后只放行一次试探，试探成功恢复、失败重新熔断
+     */
+    @Test
+    void halfOpenTrial() {
+        open();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(2L, breaker.getOpenedCount());
+    }
+
+    /**
+     * 测试用例：熔断期间获取连接立即失败，不访问连接池；获取连接失败计入熔断器
+     */
+    @Test
+    void dataSource_FailsFastWhenOpen() throws SQLException {
+        // Arrange
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLException("Communications link failure"));
+        CircuitBreakingDataSource dataSource = new CircuitBreakingDataSource(target, breaker);
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertThrows(SQLException.class, dataSource::getConnection);
+        }
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CircuitOpenException.class, dataSource::getConnection);
+        verify(target, times(4)).getConnection();
+    }
+
+    /**
+     * 测试用例：试探期间拿到连接不算恢复，由语句结果决定
+     */
+    @Test
+    void dataSource_TrialWaitsForStatement() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+        CircuitBreakingDataSource dataSource = new CircuitBreakingDataSource(target, breaker);
+        open();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        dataSource.getConnection();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
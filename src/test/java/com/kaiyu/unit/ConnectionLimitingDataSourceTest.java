@@ -0,0 +1,78 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.datasource.ConnectionLimitingDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 数据库连接并发上限测试类
+ */
+class ConnectionLimitingDataSourceTest {
+
+    private DataSource target;
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new ConnectionLimitingDataSource(target, 2, Duration.ofMillis(50));
+    }
+
+    /**
+     * 测试用例：持有连接数达到上限后等待超时，归还后可以再取
+     */
+    @Test
+    void getConnection_BoundedByPermits() throws SQLException {
+        // Arrange
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(2, dataSource.getStats().get("inUse"));
+
+        first.close();
+        Connection third = dataSource.getConnection();
+        assertNotNull(third);
+        second.close();
+        third.close();
+        assertEquals(0, dataSource.getStats().get("inUse"));
+    }
+
+    /**
+     * 测试用例：重复关闭只归还一次许可
+     */
+    @Test
+    void close_ReleasesOnce() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        Connection other = dataSource.getConnection();
+
+        connection.close();
+        connection.close();
+
+        assertEquals(1, dataSource.getStats().get("inUse"));
+        other.close();
+    }
+
+    /**
+     * 测试用例：连接池获取连接失败时归还许可
+     */
+    @Test
+    void getConnection_ReleasesOnFailure() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(0, dataSource.getStats().get("inUse"));
+    }
+}
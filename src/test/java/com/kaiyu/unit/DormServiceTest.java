@@ -1,20 +1,28 @@
 package com.kaiyu.unit;
 
+import com.github.pagehelper.PageHelper;
+import com.kaiyu.dao.BuildingDao;
 import com.kaiyu.dao.DormDao;
 import com.kaiyu.entity.Building;
 import com.kaiyu.entity.Dorm;
+import com.kaiyu.model.ChunkResult;
+import com.kaiyu.model.DormLayout;
 import com.kaiyu.model.ResponsePage;
 import com.kaiyu.service.DormService;
+import com.kaiyu.service.ReferenceDataService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +34,12 @@ class DormServiceTest {
     @Mock
     private DormDao dormDao;
 
+    @Mock
+    private BuildingDao buildingDao;
+
+    @Mock
+    private ReferenceDataService referenceDataService;
+
     @InjectMocks
     private DormService dormService;
 
@@ -34,6 +48,14 @@ class DormServiceTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    /**
+     * 被测方法调用 startPage 后 DAO 是模拟的，分页参数不会被消费，需要手动清除
+     */
+    @AfterEach
+    void tearDown() {
+        PageHelper.clearPage();
+    }
+
     /**
      * 测试用例：获取所有宿舍信息
      * 验证：
@@ -47,7 +69,7 @@ class DormServiceTest {
             createDorm(1, "101", 1, 4),
             createDorm(2, "102", 1, 4)
         );
-        when(dormDao.getDormAll()).thenReturn(expectedDorms);
+        when(referenceDataService.getDorms()).thenReturn(expectedDorms);
 
         // Act
         List<Dorm> result = dormService.getDormAll();
@@ -57,7 +79,8 @@ class DormServiceTest {
         assertEquals(2, result.size());
         assertEquals("101", result.get(0).getName());
         assertEquals("102", result.get(1).getName());
-        verify(dormDao).getDormAll();
+        verify(referenceDataService).getDorms();
+        verify(dormDao, never()).getDormAll();
     }
 
     /**
@@ -136,21 +159,71 @@ class DormServiceTest {
     @Test
     void deleteDorms_Success() {
         // Arrange
-        List<Dorm> dorms = Arrays.asList(
-            createDorm(1, "101", 1, 4),
-            createDorm(2, "102", 1, 4)
-        );
-        List<Integer> ids = Arrays.asList(1, 2);
-        when(dormDao.deleteDorms(ids)).thenReturn(2);
+        int[] ids = {1, 2};
+        when(dormDao.deleteDorms(aryEq(ids))).thenReturn(2);
 
         // Act
-        int result = dormService.deleteDorms(dorms);
+        List<ChunkResult> result = dormService.deleteDorms(ids);
 
         // Assert
-        assertEquals(2, result);
-        verify(dormDao).deleteDorms(ids);
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0).getAffected());
+        verify(dormDao).deleteDorms(aryEq(ids));
     }
 
+    /**
+     * 测试用例：按楼层布局批量生成宿舍
+     * 验证：
+     * 1. 按宿舍楼备注和命名规则生成宿舍号
+     * 2. 返回所有生成的宿舍id
+     */
+    @Test
+    void generateDorms_Success() {
+        // Arrange
+        Building building = new Building();
+        building.setId(1);
+        building.setRemark("M");
+        when(buildingDao.getBuildingById(1)).thenReturn(building);
+        List<String> names = new ArrayList<>();
+        when(dormDao.saveDorms(any())).thenAnswer(invocation -> {
+            List<Dorm> batch = invocation.getArgument(0);
+            for (Dorm dorm : batch) {
+                names.add(dorm.getName());
+                dorm.setId(names.size());
+            }
+            return batch.size();
+        });
+        DormLayout layout = new DormLayout();
+        layout.setBuildingId(1);
+        layout.setStartFloor(23);
+        layout.setFloors(2);
+        layout.setRoomsPerFloor(3);
+        layout.setMaxNum(4);
+
+        // Act
+        List<Integer> ids = dormService.generateDorms(layout);
+
+        // Assert
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), ids);
+        assertEquals(Arrays.asList("M2301", "M2302", "M2303", "M2401", "M2402", "M2403"), names);
+    }
+
+    /**
+     * 测试用例：宿舍楼不存在时不生成宿舍
+     */
+    @Test
+    void generateDorms_BuildingNotFound() {
+        // Arrange
+        DormLayout layout = new DormLayout();
+        layout.setBuildingId(99);
+        layout.setFloors(1);
+        layout.setRoomsPerFloor(1);
+        when(buildingDao.getBuildingById(99)).thenReturn(null);
+
+        // Act & Assert
+        assertNull(dormService.generateDorms(layout));
+        verify(dormDao, never()).saveDorms(any());
+    }
 
     /**
      * 辅助方法：创建测试用Dorm对象
@@ -0,0 +1,78 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.jfr.JfrPasswordEncoder;
+import com.kaiyu.jfr.JfrProperties;
+import com.kaiyu.service.FlightRecordingService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 持续飞行记录测试类
+ */
+class FlightRecordingServiceTest {
+
+    @TempDir
+    Path dumpDir;
+
+    private FlightRecordingService flightRecordingService;
+
+    @BeforeEach
+    void setUp() {
+        JfrProperties properties = new JfrProperties();
+        properties.setDumpDir(dumpDir.toString());
+        flightRecordingService = new FlightRecordingService();
+        ReflectionTestUtils.setField(flightRecordingService, "properties", properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightRecordingService.stop();
+    }
+
+    /**
+     * 测试用例：未开启持续记录时不能导出
+     */
+    @Test
+    void dump_NotStarted() {
+        assertThrows(IllegalStateException.class, () -> flightRecordingService.dump(5));
+        assertEquals("NOT_STARTED", flightRecordingService.getStatus().get("state"));
+    }
+
+    /**
+     * 测试用例：导出的文件包含记录期间的自定义事件
+     */
+    @Test
+    void dump_ContainsCustomEvents() throws Exception {
+        // Arrange
+        flightRecordingService.start();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        JfrPasswordEncoder encoder = new JfrPasswordEncoder(bcrypt);
+        assertTrue(encoder.matches("123", bcrypt.encode("123")));
+
+        // Act
+        Path file = flightRecordingService.dump(5);
+
+        // Assert
+        assertTrue(Files.size(file) > 0);
+        assertEquals("RUNNING", flightRecordingService.getStatus().get("state"));
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent check = events.stream()
+                .filter(e -> "com.kaiyu.PasswordCheck".equals(e.getEventType().getName()))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        assertEquals(4, check.getInt("cost"));
+        assertTrue(check.getBoolean("matched"));
+    }
+}
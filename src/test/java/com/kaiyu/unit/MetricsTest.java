@@ -0,0 +1,94 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.cache.CachePolicyProperties;
+import com.kaiyu.cache.TwoLevelCacheManager;
+import com.kaiyu.metrics.CacheMetricsBinder;
+import com.kaiyu.metrics.HandlerMethodTagsContributor;
+import com.kaiyu.metrics.LoginMetrics;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prometheus指标测试类
+ */
+class MetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    /**
+     * 测试用例：已配置的缓存按本地命中/未命中计数
+     */
+    @Test
+    void cacheMetrics_CountsLocalHitsAndMisses() {
+        // Arrange
+        CachePolicyProperties properties = new CachePolicyProperties();
+        properties.getCaches().put("menus_cache", new CachePolicyProperties.Policy());
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(properties, null, null);
+        new CacheMetricsBinder(cacheManager, null).bindTo(registry);
+
+        // Act
+        cacheManager.getCache("menus_cache").put("k", "v");
+        cacheManager.getCache("menus_cache").get("k");
+        cacheManager.getCache("menus_cache").get("missing");
+
+        // Assert
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "menus_cache", "result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "menus_cache", "result", "miss")
+                .functionCounter().count());
+        assertEquals(0.0, registry.get("cache.remote.gets").tags("cache", "menus_cache", "result", "hit")
+                .functionCounter().count());
+    }
+
+    /**
+     * 测试用例：登录失败按原因计数
+     */
+    @Test
+    void loginMetrics_CountsByReason() {
+        // Arrange
+        LoginMetrics loginMetrics = new LoginMetrics(registry);
+
+        // Act
+        loginMetrics.success();
+        loginMetrics.failure(new BadCredentialsException("bad"));
+        loginMetrics.failure(new BadCredentialsException("bad"));
+        loginMetrics.failure(new AuthenticationServiceException("验证码不正确"));
+
+        // Assert
+        assertEquals(1.0, registry.get("dormadmin.login").tags("result", "success").counter().count());
+        assertEquals(2.0, registry.get("dormadmin.login").tags("reason", "bad_credentials").counter().count());
+        assertEquals(1.0, registry.get("dormadmin.login").tags("reason", "verify_code").counter().count());
+    }
+
+    /**
+     * 测试用例：同一控制器方法复用同一组标签
+     */
+    @Test
+    void handlerTags_CachedPerMethod() throws NoSuchMethodException {
+        // Arrange
+        HandlerMethodTagsContributor contributor = new HandlerMethodTagsContributor();
+        HandlerMethod handler = new HandlerMethod(this, MetricsTest.class.getDeclaredMethod("setUp"));
+
+        // Act
+        Iterable<Tag> first = contributor.getTags(null, null, handler, null);
+        Iterable<Tag> second = contributor.getTags(null, null,
+                new HandlerMethod(this, MetricsTest.class.getDeclaredMethod("setUp")), null);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("MetricsTest.setUp", first.iterator().next().getValue());
+        assertEquals("none", contributor.getTags(null, null, new Object(), null).iterator().next().getValue());
+    }
+}
@@ -0,0 +1,125 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.datasource.QueryCounter;
+import com.kaiyu.datasource.QueryCountingDataSource;
+import com.kaiyu.metrics.QueryCountFilter;
+import com.kaiyu.metrics.QueryCountProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 请求级SQL语句计数测试类
+ */
+class QueryCountingDataSourceTest {
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        dataSource = new QueryCountingDataSource(target);
+    }
+
+    @AfterEach
+    void tearDown() {
+        QueryCounter.stop();
+    }
+
+    /**
+     * 测试用例：预编译语句、普通语句和批量执行分别计数，批量执行算一条
+     */
+    @Test
+    void execute_CountsReadsAndWrites() throws SQLException {
+        // Arrange
+        QueryCounter.Counts counts = QueryCounter.start();
+
+        // Act
+        try (Connection connection = dataSource.getConnection()) {
+            connection.prepareStatement("select count(0) from student").executeQuery();
+            connection.prepareStatement("  SELECT * FROM student LIMIT ?").executeQuery();
+            PreparedStatement update = connection.prepareStatement("update dorm set remark = ? where id = ?");
+            update.addBatch();
+            update.addBatch();
+            update.executeBatch();
+            connection.createStatement().execute("delete from dorm_checkout where id = 1");
+        }
+
+        // Assert
+        assertEquals(4, counts.getTotal());
+        assertEquals(2, counts.getReads());
+        assertEquals(2, counts.getWrites());
+    }
+
+    /**
+     * 测试用例：没有开启计数的线程不计数
+     */
+    @Test
+    void execute_NotCountingOutsideScope() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.prepareStatement("select 1").executeQuery();
+        }
+
+        assertNull(QueryCounter.current());
+    }
+
+    /**
+     * 测试用例：请求带调试请求头时在响应头返回语句数，不带时不返回
+     */
+    @Test
+    void filter_DebugHeader() throws Exception {
+        // Arrange
+        QueryCountFilter filter = new QueryCountFilter(new QueryCountProperties());
+        MockHttpServletRequest debug = new MockHttpServletRequest("GET", "/api/student/list");
+        debug.addHeader(QueryCountFilter.DEBUG_REQUEST_HEADER, "true");
+        MockHttpServletResponse debugResponse = new MockHttpServletResponse();
+        MockHttpServletResponse plainResponse = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(debug, debugResponse, chain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/student/list"), plainResponse, chain());
+
+        // Assert
+        assertEquals("2", debugResponse.getHeader(QueryCountFilter.QUERY_COUNT_HEADER));
+        assertEquals("0", debugResponse.getHeader(QueryCountFilter.WRITE_COUNT_HEADER));
+        assertEquals("ok", debugResponse.getContentAsString());
+        assertNull(plainResponse.getHeader(QueryCountFilter.QUERY_COUNT_HEADER));
+        assertNull(QueryCounter.current());
+    }
+
+    private MockFilterChain chain() {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                try (Connection connection = dataSource.getConnection()) {
+                    connection.prepareStatement("select count(0) from student").executeQuery();
+                    connection.prepareStatement("select * from student limit ?").executeQuery();
+                } catch (SQLException e) {
+                    throw new IOException(e);
+                }
+                resp.getWriter().write("ok");
+            }
+        });
+    }
+}
@@ -0,0 +1,217 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.datasource.ReadWriteRoutingDataSource;
+import com.kaiyu.datasource.ReadYourWritesInterceptor;
+import com.kaiyu.datasource.ReadYourWritesTracker;
+import com.kaiyu.datasource.ReplicaHealthMonitor;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 读写分离数据源测试类
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaHealthMonitor health;
+    private ReadWriteRoutingDataSource routingDataSource;
+    private ReadYourWritesInterceptor interceptor;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        health = mock(ReplicaHealthMonitor.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(health.isAvailable()).thenReturn(true);
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+        routingDataSource = new ReadWriteRoutingDataSource(primary, replica, health, tracker);
+        interceptor = new ReadYourWritesInterceptor(tracker);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        endTransaction();
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * 测试用例：只读事务使用副本，读写事务和非事务语句使用主库
+     */
+    @Test
+    void getConnection_RoutesByReadOnlyFlag() throws SQLException {
+        beginTransaction(true);
+        assertSame(replicaConnection, routingDataSource.getConnection());
+        endTransaction();
+
+        beginTransaction(false);
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        endTransaction();
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+    }
+
+    /**
+     * 测试用例：用户在事务中执行增删改并提交后，窗口内的只读事务仍使用主库；回滚不计入
+     */
+    @Test
+    void getConnection_ReadYourWrites() throws Throwable {
+        // Arrange: 回滚的写事务
+        beginTransaction(false);
+        routingDataSource.getConnection();
+        execute(SqlCommandType.UPDATE);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        beginTransaction(true);
+        assertSame(replicaConnection, routingDataSource.getConnection());
+        endTransaction();
+
+        // Act: 提交的写事务，同一事务的多条语句只登记一次
+        beginTransaction(false);
+        routingDataSource.getConnection();
+        execute(SqlCommandType.UPDATE);
+        execute(SqlCommandType.INSERT);
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Assert
+        beginTransaction(true);
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        endTransaction();
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("other", null));
+        beginTransaction(true);
+        assertSame(replicaConnection, routingDataSource.getConnection());
+        assertEquals(1L, routingDataSource.getStats().get("readYourWritesHits"));
+    }
+
+    /**
+     * 测试用例：事务外自动提交的增删改（包括 NOT_SUPPORTED 方法）立即计入
+     */
+    @Test
+    void getConnection_ReadYourWritesWithoutTransaction() throws Throwable {
+        // Arrange: NOT_SUPPORTED 方法内，有事务同步但没有实际事务
+        TransactionSynchronizationManager.initSynchronization();
+        routingDataSource.getConnection();
+        execute(SqlCommandType.DELETE);
+        endTransaction();
+
+        // Assert
+        beginTransaction(true);
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertEquals(1L, routingDataSource.getStats().get("readYourWritesHits"));
+    }
+
+    /**
+     * 测试用例：事务外的查询不计为写操作，不会让用户停留在主库
+     */
+    @Test
+    void getConnection_ReadsWithoutTransactionNotTracked() throws Throwable {
+        // Arrange: 事务外自动提交的查询，例如登录时查询用户和菜单
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        execute(SqlCommandType.SELECT);
+
+        // Assert
+        beginTransaction(true);
+        assertSame(replicaConnection, routingDataSource.getConnection());
+        assertEquals(0L, routingDataSource.getStats().get("recentWriters"));
+    }
+
+    /**
+     * 测试用例：副本延迟过大或不可用时回退到主库
+     */
+    @Test
+    void getConnection_ReplicaUnhealthy() throws SQLException {
+        when(health.isAvailable()).thenReturn(false);
+        beginTransaction(true);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        verify(replica, never()).getConnection();
+    }
+
+    /**
+     * 测试用例：获取副本连接失败时回退到主库并立即停用副本
+     */
+    @Test
+    void getConnection_ReplicaDown() throws SQLException {
+        SQLException error = new SQLException("Connection refused");
+        when(replica.getConnection()).thenThrow(error);
+        beginTransaction(true);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        verify(health).markDown(error);
+        assertEquals(1L, routingDataSource.getStats().get("fallbacks"));
+    }
+
+    /**
+     * 测试用例：未配置副本时全部使用主库
+     */
+    @Test
+    void getConnection_NoReplica() throws SQLException {
+        routingDataSource = new ReadWriteRoutingDataSource(primary, null, null,
+                new ReadYourWritesTracker(Duration.ofMinutes(1)));
+        beginTransaction(true);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertEquals(false, routingDataSource.getStats().get("replicaEnabled"));
+    }
+
+    /**
+     * 经过插件执行一条指定类型的语句
+     */
+    private void execute(SqlCommandType type) throws Throwable {
+        Configuration configuration = new Configuration();
+        MappedStatement ms = new MappedStatement.Builder(configuration, "com.kaiyu.dao.StudentDao.statement",
+                new StaticSqlSource(configuration, "select 1"), type).build();
+        Executor executor = mock(Executor.class);
+        interceptor.intercept(new Invocation(executor,
+                Executor.class.getMethod("update", MappedStatement.class, Object.class), new Object[]{ms, null}));
+    }
+
+    private void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private void completeTransaction(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(status));
+        endTransaction();
+    }
+
+    private void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+}
@@ -0,0 +1,190 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.cache.ReferenceSnapshot;
+import com.kaiyu.dao.BuildingDao;
+import com.kaiyu.dao.DormDao;
+import com.kaiyu.dao.RoleDao;
+import com.kaiyu.entity.Building;
+import com.kaiyu.entity.Dorm;
+import com.kaiyu.entity.Role;
+import com.kaiyu.service.ReferenceDataService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 基础数据快照测试类
+ */
+class ReferenceDataServiceTest {
+
+    @Mock
+    private BuildingDao buildingDao;
+
+    @Mock
+    private DormDao dormDao;
+
+    @Mock
+    private RoleDao roleDao;
+
+    @InjectMocks
+    private ReferenceDataService referenceDataService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(buildingDao.getBuildingAll()).thenReturn(Collections.singletonList(createBuilding(1, "男生宿舍1号楼")));
+        when(dormDao.getDormAll()).thenReturn(Collections.singletonList(createDorm(1, "101")));
+        when(roleDao.getAllRoles()).thenReturn(Collections.emptyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * 测试用例：快照只加载一次，之后的读取不访问数据库
+     */
+    @Test
+    void getBuildings_LoadsOnce() {
+        // Act
+        List<Building> first = referenceDataService.getBuildings();
+        List<Building> second = referenceDataService.getBuildings();
+        referenceDataService.getDorms();
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("男生宿舍1号楼", first.get(0).getName());
+        verify(buildingDao, times(1)).getBuildingAll();
+        verify(dormDao, times(1)).getDormAll();
+        assertThrows(UnsupportedOperationException.class, () -> first.add(new Building()));
+    }
+
+    /**
+     * 测试用例：快照按id建立索引
+     */
+    @Test
+    void current_IndexesById() {
+        // Act
+        ReferenceSnapshot snapshot = referenceDataService.current();
+
+        // Assert
+        assertEquals("101", snapshot.getDorms().byId(1).getName());
+        assertNull(snapshot.getBuildings().byId(2));
+    }
+
+    /**
+     * 测试用例：单条刷新只按主键查询该条，原位替换、追加或移除，不重新加载整张表
+     */
+    @Test
+    void refreshDorm_PatchesSingleEntry() {
+        // Arrange
+        when(dormDao.getDormAll()).thenReturn(Arrays.asList(createDorm(1, "101"), createDorm(2, "102")));
+        ReferenceSnapshot before = referenceDataService.current();
+        when(dormDao.getDormById(1)).thenReturn(createDorm(1, "101A"));
+        when(dormDao.getDormById(3)).thenReturn(createDorm(3, "103"));
+
+        // Act
+        referenceDataService.refreshDorm(1);
+        referenceDataService.refreshDorm(3);
+        referenceDataService.refreshDorm(2);
+
+        // Assert
+        ReferenceSnapshot after = referenceDataService.current();
+        assertEquals(Arrays.asList("101A", "103"), Arrays.asList(after.getDorms().all().get(0).getName(),
+                after.getDorms().all().get(1).getName()));
+        assertEquals(2, after.getDorms().size());
+        assertNull(after.getDorms().byId(2));
+        assertEquals("102", before.getDorms().byId(2).getName());
+        assertSame(before.getBuildings(), after.getBuildings());
+        verify(dormDao, times(1)).getDormAll();
+    }
+
+    /**
+     * 测试用例：非事务中刷新立即替换对应部分，其他部分保持不变
+     */
+    @Test
+    void refreshBuildings_ReplacesOnlyBuildings() {
+        // Arrange
+        ReferenceSnapshot before = referenceDataService.current();
+        when(buildingDao.getBuildingAll()).thenReturn(Arrays.asList(
+                createBuilding(1, "男生宿舍1号楼"), createBuilding(2, "女生宿舍1号楼")));
+
+        // Act
+        referenceDataService.refreshBuildings();
+
+        // Assert
+        ReferenceSnapshot after = referenceDataService.current();
+        assertEquals(2, after.getBuildings().size());
+        assertSame(before.getDorms(), after.getDorms());
+        assertTrue(after.getVersion() > before.getVersion());
+        verify(dormDao, times(1)).getDormAll();
+    }
+
+    /**
+     * 测试用例：事务中刷新等提交后才执行，回滚时不重新加载
+     */
+    @Test
+    void refreshDorms_WaitsForCommit() {
+        // Arrange
+        referenceDataService.current();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        referenceDataService.refreshDorms();
+        verify(dormDao, times(1)).getDormAll();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        verify(dormDao, times(1)).getDormAll();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        verify(dormDao, times(2)).getDormAll();
+    }
+
+    /**
+     * 测试用例：重新加载失败时丢弃快照，下次读取重新全量加载
+     */
+    @Test
+    void refreshRoles_FailureDropsSnapshot() {
+        // Arrange
+        referenceDataService.current();
+        when(roleDao.getAllRoles()).thenThrow(new RuntimeException("db down")).thenReturn(Collections.emptyList());
+
+        // Act
+        referenceDataService.refreshRoles();
+        List<Role> roles = referenceDataService.getRoles();
+
+        // Assert
+        assertTrue(roles.isEmpty());
+        verify(buildingDao, times(2)).getBuildingAll();
+    }
+
+    private Building createBuilding(Integer id, String name) {
+        Building building = new Building();
+        building.setId(id);
+        building.setName(name);
+        return building;
+    }
+
+    private Dorm createDorm(Integer id, String name) {
+        Dorm dorm = new Dorm();
+        dorm.setId(id);
+        dorm.setName(name);
+        return dorm;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.datasource.ReplicaHealthMonitor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 副本延迟检查测试类
+ */
+class ReplicaHealthMonitorTest {
+
+    private DatabaseMetaData metaData;
+    private Statement statement;
+    private ResultSet resultSet;
+    private ReplicaHealthMonitor monitor;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource replica = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        metaData = mock(DatabaseMetaData.class);
+        statement = mock(Statement.class);
+        resultSet = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        monitor = new ReplicaHealthMonitor(replica, Duration.ofSeconds(5), false);
+    }
+
+    /**
+     * 测试用例：MySQL 8.4 使用 SHOW REPLICA STATUS 和 Seconds_Behind_Source
+     */
+    @Test
+    void check_ReplicaStatus() throws SQLException {
+        // Arrange
+        when(metaData.getDatabaseProductVersion()).thenReturn("8.4.2");
+        when(resultSet.getObject("Seconds_Behind_Source")).thenReturn(1L);
+
+        // Act
+        monitor.check();
+
+        // Assert
+        verify(statement).executeQuery("SHOW REPLICA STATUS");
+        assertTrue(monitor.isAvailable());
+        assertEquals(1L, monitor.getStatus().get("lagSeconds"));
+    }
+
+    /**
+     * 测试用例：8.0.22 之前的版本使用 SHOW SLAVE STATUS 和 Seconds_Behind_Master，延迟过大时停用副本
+     */
+    @Test
+    void check_LegacyStatus() throws SQLException {
+        // Arrange
+        when(metaData.getDatabaseProductVersion()).thenReturn("5.7.44-log");
+        when(resultSet.getObject("Seconds_Behind_Master")).thenReturn(30L);
+
+        // Act
+        monitor.check();
+
+        // Assert
+        verify(statement).executeQuery("SHOW SLAVE STATUS");
+        assertFalse(monitor.isAvailable());
+        assertEquals(30L, monitor.getStatus().get("lagSeconds"));
+    }
+}
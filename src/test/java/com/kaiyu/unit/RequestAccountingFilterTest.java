@@ -0,0 +1,156 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.concurrent.Bulkhead;
+import com.kaiyu.concurrent.BulkheadProperties;
+import com.kaiyu.metrics.RequestAccountingFilter;
+import com.kaiyu.metrics.RequestAccountingProperties;
+import com.kaiyu.metrics.RollingResourceStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求级内存分配和CPU时间统计测试类
+ */
+class RequestAccountingFilterTest {
+
+    private RequestAccountingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RequestAccountingProperties();
+        properties.setSampleRate(1);
+    }
+
+    /**
+     * 测试用例：按控制器映射路径归类统计，未进入控制器的请求归入 UNMAPPED
+     */
+    @Test
+    void doFilter_AggregatesByPattern() throws Exception {
+        // Arrange
+        RequestAccountingFilter filter = new RequestAccountingFilter(properties);
+
+        // Act
+        filter.doFilter(request("/api/student/list"), new MockHttpServletResponse(), chain(true));
+        filter.doFilter(request("/api/student/list"), new MockHttpServletResponse(), chain(true));
+        filter.doFilter(request("/api/unknown"), new MockHttpServletResponse(), chain(false));
+
+        // Assert
+        Map<String, Map<String, Object>> stats = filter.getStats();
+        Map<String, Object> list = stats.get("GET /api/student/list");
+        assertEquals(2L, list.get("count"));
+        assertTrue((Long) list.get("allocatedBytes") > 0);
+        assertEquals(1L, stats.get("UNMAPPED").get("count"));
+    }
+
+    /**
+     * 测试用例：调试模式下在响应头返回本次请求的统计，响应体保持不变
+     */
+    @Test
+    void doFilter_DebugHeader() throws Exception {
+        // Arrange
+        properties.setSampleRate(0);
+        properties.setDebugHeader(true);
+        RequestAccountingFilter filter = new RequestAccountingFilter(properties);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request("/api/menu"), response, chain(true));
+
+        // Assert
+        assertNotNull(response.getHeader(RequestAccountingFilter.ALLOCATED_HEADER));
+        assertNotNull(response.getHeader(RequestAccountingFilter.CPU_HEADER));
+        assertEquals("ok", response.getContentAsString());
+    }
+
+    /**
+     * 测试用例：异步接口在线程池中的分配计入同一请求，结果在异步分派中写回后再汇总并输出响应体
+     */
+    @Test
+    void doFilter_AsyncDispatch() throws Exception {
+        // Arrange
+        properties.setSampleRate(0);
+        properties.setDebugHeader(true);
+        RequestAccountingFilter filter = new RequestAccountingFilter(properties);
+        Bulkhead bulkhead = new Bulkhead("test", new BulkheadProperties.Pool());
+        MockHttpServletRequest request = request("/api/student/list");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CompletableFuture<?>[] work = new CompletableFuture<?>[1];
+
+        // Act: 首次分派启动异步处理，在线程池中分配约1MB
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, req.getRequestURI());
+                req.startAsync(req, resp);
+                work[0] = bulkhead.submit(() -> new byte[1024 * 1024]);
+            }
+        }));
+        work[0].get(5, TimeUnit.SECONDS);
+        assertEquals("", response.getContentAsString());
+        assertTrue(filter.getStats().isEmpty());
+
+        // Act: 异步分派写回结果
+        request.setDispatcherType(DispatcherType.ASYNC);
+        request.setAsyncStarted(false);
+        filter.doFilter(request, request.getAsyncContext().getResponse(), chain(true));
+        bulkhead.shutdown();
+
+        // Assert
+        assertEquals("ok", response.getContentAsString());
+        assertTrue(Long.parseLong(response.getHeader(RequestAccountingFilter.ALLOCATED_HEADER)) >= 1024 * 1024);
+        assertEquals(1L, filter.getStats().get("GET /api/student/list").get("count"));
+    }
+
+    /**
+     * 测试用例：超出时间窗口的数据不计入窗口统计，但保留在累计值中
+     */
+    @Test
+    void rollingStats_ExpiresOldBuckets() {
+        RollingResourceStats stats = new RollingResourceStats(60_000, 6);
+        stats.record(0, 100, 1_000_000);
+        stats.record(30_000, 200, 1_000_000);
+
+        Map<String, Object> inWindow = stats.snapshot(50_000);
+        Map<String, Object> later = stats.snapshot(75_000);
+
+        assertEquals(300L, inWindow.get("allocatedBytes"));
+        assertEquals(200L, later.get("allocatedBytes"));
+        assertEquals(300L, later.get("totalAllocatedBytes"));
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+
+    private static MockFilterChain chain(boolean mapped) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                if (mapped) {
+                    req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, req.getRequestURI());
+                }
+                StringBuilder body = new StringBuilder();
+                for (int i = 0; i < 1000; i++) {
+                    body.append(i);
+                }
+                resp.getWriter().write(body.length() > 0 ? "ok" : "");
+            }
+        });
+    }
+}
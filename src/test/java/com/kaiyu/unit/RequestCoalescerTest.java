@@ -0,0 +1,299 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.concurrent.Coalesced;
+import com.kaiyu.concurrent.CoalescingAspect;
+import com.kaiyu.concurrent.CoalescingProperties;
+import com.kaiyu.concurrent.RequestCoalescer;
+import com.kaiyu.datasource.ReadYourWritesTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 并发相同查询合并测试类
+ */
+class RequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    private CoalescingProperties properties;
+    private SimpleMeterRegistry registry;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CoalescingProperties();
+        registry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * 测试用例：相同键的并发调用只执行一次，全部拿到同一个结果
+     */
+    @Test
+    void execute_CollapsesConcurrentCalls() throws Exception {
+        // Arrange
+        RequestCoalescer coalescer = new RequestCoalescer(properties, registry);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RequestCoalescer.Call slowQuery = () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "page-1";
+        };
+
+        // Act
+        List<Future<Object>> results = new ArrayList<>();
+        results.add(executor.submit(() -> call(coalescer, "key", slowQuery)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(() -> call(coalescer, "key", slowQuery)));
+        }
+        awaitInFlightWaiters();
+        release.countDown();
+
+        // Assert
+        for (Future<Object> result : results) {
+            assertEquals("page-1", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(CALLERS - 1.0, registry.get("dormadmin.coalescing.calls")
+                .tags("method", "DormService.getDormPage", "result", "collapsed").functionCounter().count());
+        assertEquals(0, coalescer.getStats().get("inFlight"));
+    }
+
+    /**
+     * 测试用例：等待的调用各自拿到结果的副本，修改副本不影响其他调用方
+     */
+    @Test
+    void execute_WaitersGetCopies() throws Exception {
+        // Arrange
+        RequestCoalescer coalescer = new RequestCoalescer(properties, null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RequestCoalescer.Call slowQuery = () -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new ArrayList<>(List.of("101", "102"));
+        };
+
+        // Act
+        Future<Object> leader = executor.submit(() -> call(coalescer, "key", slowQuery));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Object> first = executor.submit(() -> call(coalescer, "key", slowQuery));
+        Future<Object> second = executor.submit(() -> call(coalescer, "key", slowQuery));
+        awaitInFlightWaiters();
+        release.countDown();
+        Object own = leader.get(5, TimeUnit.SECONDS);
+        Object firstCopy = first.get(5, TimeUnit.SECONDS);
+        Object secondCopy = second.get(5, TimeUnit.SECONDS);
+        ((List<?>) firstCopy).clear();
+
+        // Assert
+        assertNotSame(own, secondCopy);
+        assertNotSame(firstCopy, secondCopy);
+        assertEquals(List.of("101", "102"), own);
+        assertEquals(List.of("101", "102"), secondCopy);
+    }
+
+    /**
+     * 测试用例：调用结束后不保留结果，下一次调用重新执行
+     */
+    @Test
+    void execute_DoesNotCacheCompletedCalls() throws Throwable {
+        RequestCoalescer coalescer = new RequestCoalescer(properties, null);
+        AtomicInteger executions = new AtomicInteger();
+
+        coalescer.execute("m", "key", executions::incrementAndGet);
+        coalescer.execute("m", "key", executions::incrementAndGet);
+
+        assertEquals(2, executions.get());
+    }
+
+    /**
+     * 测试用例：第一次调用的异常同样抛给等待的调用
+     */
+    @Test
+    void execute_SharesFailure() throws Exception {
+        // Arrange
+        RequestCoalescer coalescer = new RequestCoalescer(properties, null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RequestCoalescer.Call failing = () -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("db down");
+        };
+
+        // Act
+        Future<Object> leader = executor.submit(() -> call(coalescer, "key", failing));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Object> follower = executor.submit(() -> call(coalescer, "key", () -> "not called"));
+        awaitInFlightWaiters();
+        release.countDown();
+
+        // Assert
+        ExecutionException e = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * 测试用例：等待超时后自己执行，不再等第一次调用
+     */
+    @Test
+    void execute_TimeoutFallsBackToOwnCall() throws Throwable {
+        // Arrange
+        properties.setTimeout(Duration.ofMillis(20));
+        RequestCoalescer coalescer = new RequestCoalescer(properties, null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> call(coalescer, "key", () -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "slow";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        Object result = coalescer.execute("m", "key", () -> "own");
+        release.countDown();
+
+        // Assert
+        assertEquals("own", result);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) ((Map<String, Object>) coalescer.getStats()
+                .get("methods")).get("m");
+        assertEquals(1L, stats.get("timeouts"));
+    }
+
+    /**
+     * 测试用例：注解方法按参数区分，perUser 方法按登录用户区分
+     */
+    @Test
+    void aspect_KeysByArgumentsAndUser() throws Exception {
+        // Arrange
+        RequestCoalescer coalescer = new RequestCoalescer(properties, null);
+        Queries target = new Queries();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new CoalescingAspect(coalescer, new ReadYourWritesTracker(Duration.ofSeconds(5))));
+        Queries proxy = factory.getProxy();
+
+        // Act
+        Future<Object> first = executor.submit(() -> proxy.page("王"));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        Future<Object> same = executor.submit(() -> proxy.page("王"));
+        awaitInFlightWaiters();
+        target.release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        same.get(5, TimeUnit.SECONDS);
+        proxy.page("李");
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("admin", null));
+        proxy.menus();
+
+        // Assert
+        assertEquals(2, target.pageCalls.get());
+        assertEquals(1, target.menuCalls.get());
+    }
+
+    /**
+     * 测试用例：刚提交过写操作的用户不等待进行中的调用，自己执行
+     */
+    @Test
+    void aspect_SkipsRecentWriters() throws Exception {
+        // Arrange
+        RequestCoalescer coalescer = new RequestCoalescer(properties, null);
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(5));
+        tracker.markWrite("admin");
+        Queries target = new Queries();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new CoalescingAspect(coalescer, tracker));
+        Queries proxy = factory.getProxy();
+
+        // Act
+        Future<Object> first = executor.submit(() -> proxy.page("王"));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("admin", null));
+        Object own = proxy.page("王");
+        target.release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("王", own);
+        assertEquals(2, target.pageCalls.get());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) ((Map<String, Object>) coalescer.getStats()
+                .get("methods")).get("Queries.page");
+        assertEquals(1L, stats.get("executed"));
+        assertEquals(0L, stats.get("timeouts"));
+    }
+
+    private static Object call(RequestCoalescer coalescer, Object key, RequestCoalescer.Call call) throws Exception {
+        try {
+            return coalescer.execute("DormService.getDormPage", key, call);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 等待其他线程进入合并等待，第一次调用释放前它们都已加入
+     */
+    private static void awaitInFlightWaiters() throws InterruptedException {
+        Thread.sleep(100);
+    }
+
+    static class Queries {
+
+        final AtomicInteger pageCalls = new AtomicInteger();
+        final AtomicInteger menuCalls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Coalesced
+        public Object page(String name) throws InterruptedException {
+            if (pageCalls.incrementAndGet() == 1) {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return name;
+        }
+
+        @Coalesced(perUser = true)
+        public Object menus() {
+            menuCalls.incrementAndGet();
+            return "menus";
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.dao.DormCheckoutDao;
+import com.kaiyu.dao.StudentDao;
+import com.kaiyu.model.JobProgress;
+import com.kaiyu.service.RolloverService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 毕业退宿任务测试类
+ */
+class RolloverServiceTest {
+
+    @Mock
+    private StudentDao studentDao;
+
+    @Mock
+    private DormCheckoutDao dormCheckoutDao;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private DataSource dataSource;
+
+    @InjectMocks
+    private RolloverService rolloverService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(rolloverService, "batchJobExecutor", new SyncTaskExecutor());
+        ReflectionTestUtils.setField(rolloverService, "chunkSize", 2);
+        ReflectionTestUtils.setField(rolloverService, "pauseMs", 0L);
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    /**
+     * 测试用例：按年级分批退宿
+     * 验证：
+     * 1. 每批先记录退宿再清空宿舍
+     * 2. 查询不到已分配宿舍的学生时结束
+     */
+    @Test
+    void startRollover_Success() {
+        // Arrange
+        int[] first = {1, 2};
+        int[] second = {3};
+        when(studentDao.getAssignedIdsByCohort("18", 2)).thenReturn(first, second, new int[0]);
+
+        // Act
+        JobProgress progress = rolloverService.startRollover("18");
+
+        // Assert
+        assertEquals(JobProgress.FINISHED, progress.getStatus());
+        assertEquals(3, progress.getProcessed());
+        verify(dormCheckoutDao).saveByStudentIds(first);
+        verify(studentDao).clearDorm(first);
+        verify(dormCheckoutDao).saveByStudentIds(second);
+        verify(studentDao).clearDorm(second);
+        assertSame(progress, rolloverService.getProgress());
+    }
+
+    /**
+     * 测试用例：取消后不再处理后续批次
+     */
+    @Test
+    void startRollover_Cancelled() {
+        // Arrange
+        when(studentDao.getAssignedIdsByCohort("18", 2)).thenAnswer(invocation -> {
+            rolloverService.cancel();
+            return new int[]{1, 2};
+        });
+
+        // Act
+        JobProgress progress = rolloverService.startRollover("18");
+
+        // Assert
+        assertEquals(JobProgress.CANCELLED, progress.getStatus());
+        assertEquals(2, progress.getProcessed());
+        verify(studentDao, times(1)).getAssignedIdsByCohort("18", 2);
+    }
+}
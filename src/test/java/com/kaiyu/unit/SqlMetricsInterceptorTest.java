@@ -0,0 +1,136 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.metrics.LatencyHistogram;
+import com.kaiyu.metrics.SqlMetricsInterceptor;
+import com.kaiyu.metrics.SqlMetricsProperties;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SQL耗时统计测试类
+ */
+class SqlMetricsInterceptorTest {
+
+    private Configuration configuration;
+    private SqlMetricsProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        configuration = new Configuration();
+        properties = new SqlMetricsProperties();
+        properties.setSampleRate(0);
+    }
+
+    /**
+     * 测试用例：查询按短语句id记录次数和行数
+     */
+    @Test
+    void intercept_RecordsQuery() throws Throwable {
+        // Arrange
+        SqlMetricsInterceptor interceptor = new SqlMetricsInterceptor(properties);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.getUpdateCount()).thenReturn(-1);
+        StatementHandler handler = handler("com.kaiyu.dao.StudentDao.getStudentByName", SqlCommandType.SELECT);
+
+        // Act
+        interceptor.intercept(new Invocation(handler,
+                StatementHandler.class.getMethod("query", Statement.class, ResultHandler.class),
+                new Object[]{ps, null}));
+
+        // Assert
+        Map<String, Object> stats = interceptor.getStats().get("StudentDao.getStudentByName");
+        assertNotNull(stats);
+        assertEquals(1L, stats.get("count"));
+        assertEquals(0L, stats.get("rows"));
+        assertEquals(0L, stats.get("slow"));
+        verify(ps).execute();
+    }
+
+    /**
+     * 测试用例：更新记录影响行数，超过阈值的语句计入慢SQL
+     */
+    @Test
+    void intercept_RecordsSlowUpdate() throws Throwable {
+        // Arrange
+        properties.setSlowThreshold(Duration.ZERO);
+        SqlMetricsInterceptor interceptor = new SqlMetricsInterceptor(properties);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.getUpdateCount()).thenReturn(3);
+        StatementHandler handler = handler("com.kaiyu.dao.StudentDao.clearDorm", SqlCommandType.UPDATE);
+
+        // Act
+        interceptor.intercept(new Invocation(handler,
+                StatementHandler.class.getMethod("update", Statement.class), new Object[]{ps}));
+
+        // Assert
+        Map<String, Object> stats = interceptor.getStats().get("StudentDao.clearDorm");
+        assertEquals(3L, stats.get("rows"));
+        assertEquals(1L, stats.get("slow"));
+    }
+
+    /**
+     * 测试用例：语句执行失败时仍然记录耗时并抛出原异常
+     */
+    @Test
+    void intercept_RecordsFailure() throws Exception {
+        // Arrange
+        SqlMetricsInterceptor interceptor = new SqlMetricsInterceptor(properties);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(ps.execute()).thenThrow(new SQLException("Deadlock found"));
+        StatementHandler handler = handler("com.kaiyu.dao.StudentDao.clearDorm", SqlCommandType.UPDATE);
+
+        // Act & Assert
+        assertThrows(Exception.class, () -> interceptor.intercept(new Invocation(handler,
+                StatementHandler.class.getMethod("update", Statement.class), new Object[]{ps})));
+        assertEquals(1L, interceptor.getStats().get("StudentDao.clearDorm").get("count"));
+        assertEquals(0L, interceptor.getStats().get("StudentDao.clearDorm").get("rows"));
+    }
+
+    /**
+     * 测试用例：分位数按桶上界估算
+     */
+    @Test
+    void latencyHistogram_Percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(800_000, 1, false);
+        }
+        histogram.record(40_000_000, 1, true);
+
+        assertEquals(1.0, histogram.percentileMillis(0.5));
+        assertEquals(1.0, histogram.percentileMillis(0.99));
+        assertEquals(50.0, histogram.percentileMillis(1.0));
+        assertEquals(100L, histogram.getCount());
+    }
+
+    private StatementHandler handler(String id, SqlCommandType type) {
+        MappedStatement ms = new MappedStatement.Builder(configuration, id,
+                new StaticSqlSource(configuration, "select 1"), type)
+                .resultMaps(Collections.singletonList(
+                        new ResultMap.Builder(configuration, id + "-Inline", HashMap.class, Collections.emptyList()).build()))
+                .build();
+        return configuration.newStatementHandler(mock(Executor.class), ms, null, RowBounds.DEFAULT, null,
+                ms.getBoundSql(null));
+    }
+}
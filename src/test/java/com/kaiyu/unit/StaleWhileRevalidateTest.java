@@ -0,0 +1,164 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.concurrent.CircuitBreaker;
+import com.kaiyu.concurrent.DegradedModeProperties;
+import com.kaiyu.concurrent.ServeStale;
+import com.kaiyu.concurrent.StaleWhileRevalidateAspect;
+import com.kaiyu.controller.DegradedModeAdvice;
+import com.kaiyu.datasource.CircuitOpenException;
+import com.kaiyu.model.ResponseMsg;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.MyBatisSystemException;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 数据库降级时返回过期数据测试类
+ */
+class StaleWhileRevalidateTest {
+
+    private CircuitBreaker breaker;
+    private StaleWhileRevalidateAspect aspect;
+    private Queries target;
+    private Queries proxy;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        DegradedModeProperties properties = new DegradedModeProperties();
+        properties.setMinimumCalls(1);
+        breaker = new CircuitBreaker("数据库", properties);
+        aspect = new StaleWhileRevalidateAspect(breaker, properties);
+        target = new Queries();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        proxy = factory.getProxy();
+        request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        aspect.shutdown();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    /**
+     * 测试用例：查询因数据库异常失败时返回上一次成功的结果，并在请求上标记过期
+     */
+    @Test
+    void failure_ServesLastGood() {
+        // Arrange
+        assertEquals("dorms-v1", proxy.page("101"));
+        assertNull(request.getAttribute(StaleWhileRevalidateAspect.STALE_AGE_ATTRIBUTE));
+        target.failure = new DataAccessResourceFailureException("Communications link failure");
+
+        // Act
+        Object result = proxy.page("101");
+
+        // Assert
+        assertEquals("dorms-v1", result);
+        assertNotNull(request.getAttribute(StaleWhileRevalidateAspect.STALE_AGE_ATTRIBUTE));
+        assertEquals(1L, aspect.getStaleServedCount());
+    }
+
+    /**
+     * 测试用例：没有保存过结果或不是数据库异常时照常抛出
+     */
+    @Test
+    void failure_WithoutStaleValueThrows() {
+        target.failure = new DataAccessResourceFailureException("Communications link failure");
+        assertThrows(DataAccessResourceFailureException.class, () -> proxy.page("101"));
+
+        target.failure = null;
+        proxy.page("101");
+        target.failure = new IllegalArgumentException("page");
+        assertThrows(IllegalArgumentException.class, () -> proxy.page("101"));
+    }
+
+    /**
+     * 测试用例：熔断期间直接返回过期数据，不等待查询，后台刷新后替换保存的结果
+     */
+    @Test
+    void open_ServesStaleAndRevalidates() throws Exception {
+        // Arrange
+        proxy.page("101");
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        target.version = 2;
+        target.revalidated = new CountDownLatch(1);
+
+        // Act
+        Object result = proxy.page("101");
+
+        // Assert
+        assertEquals("dorms-v1", result);
+        assertTrue(target.revalidated.await(5, TimeUnit.SECONDS));
+        assertEquals(2, target.calls.get());
+        waitForRevalidation();
+        assertEquals("dorms-v2", proxy.page("101"));
+    }
+
+    /**
+     * 测试用例：熔断期间被拒绝的请求按异常链匹配并返回503，其他数据库异常交给默认处理
+     */
+    @Test
+    void advice_CircuitOpenReturns503() throws NoSuchMethodException {
+        DegradedModeAdvice advice = new DegradedModeAdvice();
+        ExceptionHandlerMethodResolver resolver = new ExceptionHandlerMethodResolver(DegradedModeAdvice.class);
+        CircuitOpenException circuitOpen = new CircuitOpenException("数据库暂不可用，熔断中");
+
+        ResponseEntity<ResponseMsg> response = advice.handleDatabaseUnavailable(circuitOpen);
+
+        assertEquals(503, response.getStatusCodeValue());
+        assertNotNull(response.getHeaders().getFirst("Retry-After"));
+        assertEquals(DegradedModeAdvice.class.getMethod("handleDatabaseUnavailable", CircuitOpenException.class),
+                resolver.resolveMethodByThrowable(new MyBatisSystemException(
+                        new CannotGetJdbcConnectionException("Failed to obtain JDBC Connection", circuitOpen))));
+        assertNull(resolver.resolveMethodByThrowable(new DataAccessResourceFailureException("down")));
+    }
+
+    /**
+     * 后台刷新在返回结果之后才写入，等待刷新任务结束
+     */
+    private void waitForRevalidation() throws InterruptedException {
+        for (int i = 0; i < 50 && !"0".equals(String.valueOf(aspect.getStats().get("revalidating"))); i++) {
+            Thread.sleep(20);
+        }
+    }
+
+    static class Queries {
+
+        final AtomicInteger calls = new AtomicInteger();
+        volatile RuntimeException failure;
+        volatile int version = 1;
+        volatile CountDownLatch revalidated;
+
+        @ServeStale
+        public Object page(String name) {
+            calls.incrementAndGet();
+            if (failure != null) {
+                throw failure;
+            }
+            if (revalidated != null) {
+                revalidated.countDown();
+            }
+            return "dorms-v" + version;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.kaiyu.unit;
+
+import com.github.pagehelper.PageHelper;
+import com.kaiyu.cache.StatementCacheInterceptor;
+import com.kaiyu.cache.StatementCacheProperties;
+import com.kaiyu.utils.SqlTables;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * MyBatis查询结果缓存测试类
+ */
+class StatementCacheInterceptorTest {
+
+    private static final String GET_BUILDING_ALL = "com.kaiyu.dao.BuildingDao.getBuildingAll";
+
+    private Configuration configuration;
+    private Executor executor;
+    private StatementCacheInterceptor interceptor;
+    private Method query;
+    private Method update;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 其他测试调用 startPage 后留在当前线程的分页参数会让拦截器跳过缓存
+        PageHelper.clearPage();
+        configuration = new Configuration();
+        executor = mock(Executor.class);
+        when(executor.createCacheKey(any(), any(), any(), any())).thenReturn(new CacheKey(new Object[]{"all"}));
+        StatementCacheProperties properties = new StatementCacheProperties();
+        properties.setStatements(Collections.singletonList(GET_BUILDING_ALL));
+        interceptor = new StatementCacheInterceptor(properties, null);
+        query = Executor.class.getMethod("query", MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class);
+        update = Executor.class.getMethod("update", MappedStatement.class, Object.class);
+    }
+
+    /**
+     * 测试用例：相同查询第二次命中缓存，不再访问数据库
+     */
+    @Test
+    void query_CachedUntilTableWritten() throws Throwable {
+        // Arrange
+        MappedStatement select = statement(GET_BUILDING_ALL, "select id, name from building", SqlCommandType.SELECT);
+        MappedStatement insert = statement("com.kaiyu.dao.BuildingDao.saveBuilding",
+                "insert into building(name) values (?)", SqlCommandType.INSERT);
+        MappedStatement otherInsert = statement("com.kaiyu.dao.RoleDao.insert",
+                "insert into role (name) values (?)", SqlCommandType.INSERT);
+        when(executor.query(any(), any(), any(), any())).thenReturn(Arrays.asList("A"), Arrays.asList("A", "B"));
+
+        // Act
+        List<?> first = (List<?>) runQuery(select);
+        List<?> second = (List<?>) runQuery(select);
+        interceptor.intercept(new Invocation(executor, update, new Object[]{otherInsert, null}));
+        List<?> third = (List<?>) runQuery(select);
+        interceptor.intercept(new Invocation(executor, update, new Object[]{insert, null}));
+        List<?> fourth = (List<?>) runQuery(select);
+
+        // Assert
+        assertEquals(Arrays.asList("A"), first);
+        assertEquals(Arrays.asList("A"), second);
+        assertEquals(Arrays.asList("A"), third);
+        assertEquals(Arrays.asList("A", "B"), fourth);
+        verify(executor, times(2)).query(any(), any(), any(), any());
+        assertEquals(2L, interceptor.getStats().get("hits"));
+    }
+
+    /**
+     * 测试用例：未配置的查询语句不缓存
+     */
+    @Test
+    void query_NotConfiguredPassesThrough() throws Throwable {
+        // Arrange
+        MappedStatement select = statement("com.kaiyu.dao.StudentDao.getStudentByName",
+                "select id from student", SqlCommandType.SELECT);
+        when(executor.query(any(), any(), any(), any())).thenReturn(Collections.emptyList());
+
+        // Act
+        runQuery(select);
+        runQuery(select);
+
+        // Assert
+        verify(executor, times(2)).query(any(), any(), any(), any());
+    }
+
+    /**
+     * 测试用例：解析查询和写入涉及的表
+     */
+    @Test
+    void sqlTables_Parse() {
+        assertEquals(new LinkedHashSet<>(Arrays.asList("menu", "menu_role", "role")),
+                SqlTables.readTables("select m.*, r.`id` as rid from menu m,\n menu_role mr,\n role r where m.id = mr.mid"));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("student", "dorm")),
+                SqlTables.readTables("select s.id from student s left join dorm d on d.id = s.dorm_id"));
+        assertEquals(Collections.singleton("student"),
+                SqlTables.writeTables("update student set dorm_id = null where dorm_id in (select id from dorm)"));
+        assertEquals(Collections.singleton("student_archive"),
+                SqlTables.writeTables("insert into student_archive(id) select id from student"));
+        assertEquals(Collections.singleton("dorm"), SqlTables.writeTables("delete from dorm where id in (?)"));
+    }
+
+    private Object runQuery(MappedStatement ms) throws Throwable {
+        return interceptor.intercept(new Invocation(executor, query,
+                new Object[]{ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER}));
+    }
+
+    private MappedStatement statement(String id, String sql, SqlCommandType type) {
+        return new MappedStatement.Builder(configuration, id, new StaticSqlSource(configuration, sql), type).build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.dao.StudentArchiveDao;
+import com.kaiyu.dao.StudentDao;
+import com.kaiyu.model.JobProgress;
+import com.kaiyu.service.StudentArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 学生归档测试类
+ */
+class StudentArchiveServiceTest {
+
+    @Mock
+    private StudentDao studentDao;
+
+    @Mock
+    private StudentArchiveDao studentArchiveDao;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private StudentArchiveService studentArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(studentArchiveService, "chunkSize", 2);
+        ReflectionTestUtils.setField(studentArchiveService, "pauseMs", 0L);
+        ReflectionTestUtils.setField(studentArchiveService, "batchJobExecutor", new SyncTaskExecutor());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    /**
+     * 测试用例：分批归档退宿超过保留期的学生
+     * 验证：
+     * 1. 每批先复制到归档表再从学生表删除
+     * 2. 不足一批时结束并记录归档总数
+     */
+    @Test
+    void startArchive_Success() {
+        // Arrange
+        int[] first = {1, 2};
+        int[] second = {3};
+        when(studentDao.getStaleIdsForUpdate(any(), eq(2))).thenReturn(first, second);
+        when(studentDao.deleteStudents(first)).thenReturn(2);
+        when(studentDao.deleteStudents(second)).thenReturn(1);
+
+        // Act
+        JobProgress progress = studentArchiveService.startArchive();
+
+        // Assert
+        assertEquals(JobProgress.FINISHED, progress.getStatus());
+        assertEquals(3, progress.getProcessed());
+        assertSame(progress, studentArchiveService.getProgress());
+        verify(studentArchiveDao).saveFromStudents(first);
+        verify(studentArchiveDao).saveFromStudents(second);
+    }
+
+    /**
+     * 测试用例：没有需要归档的学生
+     */
+    @Test
+    void archiveStale_Nothing() {
+        // Arrange
+        when(studentDao.getStaleIdsForUpdate(any(), eq(2))).thenReturn(new int[0]);
+
+        // Act & Assert
+        assertEquals(0, studentArchiveService.archiveStale(new JobProgress("archive")));
+        verify(studentArchiveDao, never()).saveFromStudents(any());
+    }
+}
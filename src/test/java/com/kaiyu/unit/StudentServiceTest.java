@@ -1,10 +1,13 @@
 package com.kaiyu.unit;
 
+import com.github.pagehelper.PageHelper;
 import com.kaiyu.dao.StudentDao;
 import com.kaiyu.entity.Dorm;
 import com.kaiyu.entity.Student;
+import com.kaiyu.model.ChunkResult;
 import com.kaiyu.model.ResponsePage;
 import com.kaiyu.service.StudentService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -16,6 +19,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -35,6 +39,14 @@ class StudentServiceTest {
         MockitoAnnotations.openMocks(this);
     }
 
+    /**
+     * 被测方法调用 startPage 后 DAO 是模拟的，分页参数不会被消费，需要手动清除
+     */
+    @AfterEach
+    void tearDown() {
+        PageHelper.clearPage();
+    }
+
     /**
      * 测试用例：分页查询学生信息
      * 验证：
@@ -132,19 +144,16 @@ class StudentServiceTest {
     @Test
     void deleteStudents_Success() {
         // Arrange
-        List<Student> students = Arrays.asList(
-            createStudent(1, "2021001", "张三", 1, 1),
-            createStudent(2, "2021002", "李四", 1, 1)
-        );
-        List<Integer> ids = Arrays.asList(1, 2);
-        when(studentDao.deleteStudents(ids)).thenReturn(2);
+        int[] ids = {1, 2};
+        when(studentDao.deleteStudents(aryEq(ids))).thenReturn(2);
 
         // Act
-        int result = studentService.deleteStudents(students);
+        List<ChunkResult> result = studentService.deleteStudents(ids);
 
         // Assert
-        assertEquals(2, result);
-        verify(studentDao).deleteStudents(ids);
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0).getAffected());
+        verify(studentDao).deleteStudents(aryEq(ids));
     }
 
 
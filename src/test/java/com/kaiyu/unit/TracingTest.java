@@ -0,0 +1,194 @@
+package com.kaiyu.unit;
+
+import com.kaiyu.tracing.TraceAttributes;
+import com.kaiyu.tracing.TracingFilter;
+import com.kaiyu.tracing.TracingInterceptor;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.Filter;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 链路追踪测试类
+ */
+class TracingTest {
+
+    private static final AttributeKey<Boolean> REJECTED = AttributeKey.booleanKey("security.rejected");
+
+    private final CollectingExporter exporter = new CollectingExporter();
+    private SdkTracerProvider tracerProvider;
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    /**
+     * 测试用例：安全过滤器链单独一个span，控制器span挂在SERVER span下，SERVER span按路由命名
+     */
+    @Test
+    void filter_SpansAcrossSecurityChain() throws Exception {
+        // Arrange
+        Tracer tracer = tracer(1.0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/student/list");
+
+        // Act
+        new TracingFilter(tracer, W3CTraceContextPropagator.getInstance()).doFilter(request,
+                new MockHttpServletResponse(), chain(tracer, new TracingFilter.SecurityExit()));
+
+        // Assert
+        SpanData server = find("GET /api/student/list");
+        SpanData security = find("SecurityFilterChain");
+        SpanData controller = find("StudentController.getStudentList");
+        assertEquals(server.getSpanId(), security.getParentSpanId());
+        assertEquals(server.getSpanId(), controller.getParentSpanId());
+        assertNull(security.getAttributes().get(REJECTED));
+        assertEquals(200L, server.getAttributes().get(TraceAttributes.HTTP_STATUS));
+    }
+
+    /**
+     * 测试用例：请求被安全过滤器拦截时安全span标记为拒绝
+     */
+    @Test
+    void filter_RejectedBySecurity() throws Exception {
+        // Arrange
+        Tracer tracer = tracer(1.0);
+        Filter reject = (req, resp, chain) -> ((HttpServletResponse) resp).setStatus(401);
+
+        // Act
+        new TracingFilter(tracer, W3CTraceContextPropagator.getInstance()).doFilter(
+                new MockHttpServletRequest("GET", "/api/student/list"), new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                }, reject, new TracingFilter.SecurityExit()));
+
+        // Assert
+        SpanData security = find("SecurityFilterChain");
+        assertEquals(Boolean.TRUE, security.getAttributes().get(REJECTED));
+        assertEquals(401L, find("GET").getAttributes().get(TraceAttributes.HTTP_STATUS));
+    }
+
+    /**
+     * 测试用例：未被采样的请求不产生span
+     */
+    @Test
+    void filter_NotSampled() throws Exception {
+        Tracer tracer = tracer(0.0);
+
+        new TracingFilter(tracer, W3CTraceContextPropagator.getInstance()).doFilter(
+                new MockHttpServletRequest("GET", "/api/student/list"), new MockHttpServletResponse(),
+                chain(tracer, new TracingFilter.SecurityExit()));
+
+        assertTrue(exporter.spans.isEmpty());
+    }
+
+    /**
+     * 测试用例：SQL span 记录语句id和行数
+     */
+    @Test
+    void interceptor_RecordsStatementAndRows() throws Throwable {
+        // Arrange
+        Tracer tracer = tracer(1.0);
+        Configuration configuration = new Configuration();
+        MappedStatement ms = new MappedStatement.Builder(configuration, "com.kaiyu.dao.StudentDao.getStudentByName",
+                new StaticSqlSource(configuration, "select 1"), SqlCommandType.SELECT).build();
+        Executor executor = mock(Executor.class);
+        when(executor.query(any(), any(), any(), any())).thenReturn(Arrays.asList(1, 2, 3));
+        Invocation invocation = new Invocation(executor, Executor.class.getMethod("query",
+                MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class),
+                new Object[]{ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER});
+
+        // Act
+        Span parent = tracer.spanBuilder("parent").startSpan();
+        try (Scope ignored = parent.makeCurrent()) {
+            new TracingInterceptor(tracer).intercept(invocation);
+        } finally {
+            parent.end();
+        }
+
+        // Assert
+        SpanData sql = find("StudentDao.getStudentByName");
+        assertEquals(parent.getSpanContext().getSpanId(), sql.getParentSpanId());
+        assertEquals(3L, sql.getAttributes().get(TraceAttributes.DB_ROWS));
+        assertEquals("SELECT", sql.getAttributes().get(TraceAttributes.DB_OPERATION));
+    }
+
+    private Tracer tracer(double ratio) {
+        tracerProvider = SdkTracerProvider.builder()
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(ratio)))
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        return tracerProvider.get("test");
+    }
+
+    private SpanData find(String name) {
+        return exporter.spans.stream()
+                .filter(span -> name.equals(span.getName()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("没有span：" + name));
+    }
+
+    private static MockFilterChain chain(Tracer tracer, Filter... filters) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/student/list");
+                tracer.spanBuilder("StudentController.getStudentList").startSpan().end();
+            }
+        }, filters);
+    }
+
+    private static class CollectingExporter implements SpanExporter {
+
+        private final List<SpanData> spans = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> batch) {
+            spans.addAll(batch);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.kaiyu.unit;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kaiyu.cache.RedisCacheStore;
+import com.kaiyu.cache.TwoLevelCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 两级缓存测试类
+ */
+class TwoLevelCacheTest {
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private ValueOperations<String, Object> valueOperations;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        RedisCacheStore remote = new RedisCacheStore(redisTemplate, Duration.ofMinutes(1));
+        cache = new TwoLevelCache("test_cache",
+                Caffeine.newBuilder().maximumSize(10).recordStats().build(), remote, Duration.ofMinutes(5));
+    }
+
+    /**
+     * 测试用例：本地未命中时从Redis读取并回填本地缓存
+     */
+    @Test
+    void get_RemoteHitFillsLocal() {
+        // Arrange
+        when(valueOperations.get("test_cache::1")).thenReturn("value");
+
+        // Act
+        Object first = cache.get(1).get();
+        Object second = cache.get(1).get();
+
+        // Assert
+        assertEquals("value", first);
+        assertEquals("value", second);
+        verify(valueOperations, times(1)).get("test_cache::1");
+        assertEquals(1L, cache.getStats().get("remoteHits"));
+    }
+
+    /**
+     * 测试用例：两级都未命中时调用加载方法并写入两级缓存
+     */
+    @Test
+    void getWithLoader_WritesBothLevels() {
+        // Act
+        String value = cache.get("k", () -> "loaded");
+
+        // Assert
+        assertEquals("loaded", value);
+        assertEquals("loaded", cache.get("k", () -> "other"));
+        verify(valueOperations).set(eq("test_cache::k"), eq("loaded"), anyLong(), any());
+    }
+
+    /**
+     * 测试用例：同一个key并发加载时只调用一次加载方法，其他key不等待正在进行的慢加载
+     */
+    @Test
+    void getWithLoader_LoadsOncePerKey() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get("slow", () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            release.await();
+            return "slow";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.get("slow", () -> {
+            loads.incrementAndGet();
+            return "again";
+        }));
+
+        // Act
+        String other = cache.get("fast", () -> "fast");
+        release.countDown();
+
+        // Assert
+        assertEquals("fast", other);
+        assertEquals("slow", first.get(5, TimeUnit.SECONDS));
+        assertEquals("slow", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    /**
+     * 测试用例：Redis故障时退化为只使用本地缓存，且在重试间隔内不再访问Redis
+     */
+    @Test
+    void redisFailure_FallsBackToLocal() {
+        // Arrange
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        // Act
+        String first = cache.get("a", () -> "A");
+        String second = cache.get("b", () -> "B");
+
+        // Assert
+        assertEquals("A", first);
+        assertEquals("B", second);
+        assertEquals("A", cache.get("a").get());
+        verify(valueOperations, times(1)).get(anyString());
+        assertEquals(false, cache.getStats().get("remoteAvailable"));
+    }
+}
@@ -0,0 +1,152 @@
+package com.kaiyu.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.code.kaptcha.Producer;
+import com.kaiyu.config.CustomFilterInvocationSecurityMetadataSource;
+import com.kaiyu.model.ResponsePage;
+import com.kaiyu.service.BuildingService;
+import com.kaiyu.service.DormService;
+import com.kaiyu.service.MenuService;
+import com.kaiyu.service.ReferenceDataService;
+import com.kaiyu.service.StudentService;
+import com.kaiyu.service.WarmUpService;
+import com.kaiyu.warmup.WarmUpProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.awt.image.BufferedImage;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * 启动预热测试类
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WarmUpServiceTest {
+
+    @Mock
+    private HikariDataSource primaryDataSource;
+
+    @Mock
+    private ReferenceDataService referenceDataService;
+
+    @Mock
+    private MenuService menuService;
+
+    @Mock
+    private StudentService studentService;
+
+    @Mock
+    private DormService dormService;
+
+    @Mock
+    private BuildingService buildingService;
+
+    @Mock
+    private CustomFilterInvocationSecurityMetadataSource securityMetadataSource;
+
+    @Mock
+    private Producer captchaProducer;
+
+    @InjectMocks
+    private WarmUpService warmUpService;
+
+    private WarmUpProperties properties;
+
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        properties = new WarmUpProperties();
+        properties.setIterations(2);
+        ReflectionTestUtils.setField(warmUpService, "properties", properties);
+        ReflectionTestUtils.setField(warmUpService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(warmUpService, "publisher", (ApplicationEventPublisher) events::add);
+        when(primaryDataSource.getMinimumIdle()).thenReturn(3);
+        when(primaryDataSource.getMaximumPoolSize()).thenReturn(10);
+        when(primaryDataSource.getConnection()).thenAnswer(i -> mock(Connection.class));
+        when(studentService.getStudentByName(anyInt(), anyInt(), any())).thenReturn(new ResponsePage());
+        when(menuService.getAllMenusWithRole()).thenReturn(Collections.emptyList());
+        when(captchaProducer.createText()).thenReturn("abcd");
+        when(captchaProducer.createImage("abcd")).thenReturn(new BufferedImage(90, 40, BufferedImage.TYPE_INT_RGB));
+    }
+
+    /**
+     * 测试用例：预热期间就绪状态为拒绝流量，全部步骤完成后恢复接收流量
+     */
+    @Test
+    void onReady_GatesReadiness() throws SQLException {
+        // Act
+        warmUpService.onReady();
+
+        // Assert
+        assertEquals(2, events.size());
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, ((AvailabilityChangeEvent<?>) events.get(0)).getState());
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, ((AvailabilityChangeEvent<?>) events.get(1)).getState());
+        verify(primaryDataSource, times(3)).getConnection();
+        verify(referenceDataService).current();
+        verify(captchaProducer, times(properties.getCaptchas())).createImage("abcd");
+        verify(securityMetadataSource, times(2 * properties.getUrls().size())).getAttributes(any());
+        Map<?, ?> steps = (Map<?, ?>) warmUpService.getStatus().get("steps");
+        assertEquals("DONE", warmUpService.getStatus().get("state"));
+        assertEquals(7, steps.size());
+        assertTrue(steps.values().stream().allMatch(v -> v instanceof Long));
+    }
+
+    /**
+     * 测试用例：某一步失败只记录下来，后续步骤继续执行
+     */
+    @Test
+    void warmUp_StepFailureDoesNotStop() throws SQLException {
+        // Arrange
+        when(primaryDataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // Act
+        warmUpService.warmUp();
+
+        // Assert
+        Map<?, ?> steps = (Map<?, ?>) warmUpService.getStatus().get("steps");
+        assertEquals("FAILED", steps.get("connections"));
+        assertTrue(steps.get("captcha") instanceof Long);
+        verify(menuService, atLeastOnce()).getAllMenusWithRole();
+    }
+
+    /**
+     * 测试用例：超过总时长上限后跳过剩余步骤
+     */
+    @Test
+    void warmUp_SkipsAfterMaxDuration() {
+        // Arrange
+        properties.setMaxDuration(Duration.ZERO);
+
+        // Act
+        warmUpService.warmUp();
+
+        // Assert
+        Map<?, ?> steps = (Map<?, ?>) warmUpService.getStatus().get("steps");
+        assertTrue(steps.values().stream().allMatch("SKIPPED"::equals));
+        verifyNoInteractions(menuService, captchaProducer);
+    }
+}